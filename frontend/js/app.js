@@ -60,7 +60,7 @@ document.addEventListener("DOMContentLoaded", async () => {
           (frame) => {
             console.log("WebSocket Connected with Auth:", frame);
 
-            stompClient.subscribe("/topic/prices", (message) => {
+            stompClient.subscribe("/topic/prices/BTC-USD", (message) => {
               const tick = JSON.parse(message.body);
               // **CORRECTION HERE**
               livePriceSpan.textContent = `$${tick.price.toFixed(2)}`;
@@ -73,7 +73,7 @@ document.addEventListener("DOMContentLoaded", async () => {
               fetchAndDisplayAlerts();
             });
 
-            stompClient.subscribe("/topic/predictions", (message) => {
+            stompClient.subscribe("/topic/predictions/BTC-USD", (message) => {
               const prediction = message.body;
               aiSignalSpan.textContent = `AI Signal: ${prediction}`;
               aiSignalSpan.classList.remove(
@@ -126,13 +126,14 @@ document.addEventListener("DOMContentLoaded", async () => {
     liveBtn.classList.remove("active");
     livePriceSpan.textContent = "Loading history...";
     try {
-      const historicalTicks = await fetchSecurely(
-        "https://price-streamer-production.up.railway.app/history?symbol=BTC-USD&range=24h"
+      // 5-minute candles keep a 24h chart at ~288 points instead of every raw tick
+      const candles = await fetchSecurely(
+        "https://price-streamer-production.up.railway.app/history?symbol=BTC-USD&range=24h&interval=5m"
       );
-      plotHistoricalData(historicalTicks);
-      if (historicalTicks.length > 0) {
-        const latestTick = historicalTicks[historicalTicks.length - 1];
-        livePriceSpan.textContent = `$${latestTick.price.toFixed(2)}`;
+      plotHistoricalData(candles);
+      if (candles.length > 0) {
+        const latestCandle = candles[candles.length - 1];
+        livePriceSpan.textContent = `$${latestCandle.close.toFixed(2)}`;
       } else {
         livePriceSpan.textContent = "No historical data found.";
       }
@@ -73,6 +73,10 @@ export function updateChart(tick) {
     // This command tells Chart.js to redraw the chart with the new data
     priceChart.update('none'); // 'none' for a smooth animation
 }
+/**
+ * Replaces the chart contents with historical data.
+ * @param {object[]} ticks - Raw ticks { price, timestamp } or candles { close, timestamp }.
+ */
 export function plotHistoricalData(ticks) {
     // Clear any existing live data
     priceChart.data.labels = [];
@@ -81,7 +85,7 @@ export function plotHistoricalData(ticks) {
     // Populate the chart with the historical data
     ticks.forEach(tick => {
         priceChart.data.labels.push(tick.timestamp);
-        priceChart.data.datasets[0].data.push(tick.price);
+        priceChart.data.datasets[0].data.push(tick.close ?? tick.price);
     });
 
     // Redraw the chart
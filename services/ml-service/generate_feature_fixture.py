@@ -0,0 +1,49 @@
+"""
+Rewrites the expected feature columns of price-streamer's ml/feature-parity.csv with
+create_features, so they are exactly what pandas computes for the fixture's tick stream. The
+timestamp and price columns are the input and are kept as they are.
+
+    python generate_feature_fixture.py
+
+test_features.py fails when the file and create_features disagree.
+"""
+import csv
+import io
+from pathlib import Path
+
+import pandas as pd
+
+from model import FEATURE_NAMES, create_features
+
+FIXTURE = Path(__file__).resolve().parent.parent / "price-streamer" / "src" / "test" / "resources" / "ml" / "feature-parity.csv"
+
+
+def read_fixture():
+    with open(FIXTURE, newline="") as f:
+        return f.read()
+
+
+def render(rows):
+    """The fixture for the rows' tick stream, as create_features computes it."""
+    df = pd.DataFrame({"timestamp": [r["timestamp"] for r in rows], "price": [float(r["price"]) for r in rows]})
+    featured = create_features(df)
+    # Only the leading rows its lags and windows cannot fill are dropped
+    first = len(rows) - len(featured)
+
+    out = io.StringIO()
+    writer = csv.writer(out, lineterminator="\n")
+    writer.writerow(["timestamp", "price"] + FEATURE_NAMES)
+    for i, row in enumerate(rows):
+        if i < first:
+            values = [""] * len(FEATURE_NAMES)
+        else:
+            # repr is the shortest string that parses back to the same double, in Python and Java alike
+            values = [repr(float(featured.iloc[i - first][name])) for name in FEATURE_NAMES]
+        writer.writerow([row["timestamp"], row["price"]] + values)
+    return out.getvalue()
+
+
+if __name__ == "__main__":
+    rows = list(csv.DictReader(io.StringIO(read_fixture())))
+    with open(FIXTURE, "w", newline="") as f:
+        f.write(render(rows))
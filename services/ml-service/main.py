@@ -1,4 +1,4 @@
-from fastapi import FastAPI
+from fastapi import FastAPI, HTTPException
 from pydantic import BaseModel
 import pandas as pd
 from typing import List
@@ -7,7 +7,7 @@ import threading
 import time
 
 from database import fetch_price_data
-from model import create_features, create_target, train_model
+from model import FEATURE_NAMES, create_features, create_target, train_model
 
 # --- Lifespan event for startup training ---
 @asynccontextmanager
@@ -48,6 +48,13 @@ class PriceTick(BaseModel):
 class PredictionRequest(BaseModel):
     ticks: List[PriceTick]
 
+class FeatureVector(BaseModel):
+    symbol: str
+    features: List[float]  # In FEATURE_NAMES order
+
+class BatchPredictionRequest(BaseModel):
+    items: List[FeatureVector]
+
 # --- API Endpoints ---
 @app.get("/")
 def read_root():
@@ -99,11 +106,35 @@ def predict_price_movement(request: PredictionRequest):
         return {"prediction": "INSUFFICIENT_DATA"}
 
     # 3. Select the features for the last available row
-    features = [col for col in df_featured.columns if col not in ['id', 'symbol', 'price', 'future_price', 'target']]
-    last_row_features = df_featured[features].tail(1)
+    last_row_features = df_featured[FEATURE_NAMES].tail(1)
 
     # 4. Make a prediction
     prediction_result = model.predict(last_row_features)
     prediction_text = "UP" if prediction_result[0] == 1 else "DOWN"
 
-    return {"prediction": prediction_text}
\ No newline at end of file
+    return {"prediction": prediction_text}
+
+@app.post("/predict/batch")
+def predict_batch(request: BatchPredictionRequest):
+    """
+    Receives ready-made feature vectors for several symbols and predicts each one's next
+    movement with a single model call.
+    """
+    for item in request.items:
+        if len(item.features) != len(FEATURE_NAMES):
+            raise HTTPException(status_code=422, detail=f"{item.symbol}: expected {len(FEATURE_NAMES)} features")
+
+    model = model_cache.get("model")
+    if model is None:
+        return {"predictions": [{"symbol": item.symbol, "prediction": "TRAINING"} for item in request.items]}
+    if not request.items:
+        return {"predictions": []}
+
+    # One row per symbol, with the column names the model was trained on
+    features = pd.DataFrame([item.features for item in request.items], columns=FEATURE_NAMES)
+    results = model.predict(features)
+
+    return {"predictions": [
+        {"symbol": item.symbol, "prediction": "UP" if result == 1 else "DOWN"}
+        for item, result in zip(request.items, results)
+    ]}
@@ -3,6 +3,10 @@ from sklearn.ensemble import RandomForestClassifier
 from sklearn.model_selection import train_test_split
 from sklearn.metrics import accuracy_score
 
+# The model's inputs, in order. price-streamer computes the same vector per tick
+# (PredictionFeatures.java) and sends it to /predict/batch.
+FEATURE_NAMES = ['lag_1', 'lag_2', 'lag_3', 'lag_4', 'lag_5', 'sma_5', 'sma_10']
+
 def create_features(df):
     """
     Creates time-series features from the price data.
@@ -42,8 +46,7 @@ def train_model(df):
         return None, 0.0
 
     # Define features (X) and target (y)
-    features = [col for col in df.columns if col not in ['id', 'symbol', 'price', 'future_price', 'target']]
-    X = df[features]
+    X = df[FEATURE_NAMES]
     y = df['target']
 
     # Split data into training and testing sets
@@ -0,0 +1,77 @@
+"""
+Parity between the features price-streamer sends and the ones create_features builds.
+
+The fixture lives with price-streamer's tests (PredictionFeaturesTest reads the same file): a
+tick stream and, per tick, the feature row create_features keeps for it, blank where it drops
+the row. generate_feature_fixture.py writes those rows from create_features itself.
+"""
+import csv
+import io
+
+import pandas as pd
+import pytest
+from fastapi.testclient import TestClient
+
+import main
+from generate_feature_fixture import read_fixture, render
+from model import FEATURE_NAMES, create_features
+
+
+def load_fixture():
+    return list(csv.DictReader(io.StringIO(read_fixture())))
+
+
+def test_create_features_matches_fixture():
+    # Bit for bit: the fixture must be what this pandas computes, so regenerate it if pandas changes
+    current = read_fixture()
+
+    assert render(load_fixture()) == current, "run python generate_feature_fixture.py"
+
+
+def test_legacy_window_row_equals_the_vector():
+    # What /predict computes from the 15 ticks the streamer used to send
+    rows = load_fixture()[-15:]
+    df = pd.DataFrame({"timestamp": [r["timestamp"] for r in rows], "price": [float(r["price"]) for r in rows]})
+
+    last_row = create_features(df)[FEATURE_NAMES].tail(1).iloc[0]
+
+    # The rolling sums start over at the first of the 15 ticks, so the averages may round differently
+
+    assert list(last_row) == pytest.approx([float(rows[-1][name]) for name in FEATURE_NAMES], rel=1e-12)
+
+
+class RecordingModel:
+    def __init__(self):
+        self.seen = None
+
+    def predict(self, features):
+        self.seen = features
+        return [1 if row["lag_1"] > 0 else 0 for _, row in features.iterrows()]
+
+
+def test_batch_predicts_every_vector_in_one_call(monkeypatch):
+    model = RecordingModel()
+    monkeypatch.setitem(main.model_cache, "model", model)
+    client = TestClient(main.app)
+
+    response = client.post("/predict/batch", json={"items": [
+        {"symbol": "BTC-USD", "features": [1, 2, 3, 4, 5, 6, 7]},
+        {"symbol": "ETH-USD", "features": [-1, 2, 3, 4, 5, 6, 7]},
+    ]})
+
+    assert response.status_code == 200
+    assert response.json() == {"predictions": [
+        {"symbol": "BTC-USD", "prediction": "UP"},
+        {"symbol": "ETH-USD", "prediction": "DOWN"},
+    ]}
+    assert list(model.seen.columns) == FEATURE_NAMES
+    assert len(model.seen) == 2
+
+
+def test_batch_rejects_vectors_of_the_wrong_length(monkeypatch):
+    monkeypatch.setitem(main.model_cache, "model", RecordingModel())
+    client = TestClient(main.app)
+
+    response = client.post("/predict/batch", json={"items": [{"symbol": "BTC-USD", "features": [1, 2]}]})
+
+    assert response.status_code == 422
@@ -1,4 +1,4 @@
-package com.trading.price_producer;
+package com.trading.price_codec;
 
 public record PriceTick(String symbol, double price, long timestamp) {
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package com.trading.price_codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-layout binary encoding of a {@link PriceTick} (big-endian):
+ * <pre>
+ *  offset  size  field
+ *       0     1  schema version (currently 2)
+ *       1     1  symbol kind: 0 = dictionary id, 1 = inline UTF-8 name
+ *       2     2  dictionary id, or length of the inline name in bytes
+ *       4     4  fingerprint of the encoder's {@link SymbolDictionary}
+ *       8     8  price (IEEE 754 double)
+ *      16     8  timestamp (epoch milliseconds)
+ *      24     n  inline name, only for symbol kind 1
+ * </pre>
+ * A dictionary symbol is always exactly {@value #FIXED_SIZE} bytes and decodes to the
+ * dictionary's own String, so the common case allocates nothing but the tick itself. A dictionary
+ * id encoded with a different dictionary than the decoder's is rejected; inline names decode
+ * whatever the dictionaries. Any other schema version is rejected. Instances are thread-safe.
+ */
+public final class PriceTickCodec {
+
+    public static final byte VERSION = 2;
+    public static final int FIXED_SIZE = 24;
+
+    static final byte KIND_DICTIONARY = 0;
+    static final byte KIND_INLINE = 1;
+
+    // Inline names decoded so far, in an open-addressed table keyed by a hash of their bytes, so
+    // repeats are neither re-allocated nor searched for linearly. A name whose probe run is full
+    // replaces the first slot of it, so a stream with more distinct names still costs one probe run.
+    private static final int INLINE_SLOTS = 4096;
+    private static final int MAX_PROBES = 8;
+
+    private final SymbolDictionary dictionary;
+    private final Map<String, byte[]> inlineBytes = new ConcurrentHashMap<>();
+    private final InlineName[] inlineNames = new InlineName[INLINE_SLOTS];
+
+    public PriceTickCodec(SymbolDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public int encodedSize(PriceTick tick) {
+        return dictionary.idOf(tick.symbol()) >= 0 ? FIXED_SIZE : FIXED_SIZE + utf8(tick.symbol()).length;
+    }
+
+    /**
+     * Writes the tick at the buffer's position, which must have {@link #encodedSize} bytes left.
+     */
+    public void encode(PriceTick tick, ByteBuffer out) {
+        int id = dictionary.idOf(tick.symbol());
+        out.put(VERSION);
+        if (id >= 0) {
+            out.put(KIND_DICTIONARY).putShort((short) id).putInt(dictionary.fingerprint());
+            out.putDouble(tick.price()).putLong(tick.timestamp());
+        } else {
+            byte[] name = utf8(tick.symbol());
+            out.put(KIND_INLINE).putShort((short) name.length).putInt(dictionary.fingerprint());
+            out.putDouble(tick.price()).putLong(tick.timestamp());
+            out.put(name);
+        }
+    }
+
+    public byte[] encode(PriceTick tick) {
+        byte[] bytes = new byte[encodedSize(tick)];
+        encode(tick, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Reads one tick starting at the buffer's position, leaving the position after it.
+     */
+    public PriceTick decode(ByteBuffer in) {
+        byte version = in.remaining() > 0 ? in.get(in.position()) : VERSION;
+        if (version != VERSION) {
+            throw new SerializationException("Unsupported PriceTick schema version " + version);
+        }
+        if (in.remaining() < FIXED_SIZE) {
+            throw new SerializationException("PriceTick needs at least " + FIXED_SIZE + " bytes, got " + in.remaining());
+        }
+        in.get();
+        byte kind = in.get();
+        int symbolField = in.getShort() & 0xFFFF;
+        int fingerprint = in.getInt();
+        double price = in.getDouble();
+        long timestamp = in.getLong();
+
+        String symbol;
+        if (kind == KIND_DICTIONARY) {
+            if (fingerprint != dictionary.fingerprint()) {
+                throw new SerializationException(String.format(
+                        "PriceTick was encoded with symbol dictionary %08x, but this one is %08x: "
+                                + "%s must list the same symbols in the same order everywhere",
+                        fingerprint, dictionary.fingerprint(), SymbolDictionary.SYMBOLS_CONFIG));
+            }
+            symbol = dictionary.nameOf(symbolField);
+            if (symbol == null) {
+                throw new SerializationException("Unknown dictionary symbol id " + symbolField);
+            }
+        } else if (kind == KIND_INLINE) {
+            symbol = readInline(in, symbolField);
+        } else {
+            throw new SerializationException("Unknown PriceTick symbol kind " + kind);
+        }
+        return new PriceTick(symbol, price, timestamp);
+    }
+
+    public PriceTick decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    private byte[] utf8(String symbol) {
+        return inlineBytes.computeIfAbsent(symbol, s -> s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String readInline(ByteBuffer in, int length) {
+        if (in.remaining() < length) {
+            throw new SerializationException("Inline symbol needs " + length + " bytes, got " + in.remaining());
+        }
+        int start = in.position();
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + in.get(start + i);
+        }
+        int home = (hash ^ (hash >>> 16)) & (INLINE_SLOTS - 1);
+        int free = home;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (home + probe) & (INLINE_SLOTS - 1);
+            InlineName cached = inlineNames[slot];
+            if (cached == null) {
+                free = slot;
+                break;
+            }
+            if (cached.matches(in, start, length)) {
+                in.position(start + length);
+                return cached.name;
+            }
+        }
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        String name = new String(bytes, StandardCharsets.UTF_8);
+        // Racing decoders may overwrite each other's entry; it is only a cache, and its fields are final
+        inlineNames[free] = new InlineName(name, bytes);
+        return name;
+    }
+
+    private static final class InlineName {
+        private final String name;
+        private final byte[] utf8;
+
+        InlineName(String name, byte[] utf8) {
+            this.name = name;
+            this.utf8 = utf8;
+        }
+
+        // Compares against the buffer in place, without allocating
+        boolean matches(ByteBuffer in, int start, int length) {
+            if (utf8.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (in.get(start + i) != utf8[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
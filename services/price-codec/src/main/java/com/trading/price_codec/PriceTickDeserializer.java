@@ -0,0 +1,51 @@
+package com.trading.price_codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for the binary {@link PriceTickCodec} format. When created by Kafka
+ * from its class name, the symbol dictionary is read from {@value SymbolDictionary#SYMBOLS_CONFIG}.
+ * <p>
+ * The consumer hands over a view of its fetch buffer, which is decoded in place without
+ * copying the record out first.
+ */
+public class PriceTickDeserializer implements Deserializer<PriceTick> {
+
+    private PriceTickCodec codec;
+
+    public PriceTickDeserializer() {
+    }
+
+    public PriceTickDeserializer(SymbolDictionary dictionary) {
+        this.codec = new PriceTickCodec(dictionary);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (codec == null) {
+            codec = new PriceTickCodec(SymbolDictionary.fromConfigs(configs));
+        }
+    }
+
+    @Override
+    public PriceTick deserialize(String topic, byte[] data) {
+        return data == null ? null : codec.decode(data);
+    }
+
+    @Override
+    public PriceTick deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        int position = data.position();
+        try {
+            return codec.decode(data);
+        } finally {
+            data.position(position); // The buffer belongs to the consumer
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.trading.price_codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for the binary {@link PriceTickCodec} format. When created by Kafka
+ * from its class name, the symbol dictionary is read from {@value SymbolDictionary#SYMBOLS_CONFIG}.
+ * <p>
+ * Kafka keeps the returned array until the record is sent, so each call allocates exactly one
+ * array of the final size and writes into it directly.
+ */
+public class PriceTickSerializer implements Serializer<PriceTick> {
+
+    private PriceTickCodec codec;
+
+    public PriceTickSerializer() {
+    }
+
+    public PriceTickSerializer(SymbolDictionary dictionary) {
+        this.codec = new PriceTickCodec(dictionary);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (codec == null) {
+            codec = new PriceTickCodec(SymbolDictionary.fromConfigs(configs));
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, PriceTick tick) {
+        return tick == null ? null : codec.encode(tick);
+    }
+}
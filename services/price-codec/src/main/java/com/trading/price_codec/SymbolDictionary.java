@@ -0,0 +1,87 @@
+package com.trading.price_codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * The fixed list of symbols the binary format encodes as a two-byte id instead of their name.
+ * Producer and consumers must be configured with the same list in the same order; symbols
+ * that are not on it still work, they are just sent inline. Every record carries the
+ * {@link #fingerprint} of the list it was encoded with, so a consumer configured differently
+ * rejects dictionary ids instead of mapping them to the wrong symbol.
+ */
+public final class SymbolDictionary {
+
+    /** Kafka client property holding the comma-separated symbol list. */
+    public static final String SYMBOLS_CONFIG = "price.codec.symbols";
+
+    static final int MAX_SIZE = Short.MAX_VALUE;
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int fingerprint;
+
+    public SymbolDictionary(List<String> symbols) {
+        if (symbols.size() > MAX_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_SIZE + " dictionary symbols are supported");
+        }
+        this.names = symbols.toArray(new String[0]);
+        this.ids = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            if (ids.putIfAbsent(names[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate dictionary symbol " + names[i]);
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(String.join("\n", names).getBytes(StandardCharsets.UTF_8));
+        this.fingerprint = (int) crc.getValue();
+    }
+
+    /**
+     * Reads {@link #SYMBOLS_CONFIG} from Kafka client configs; a missing entry gives an empty dictionary.
+     */
+    public static SymbolDictionary fromConfigs(Map<String, ?> configs) {
+        Object value = configs.get(SYMBOLS_CONFIG);
+        if (value == null) {
+            return new SymbolDictionary(List.of());
+        }
+        if (value instanceof Collection<?> collection) {
+            return new SymbolDictionary(collection.stream().map(Object::toString).map(String::trim).toList());
+        }
+        return new SymbolDictionary(Arrays.stream(value.toString().split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList());
+    }
+
+    /**
+     * @return The symbol's id, or -1 if it is not in the dictionary.
+     */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return The dictionary's own String instance for the id, or null if the id is out of range.
+     */
+    public String nameOf(int id) {
+        return id >= 0 && id < names.length ? names[id] : null;
+    }
+
+    /**
+     * @return A checksum of the symbols and their order; equal lists have equal fingerprints.
+     */
+    public int fingerprint() {
+        return fingerprint;
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
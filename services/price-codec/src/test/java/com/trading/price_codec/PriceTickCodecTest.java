@@ -0,0 +1,91 @@
+package com.trading.price_codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceTickCodecTest {
+
+    private final SymbolDictionary dictionary = new SymbolDictionary(List.of("BTC-USD", "ETH-USD"));
+
+    @Test
+    void dictionarySymbolsUseTheFixedLayoutAndTheDictionaryString() {
+        PriceTickCodec codec = new PriceTickCodec(dictionary);
+        PriceTick tick = new PriceTick(new String("ETH-USD"), 3125.125, 1_700_000_000_123L);
+
+        byte[] bytes = codec.encode(tick);
+        assertEquals(PriceTickCodec.FIXED_SIZE, bytes.length);
+
+        PriceTick decoded = codec.decode(bytes);
+        assertEquals(tick, decoded);
+        assertSame(dictionary.nameOf(1), decoded.symbol());
+    }
+
+    @Test
+    void unknownSymbolsAreSentInlineAndCachedOnDecode() {
+        PriceTickSerializer serializer = new PriceTickSerializer(dictionary);
+        PriceTickDeserializer deserializer = new PriceTickDeserializer();
+        deserializer.configure(Map.of(SymbolDictionary.SYMBOLS_CONFIG, "BTC-USD, ETH-USD"), false);
+
+        PriceTick tick = new PriceTick("SOL-USD", 142.5, 42L);
+        byte[] bytes = serializer.serialize("price-ticks-binary", tick);
+        assertEquals(PriceTickCodec.FIXED_SIZE + 7, bytes.length);
+
+        PriceTick first = deserializer.deserialize("price-ticks-binary", null, ByteBuffer.wrap(bytes));
+        PriceTick second = deserializer.deserialize("price-ticks-binary", bytes);
+        assertEquals(tick, first);
+        assertEquals(tick, second);
+        assertSame(first.symbol(), second.symbol());
+    }
+
+    @Test
+    void cachesManyDistinctInlineNames() {
+        PriceTickCodec codec = new PriceTickCodec(dictionary);
+        List<byte[]> encoded = IntStream.range(0, 1_000)
+                .mapToObj(i -> codec.encode(new PriceTick("SYM" + i + "-USD", i, i)))
+                .toList();
+
+        List<String> first = encoded.stream().map(bytes -> codec.decode(bytes).symbol()).toList();
+        for (int i = 0; i < encoded.size(); i++) {
+            assertEquals("SYM" + i + "-USD", first.get(i));
+            assertSame(first.get(i), codec.decode(encoded.get(i)).symbol());
+        }
+    }
+
+    @Test
+    void rejectsUnknownVersionsAndIds() {
+        PriceTickCodec codec = new PriceTickCodec(dictionary);
+        byte[] bytes = codec.encode(new PriceTick("BTC-USD", 1, 2));
+
+        for (byte version : new byte[]{1, 3}) {
+            bytes[0] = version;
+            assertThrows(SerializationException.class, () -> codec.decode(bytes));
+        }
+
+        bytes[0] = PriceTickCodec.VERSION;
+        bytes[3] = 9;
+        assertThrows(SerializationException.class, () -> codec.decode(bytes));
+    }
+
+    @Test
+    void rejectsDictionaryIdsFromADifferentDictionary() {
+        PriceTickCodec producer = new PriceTickCodec(new SymbolDictionary(List.of("ETH-USD", "BTC-USD")));
+        PriceTickCodec consumer = new PriceTickCodec(dictionary);
+
+        // Same symbols in another order: id 0 would otherwise decode as BTC-USD
+        byte[] dictionaryTick = producer.encode(new PriceTick("ETH-USD", 1, 2));
+        assertThrows(SerializationException.class, () -> consumer.decode(dictionaryTick));
+
+        // Inline names do not depend on the dictionary
+        PriceTick inline = new PriceTick("SOL-USD", 3, 4);
+        assertEquals(inline, consumer.decode(producer.encode(inline)));
+    }
+}
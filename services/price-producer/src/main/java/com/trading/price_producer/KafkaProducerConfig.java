@@ -0,0 +1,54 @@
+package com.trading.price_producer;
+
+import com.trading.price_codec.PriceTick;
+import com.trading.price_codec.PriceTickSerializer;
+import com.trading.price_codec.SymbolDictionary;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.List;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaProducerConfig.class);
+
+    /**
+     * The JSON template, configured entirely by spring.kafka.producer.*. Declared here because
+     * Spring Boot stops creating its own once any other KafkaTemplate bean exists.
+     */
+    @Bean
+    @Primary
+    @SuppressWarnings("unchecked")
+    public KafkaTemplate<String, PriceTick> kafkaTemplate(ProducerFactory<?, ?> producerFactory) {
+        return new KafkaTemplate<>((ProducerFactory<String, PriceTick>) producerFactory);
+    }
+
+    /**
+     * Same connection settings, but values are written in the shared binary format.
+     * {@code price.codec.symbols} must match the streamer's list, in the same order; streamers
+     * skip records whose dictionary fingerprint differs from their own.
+     */
+    @Bean
+    public KafkaTemplate<String, PriceTick> binaryKafkaTemplate(
+            ProducerFactory<?, ?> producerFactory,
+            @Value("${price.codec.symbols:BTC-USD}") List<String> dictionarySymbols) {
+
+        SymbolDictionary dictionary = new SymbolDictionary(dictionarySymbols);
+        log.info("Encoding binary ticks with a symbol dictionary of {} symbols, fingerprint {}",
+                dictionary.size(), String.format("%08x", dictionary.fingerprint()));
+        DefaultKafkaProducerFactory<String, PriceTick> binaryFactory = new DefaultKafkaProducerFactory<>(
+                producerFactory.getConfigurationProperties(),
+                new StringSerializer(),
+                new PriceTickSerializer(dictionary));
+        return new KafkaTemplate<>(binaryFactory);
+    }
+}
@@ -1,21 +1,26 @@
 package com.trading.price_producer;
 
+import com.trading.price_codec.PriceTick;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.ThreadLocalRandom;
 
 @Service // Mark this class as a Spring Service
+// Replaced by the load generator when generator.enabled=true
+@ConditionalOnProperty(name = "generator.enabled", havingValue = "false", matchIfMissing = true)
 public class PriceProducerService {
 
-    // Spring will automatically create and configure this for us.
-    // It's our tool for sending messages to Kafka.
+    private static final Logger log = LoggerFactory.getLogger(PriceProducerService.class);
+
+    // Sends each tick to Kafka in the configured wire formats
     @Autowired
-    private KafkaTemplate<String, PriceTick> kafkaTemplate;
+    private TickPublisher tickPublisher;
 
-    private static final String TOPIC = "price-ticks";
     private double lastBtcPrice = 60000.0; // Starting price for our fake data
 
     /**
@@ -31,13 +36,10 @@ public class PriceProducerService {
         // Create a new PriceTick object using the record we made earlier
         PriceTick tick = new PriceTick("BTC-USD", lastBtcPrice, System.currentTimeMillis());
 
-        // Use the kafkaTemplate to send the tick to our Kafka topic.
-        // The topic name is "price-ticks".
-        // The message key is the symbol "BTC-USD".
-        // The message value is our 'tick' object, which Spring will convert to JSON.
-        kafkaTemplate.send(TOPIC, tick.symbol(), tick);
+        // Send the tick to Kafka. The message key is the symbol "BTC-USD" and the value is
+        // our 'tick' object, which Spring converts to JSON (or to the binary format).
+        tickPublisher.publish(tick);
 
-        // Print to console so we can see it's working
-        System.out.println("Sent price tick: " + tick);
+        log.debug("Sent price tick: {}", tick);
     }
-}
\ No newline at end of file
+}
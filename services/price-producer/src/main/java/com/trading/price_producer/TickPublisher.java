@@ -0,0 +1,55 @@
+package com.trading.price_producer;
+
+import com.trading.price_codec.PriceTick;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends ticks to Kafka in every wire format listed in {@code price.wire-formats}, keyed by symbol
+ * so all ticks of one symbol land on the same partition in order.
+ */
+@Component
+public class TickPublisher {
+
+    @Autowired
+    private KafkaTemplate<String, PriceTick> kafkaTemplate;
+
+    // Same producer settings, but writes the compact binary format from price-codec
+    @Autowired
+    @Qualifier("binaryKafkaTemplate")
+    private KafkaTemplate<String, PriceTick> binaryKafkaTemplate;
+
+    // Which formats to publish: json, binary, or both while consumers migrate
+    @Value("${price.wire-formats:json}")
+    private Set<String> wireFormats;
+
+    @Value("${price.topics.json:price-ticks}")
+    private String jsonTopic;
+
+    @Value("${price.topics.binary:price-ticks-binary}")
+    private String binaryTopic;
+
+    /**
+     * @return Completes once the broker acknowledged the tick in every enabled format.
+     */
+    public CompletableFuture<?> publish(PriceTick tick) {
+        CompletableFuture<?> json = wireFormats.contains("json")
+                ? kafkaTemplate.send(jsonTopic, tick.symbol(), tick) : null;
+        CompletableFuture<?> binary = wireFormats.contains("binary")
+                ? binaryKafkaTemplate.send(binaryTopic, tick.symbol(), tick) : null;
+
+        if (json != null && binary != null) {
+            return CompletableFuture.allOf(json, binary);
+        }
+        if (json != null) {
+            return json;
+        }
+        return binary != null ? binary : CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.trading.price_producer.generator;
+
+/**
+ * Target tick rate over time: {@code baseRate} ticks/s, raised to {@code baseRate * multiplier}
+ * for the first {@code burstMillis} of every {@code periodMillis}. A period of 0 disables bursts.
+ */
+record BurstSchedule(double baseRate, double multiplier, long burstMillis, long periodMillis) {
+
+    double rateAt(long elapsedMillis) {
+        if (periodMillis <= 0 || elapsedMillis % periodMillis >= burstMillis) {
+            return baseRate;
+        }
+        return baseRate * multiplier;
+    }
+
+    /**
+     * @return The average rate over a whole period, which is what the generator should achieve.
+     */
+    double averageRate() {
+        if (periodMillis <= 0) {
+            return baseRate;
+        }
+        double burstShare = Math.min(burstMillis, periodMillis) / (double) periodMillis;
+        return baseRate * (1 - burstShare) + baseRate * multiplier * burstShare;
+    }
+}
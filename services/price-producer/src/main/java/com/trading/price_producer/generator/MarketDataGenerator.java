@@ -0,0 +1,231 @@
+package com.trading.price_producer.generator;
+
+import com.trading.price_codec.PriceTick;
+import com.trading.price_producer.TickPublisher;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator mode, enabled with {@code generator.enabled=true}.
+ * <p>
+ * Publishes a universe of {@code generator.symbols} symbols at {@code generator.target-ticks-per-second}
+ * (optionally with periodic bursts) from dedicated publisher threads. Each thread owns a fixed
+ * subset of the symbols, so their prices need no locking and every symbol's ticks leave in order.
+ * Batching is left to the Kafka producer, tuned through {@code spring.kafka.producer.*}
+ * (linger.ms, batch-size, compression-type).
+ */
+@Service
+@ConditionalOnProperty(name = "generator.enabled", havingValue = "true")
+public class MarketDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketDataGenerator.class);
+
+    // Never owe more than this many seconds of ticks after a stall, so a hiccup does not turn into a flood
+    private static final double MAX_BACKLOG_SECONDS = 1.0;
+    private static final int MAX_TICKS_PER_ROUND = 1_000;
+
+    @Autowired
+    private TickPublisher tickPublisher;
+
+    // Symbol 0 is always BTC-USD so the dashboard keeps working; the rest are SYN00001-USD, ...
+    @Value("${generator.symbols:100}")
+    private int symbolCount;
+
+    @Value("${generator.target-ticks-per-second:10000}")
+    private double targetRate;
+
+    @Value("${generator.publisher-threads:4}")
+    private int publisherThreads;
+
+    @Value("${generator.burst.multiplier:1}")
+    private double burstMultiplier;
+
+    @Value("${generator.burst.duration-ms:0}")
+    private long burstMillis;
+
+    @Value("${generator.burst.period-ms:0}")
+    private long burstPeriodMillis;
+
+    @Value("${generator.initial-price:100}")
+    private double initialPrice;
+
+    @Value("${generator.default-model:gbm:0:0.0005}")
+    private String defaultModel;
+
+    // Per-symbol overrides, e.g. BTC-USD=random-walk:100;SYN00002-USD=mean-revert:50:0.01:0.05
+    @Value("${generator.models:BTC-USD=random-walk:100}")
+    private String modelOverrides;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private BurstSchedule schedule;
+
+    // Statistics, reset every time a report is printed
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private volatile long maxLatencyNanos;
+    private volatile long reportStartNanos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule = new BurstSchedule(targetRate, burstMultiplier, burstMillis, burstPeriodMillis);
+        Map<String, PriceModel> overrides = parseOverrides(modelOverrides);
+        PriceModel fallback = PriceModel.parse(defaultModel);
+
+        running = true;
+        reportStartNanos = System.nanoTime();
+        for (int t = 0; t < publisherThreads; t++) {
+            List<String> names = new ArrayList<>();
+            for (int s = t; s < symbolCount; s += publisherThreads) {
+                names.add(s == 0 ? "BTC-USD" : String.format("SYN%05d-USD", s));
+            }
+            if (names.isEmpty()) {
+                continue;
+            }
+
+            PublisherLoop loop = new PublisherLoop(names, overrides, fallback, publisherThreads, t);
+            Thread thread = new Thread(loop, "tick-generator-" + t);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        log.info(String.format("Generator started: %d symbols, %.0f ticks/s target (%.0f ticks/s average with bursts), %d threads",
+                symbolCount, targetRate, schedule.averageRate(), threads.size()));
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    @Scheduled(fixedRateString = "${generator.report-interval-ms:5000}")
+    public void report() {
+        if (!running) {
+            return;
+        }
+        long now = System.nanoTime();
+        double seconds = (now - reportStartNanos) / 1e9;
+        long sentTicks = sent.sumThenReset();
+        long acks = acknowledged.sumThenReset();
+        log.info(String.format("Generator: %.0f ticks/s sent (target %.0f), %d acked, %d failed, avg send latency %.2f ms, max %.2f ms",
+                sentTicks / seconds,
+                schedule.averageRate(),
+                acks,
+                failed.sumThenReset(),
+                acks == 0 ? 0.0 : totalLatencyNanos.sumThenReset() / 1e6 / acks,
+                maxLatencyNanos / 1e6));
+        maxLatencyNanos = 0;
+        reportStartNanos = now;
+    }
+
+    private void recordAck(long startNanos, Throwable error) {
+        if (error != null) {
+            failed.increment();
+            return;
+        }
+        long latency = System.nanoTime() - startNanos;
+        acknowledged.increment();
+        totalLatencyNanos.add(latency);
+        if (latency > maxLatencyNanos) {
+            maxLatencyNanos = latency; // Racy but good enough for a reporting maximum
+        }
+    }
+
+    private static Map<String, PriceModel> parseOverrides(String spec) {
+        Map<String, PriceModel> models = new HashMap<>();
+        for (String entry : spec.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            models.put(entry.substring(0, eq).trim(), PriceModel.parse(entry.substring(eq + 1)));
+        }
+        return models;
+    }
+
+    /**
+     * One publisher thread. Its share of the target rate is integrated over time into a number
+     * of owed ticks, which are sent round-robin over the thread's symbols; when nothing is owed
+     * the thread parks until the next tick is due.
+     */
+    private final class PublisherLoop implements Runnable {
+        private final String[] symbols;
+        private final PriceModel[] models;
+        private final double[] prices;
+        private final double share;
+        private final SplittableRandom random;
+
+        PublisherLoop(List<String> names, Map<String, PriceModel> overrides, PriceModel fallback, int threadCount, int index) {
+            this.symbols = names.toArray(new String[0]);
+            this.models = new PriceModel[symbols.length];
+            this.prices = new double[symbols.length];
+            for (int i = 0; i < symbols.length; i++) {
+                models[i] = overrides.getOrDefault(symbols[i], fallback);
+                prices[i] = "BTC-USD".equals(symbols[i]) ? 60000.0 : initialPrice;
+            }
+            this.share = 1.0 / threadCount;
+            this.random = new SplittableRandom(index * 0x9E3779B97F4A7C15L + System.nanoTime());
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long last = start;
+            double owed = 0;
+            int next = 0;
+
+            while (running) {
+                long now = System.nanoTime();
+                double rate = schedule.rateAt((now - start) / 1_000_000) * share;
+                owed = Math.min(owed + rate * (now - last) / 1e9, rate * MAX_BACKLOG_SECONDS);
+                last = now;
+
+                int due = (int) Math.min(owed, MAX_TICKS_PER_ROUND);
+                if (due == 0) {
+                    // Sleep until roughly one tick is owed
+                    LockSupport.parkNanos((long) Math.max(10_000, (1 - owed) / rate * 1e9));
+                    continue;
+                }
+
+                long timestamp = System.currentTimeMillis();
+                for (int i = 0; i < due; i++) {
+                    prices[next] = models[next].next(prices[next], random);
+                    publish(new PriceTick(symbols[next], prices[next], timestamp));
+                    if (++next == symbols.length) {
+                        next = 0;
+                    }
+                }
+                owed -= due;
+                sent.add(due);
+            }
+        }
+
+        private void publish(PriceTick tick) {
+            long sendStart = System.nanoTime();
+            try {
+                tickPublisher.publish(tick).whenComplete((result, error) -> recordAck(sendStart, error));
+            } catch (Exception e) {
+                failed.increment(); // e.g. the producer buffer stayed full for max.block.ms
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.trading.price_producer.generator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * How one symbol's price moves from one tick to the next. Models are stateless; the generator
+ * keeps each symbol's current price and passes it in.
+ */
+public interface PriceModel {
+
+    double next(double price, RandomGenerator random);
+
+    /**
+     * Parses a model spec:
+     * <ul>
+     *   <li>{@code random-walk:<step>}: adds a uniform change in [-step, step), like the original producer</li>
+     *   <li>{@code gbm:<drift>:<volatility>}: geometric Brownian motion, drift and volatility per tick</li>
+     *   <li>{@code mean-revert:<mean>:<speed>:<volatility>}: Ornstein-Uhlenbeck pull towards the mean</li>
+     * </ul>
+     */
+    static PriceModel parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        try {
+            return switch (parts[0]) {
+                case "random-walk" -> new RandomWalk(Double.parseDouble(parts[1]));
+                case "gbm" -> new GeometricBrownian(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                case "mean-revert" -> new MeanReverting(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+                default -> throw new IllegalArgumentException("Unknown price model '" + parts[0] + "'");
+            };
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price model spec '" + spec + "'", e);
+        }
+    }
+
+    record RandomWalk(double step) implements PriceModel {
+        @Override
+        public double next(double price, RandomGenerator random) {
+            return Math.max(0.0001, price + random.nextDouble(-step, step));
+        }
+    }
+
+    record GeometricBrownian(double drift, double volatility) implements PriceModel {
+        @Override
+        public double next(double price, RandomGenerator random) {
+            return price * Math.exp(drift - volatility * volatility / 2 + volatility * random.nextGaussian());
+        }
+    }
+
+    record MeanReverting(double mean, double speed, double volatility) implements PriceModel {
+        @Override
+        public double next(double price, RandomGenerator random) {
+            return Math.max(0.0001, price + speed * (mean - price) + volatility * random.nextGaussian());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.trading.price_streamer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.trading.price_codec.PriceTick;
+import com.trading.price_codec.PriceTickDeserializer;
+import com.trading.price_codec.PriceTickSerializer;
+import com.trading.price_codec.SymbolDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PriceTick on the Kafka wire: Spring's JSON serializer pair as configured in
+ * application.properties, plain Jackson, and the binary price-codec format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PriceTickSerializationBenchmark {
+
+    private static final String TOPIC = "price-ticks";
+
+    private final PriceTick tick = new PriceTick("BTC-USD", 60_123.4567, 1_700_000_000_000L);
+
+    private JsonSerializer<PriceTick> kafkaJsonSerializer;
+    private JsonDeserializer<PriceTick> kafkaJsonDeserializer;
+    private ObjectWriter jacksonWriter;
+    private ObjectReader jacksonReader;
+    private PriceTickSerializer binarySerializer;
+    private PriceTickDeserializer binaryDeserializer;
+
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        kafkaJsonSerializer = new JsonSerializer<>();
+        kafkaJsonDeserializer = new JsonDeserializer<>(PriceTick.class);
+        kafkaJsonDeserializer.addTrustedPackages("*");
+
+        ObjectMapper mapper = new ObjectMapper();
+        jacksonWriter = mapper.writerFor(PriceTick.class);
+        jacksonReader = mapper.readerFor(PriceTick.class);
+
+        SymbolDictionary dictionary = new SymbolDictionary(List.of("BTC-USD"));
+        binarySerializer = new PriceTickSerializer(dictionary);
+        binaryDeserializer = new PriceTickDeserializer(dictionary);
+
+        json = kafkaJsonSerializer.serialize(TOPIC, tick);
+        binary = binarySerializer.serialize(TOPIC, tick);
+    }
+
+    @Benchmark
+    public byte[] kafkaJsonSerialize() {
+        return kafkaJsonSerializer.serialize(TOPIC, tick);
+    }
+
+    @Benchmark
+    public PriceTick kafkaJsonDeserialize() {
+        return kafkaJsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public byte[] jacksonSerialize() throws IOException {
+        return jacksonWriter.writeValueAsBytes(tick);
+    }
+
+    @Benchmark
+    public PriceTick jacksonDeserialize() throws IOException {
+        return jacksonReader.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, tick);
+    }
+
+    @Benchmark
+    public PriceTick binaryDeserialize() {
+        return binaryDeserializer.deserialize(TOPIC, binary);
+    }
+}
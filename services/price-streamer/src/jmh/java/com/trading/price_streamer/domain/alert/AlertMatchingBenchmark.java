@@ -0,0 +1,86 @@
+package com.trading.price_streamer.domain.alert;
+
+import com.trading.price_codec.PriceTick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of alert checking when no alert fires, which is what nearly every tick does.
+ * Ticks move between 59,000 and 61,000 while every ABOVE alert is set higher and every
+ * BELOW alert lower.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlertMatchingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int alertCount;
+
+    private AlertIndex alertIndex;
+    private AlertService alertService;
+    private PriceTick[] ticks;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        alertIndex = new AlertIndex();
+        for (int i = 0; i < alertCount; i++) {
+            AlertEntity alert = new AlertEntity();
+            alert.setId((long) i);
+            alert.setUserId("user-" + (i % 1000));
+            alert.setSymbol(i % 10 == 0 ? "ETH-USD" : "BTC-USD");
+            boolean above = i % 2 == 0;
+            alert.setAlertCondition(above ? AlertCondition.ABOVE : AlertCondition.BELOW);
+            double target = above ? 61_000 + random.nextDouble() * 10_000 : 59_000 - random.nextDouble() * 10_000;
+            alert.setTargetPrice(BigDecimal.valueOf(target).setScale(AlertIndex.PRICE_SCALE, RoundingMode.HALF_UP));
+            alertIndex.add(alert);
+        }
+
+        // Only the index is touched while nothing fires, so the repository and broker can stay unset
+        alertService = new AlertService();
+        ReflectionTestUtils.setField(alertService, "alertIndex", alertIndex);
+
+        ticks = new PriceTick[1024];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = new PriceTick("BTC-USD", 59_000 + random.nextDouble() * 2_000, i);
+        }
+    }
+
+    private PriceTick nextTick() {
+        PriceTick tick = ticks[next];
+        next = (next + 1) & (ticks.length - 1);
+        return tick;
+    }
+
+    @Benchmark
+    public List<TriggeredAlert> indexMatch() {
+        PriceTick tick = nextTick();
+        return alertIndex.match(tick.symbol(), tick.price());
+    }
+
+    @Benchmark
+    public void checkAndTriggerAlerts() {
+        alertService.checkAndTriggerAlerts(nextTick());
+    }
+}
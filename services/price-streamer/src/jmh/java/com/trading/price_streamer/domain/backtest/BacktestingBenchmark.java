@@ -0,0 +1,77 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.common.Signal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BacktestingBenchmark {
+
+    // A minute, a day and about a week of one-second ticks
+    @Param({"60", "86400", "604800"})
+    private int size;
+
+    private final BacktestingService backtestingService = new BacktestingService();
+    private List<PriceTickEntity> ticks;
+    private PriceSeries series;
+    private double[] prefixSums;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ticks = new ArrayList<>(size);
+        double price = 60_000;
+        for (int i = 0; i < size; i++) {
+            price += random.nextDouble() * 200 - 100;
+            ticks.add(new PriceTickEntity("BTC-USD", price, Instant.ofEpochMilli(1_700_000_000_000L + i * 1000L)));
+        }
+        series = PriceSeries.fromEntities(ticks);
+        prefixSums = SmaCrossoverEngine.prefixSums(series);
+    }
+
+    @Benchmark
+    public double[] calculateSma() {
+        return backtestingService.calculateSMA(ticks, 30);
+    }
+
+    @Benchmark
+    public List<Signal> generateSmaCrossoverSignals() {
+        return backtestingService.generateSmaCrossoverSignals(ticks, 10, 30);
+    }
+
+    @Benchmark
+    public BacktestResult runSmaCrossoverBacktest() {
+        return backtestingService.runSmaCrossoverBacktest(ticks, 10, 30, 10_000);
+    }
+
+    @Benchmark
+    public BacktestResult runOnPriceSeries() {
+        return SmaCrossoverEngine.run(series, 10, 30, 10_000);
+    }
+
+    @Benchmark
+    public BacktestResult runOnPrefixSums() {
+        return SmaCrossoverEngine.run(series, prefixSums, 10, 30, 10_000);
+    }
+}
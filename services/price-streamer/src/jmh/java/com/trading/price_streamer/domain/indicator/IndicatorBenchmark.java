@@ -0,0 +1,94 @@
+package com.trading.price_streamer.domain.indicator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of feeding one tick to each indicator, which should not depend on the period.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IndicatorBenchmark {
+
+    private static final int PRICES = 1 << 16;
+
+    @Param({"14", "200"})
+    private int period;
+
+    private final double[] prices = new double[PRICES];
+    private int next;
+    private long timestamp;
+
+    private Sma sma;
+    private Ema ema;
+    private Rsi rsi;
+    private BollingerBands bollinger;
+    private Vwap vwap;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double price = 60_000;
+        for (int i = 0; i < PRICES; i++) {
+            price += random.nextDouble() * 200 - 100;
+            prices[i] = price;
+        }
+        sma = new Sma(period);
+        ema = new Ema(period);
+        rsi = new Rsi(period);
+        bollinger = new BollingerBands(period, 2);
+        vwap = new Vwap();
+        timestamp = 1_700_000_000_000L;
+    }
+
+    private double nextPrice() {
+        timestamp += 1000;
+        return prices[next++ & (PRICES - 1)];
+    }
+
+    @Benchmark
+    public double sma() {
+        sma.update(timestamp, nextPrice());
+        return sma.value();
+    }
+
+    @Benchmark
+    public double ema() {
+        ema.update(timestamp, nextPrice());
+        return ema.value();
+    }
+
+    @Benchmark
+    public double rsi() {
+        rsi.update(timestamp, nextPrice());
+        return rsi.value();
+    }
+
+    @Benchmark
+    public double bollinger() {
+        bollinger.update(timestamp, nextPrice());
+        return bollinger.upper();
+    }
+
+    @Benchmark
+    public double vwap() {
+        vwap.update(timestamp, nextPrice());
+        return vwap.value();
+    }
+}
@@ -0,0 +1,72 @@
+package com.trading.price_streamer.infrastructure;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.TickWindow;
+import com.trading.price_streamer.domain.common.TickWindowStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What MLService does per /predict/batch call before the HTTP request: read each symbol's
+ * latest ticks out of the window store, compute its feature vector, build the request DTO and
+ * render it as the JSON body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PredictionRequestBenchmark {
+
+    @Param({"1", "32"})
+    private int symbolCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SymbolRegistry registry;
+    private TickWindowStore store;
+    private TickWindow window;
+
+    @Setup
+    public void setUp() {
+        registry = new SymbolRegistry();
+        store = new TickWindowStore(registry, 256);
+        for (int s = 0; s < symbolCount; s++) {
+            int symbolId = registry.idOf("SYM-" + s);
+            for (int i = 0; i < 256; i++) {
+                store.append(symbolId, 60_000 + i, 1_700_000_000_000L + i * 1000L);
+            }
+        }
+        window = new TickWindow(PredictionFeatures.WINDOW);
+    }
+
+    @Benchmark
+    public MLService.PredictionBatchRequest buildRequest() {
+        List<MLService.FeatureVector> items = new ArrayList<>(symbolCount);
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            store.fill(symbolId, window);
+            items.add(new MLService.FeatureVector(registry.nameOf(symbolId), PredictionFeatures.of(window)));
+        }
+        return new MLService.PredictionBatchRequest(items);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(buildRequest());
+    }
+}
@@ -0,0 +1,162 @@
+package com.trading.price_streamer;
+
+import com.trading.price_streamer.cluster.ClusterAlertSharding;
+import com.trading.price_streamer.domain.common.ShardedSymbolState;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.SymbolSlots;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which Kafka partitions, and therefore which symbols, this instance's consumer threads own.
+ * <p>
+ * Ticks are keyed by symbol, so each symbol lives on exactly one partition and each partition is
+ * read by exactly one listener thread: that thread is the only writer of the symbol's state and
+ * processes its ticks in order. When a partition is revoked (the cooperative-sticky assignor only
+ * revokes partitions that actually move), every {@link ShardedSymbolState} releases the symbols
+ * last seen on it, and a batch listener first flushes what it buffered so the next owner does not
+ * re-process those records. In cluster mode the alerts of assigned and revoked partitions are
+ * loaded and dropped through {@link ClusterAlertSharding}.
+ */
+@Component
+public class PartitionShards implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionShards.class);
+
+    private static final int UNASSIGNED = -1;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private List<ShardedSymbolState> shardedStates;
+
+    // Only present in batch ingestion mode
+    @Autowired
+    private ObjectProvider<PriceStreamBatchListener> batchListener;
+
+    // Only present in cluster mode
+    @Autowired
+    private ObjectProvider<ClusterAlertSharding> clusterAlertSharding;
+
+    // The partition each symbol's ticks were last read from
+    private final SymbolSlots<Shard> shards = new SymbolSlots<>(id -> new Shard());
+
+    // Partition -> name of the consumer thread that owns it
+    private final Map<Integer, String> owners = new ConcurrentHashMap<>();
+
+    // Partitions of the tick topic, as seen at the last assignment
+    private volatile int partitionCount;
+
+    /**
+     * The partition the producer's default partitioner sends a symbol's ticks to: murmur2 of the
+     * UTF-8 key, as written by the StringSerializer, modulo the partition count.
+     */
+    public static int partitionOf(String symbol, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(symbol.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    /**
+     * @return Whether this instance currently consumes the partition carrying the symbol's ticks.
+     */
+    public boolean owns(String symbol) {
+        int count = partitionCount;
+        return count > 0 && owners.containsKey(partitionOf(symbol, count));
+    }
+
+    /**
+     * Records that the symbol's ticks arrive on the partition. Called by the listener thread for
+     * every tick, so it is a single volatile read unless the symbol moved.
+     */
+    public void claim(int symbolId, int partition) {
+        Shard shard = shards.get(symbolId);
+        if (shard.partition != partition) {
+            shard.partition = partition;
+        }
+    }
+
+    /**
+     * @return How many partitions this instance currently consumes.
+     */
+    public int ownedPartitions() {
+        return owners.size();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return; // Cooperative rebalances call this even when nothing new was assigned
+        }
+        String thread = Thread.currentThread().getName();
+        partitionCount = consumer.partitionsFor(partitions.iterator().next().topic()).size();
+        Set<Integer> assigned = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            owners.put(partition.partition(), thread);
+            assigned.add(partition.partition());
+        }
+        log.info("{} now owns partitions {}", thread, partitions);
+        clusterAlertSharding.ifAvailable(sharding -> sharding.partitionsAssigned(assigned, partitionCount));
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Runs on the revoking consumer's thread, before the container commits pending acks
+        batchListener.ifAvailable(listener -> listener.flushBeforeRevoke(consumer, partitions));
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        batchListener.ifAvailable(listener -> listener.forget(partitions));
+        release(partitions);
+    }
+
+    private void release(Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        Set<Integer> released = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            owners.remove(partition.partition());
+            released.add(partition.partition());
+        }
+
+        int symbols = 0;
+        for (int symbolId = 0; symbolId < symbolRegistry.size(); symbolId++) {
+            Shard shard = shards.getIfPresent(symbolId);
+            if (shard == null || !released.contains(shard.partition)) {
+                continue;
+            }
+            for (ShardedSymbolState state : shardedStates) {
+                state.release(symbolId);
+            }
+            shard.partition = UNASSIGNED;
+            symbols++;
+        }
+        log.info("Released partitions {} ({} symbols)", partitions, symbols);
+        clusterAlertSharding.ifAvailable(sharding -> sharding.partitionsReleased(released, partitionCount));
+    }
+
+    private static final class Shard {
+        private volatile int partition = UNASSIGNED;
+    }
+}
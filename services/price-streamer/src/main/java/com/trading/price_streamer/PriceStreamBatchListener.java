@@ -0,0 +1,197 @@
+package com.trading.price_streamer;
+
+import com.trading.price_codec.PriceTick;
+import com.trading.price_streamer.infrastructure.PriceTickBatchWriter;
+import com.trading.price_streamer.infrastructure.RateLimitedLogger;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch ingestion mode, enabled with {@code ingest.batch.enabled=true}.
+ * <p>
+ * Records are drained from each poll into a bounded buffer and written to price_ticks by
+ * {@link PriceTickBatchWriter} once the buffer holds {@code ingest.batch.flush-size} ticks or
+ * its oldest tick is older than {@code ingest.batch.max-latency-ms}. Kafka offsets are only
+ * acknowledged after the flush that covers them succeeded, so delivery is at-least-once.
+ * <p>
+ * Ticks are handed to {@link PriceStreamService#processTick} (WebSocket, alerts, candles, windows,
+ * history...) as they arrive, before the flush. When a flush fails and Kafka re-delivers the
+ * records, only the database write is retried: each consumer thread remembers the last offset it
+ * processed per partition and does not fan out the same record twice. Those offsets are forgotten
+ * when the partition is revoked or lost, together with the per-symbol state it fed.
+ */
+@Service
+@ConditionalOnProperty(name = "ingest.batch.enabled", havingValue = "true")
+public class PriceStreamBatchListener {
+
+    // A database outage fails every flush; the rewinds are visible in the consumer lag metrics anyway
+    private static final RateLimitedLogger errorLog =
+            new RateLimitedLogger(LoggerFactory.getLogger(PriceStreamBatchListener.class), Duration.ofSeconds(10));
+
+    @Autowired
+    private PriceStreamService priceStreamService;
+
+    @Autowired
+    private PriceTickBatchWriter batchWriter;
+
+    @Value("${ingest.batch.flush-size:500}")
+    private int flushSize;
+
+    @Value("${ingest.batch.max-latency-ms:250}")
+    private long maxLatencyMs;
+
+    // Every consumer thread gets its own buffer, so the hot path needs no locking
+    private final ThreadLocal<TickBuffer> buffers = ThreadLocal.withInitial(() -> new TickBuffer(flushSize));
+
+    @KafkaListener(id = "price-streamer-batch", topics = "#{@priceWireConfig.topic()}", groupId = "price-streamer-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consumeBatch(List<ConsumerRecord<String, PriceTick>> records, Acknowledgment ack, Consumer<?, ?> consumer) {
+        TickBuffer buffer = buffers.get();
+
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, PriceTick> record = records.get(i);
+            if (record.value() == null) {
+                // Could not be decoded (see PriceWireConfig); re-delivering it would fail the same way
+                errorLog.error("Skipping undecodable record at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            // A record re-delivered after a failed flush has been fanned out already; it only needs writing
+            if (buffer.markProcessed(partition, record.offset())) {
+                priceStreamService.processTick(record.value(), record.partition());
+            }
+            buffer.add(record, partition);
+
+            if (buffer.isFull() && !flush(buffer, consumer, records.subList(i + 1, records.size()))) {
+                return; // The rest of this poll is re-delivered after the seek
+            }
+        }
+
+        if (buffer.ticks.isEmpty()) {
+            ack.acknowledge(); // The poll ended exactly on a flush boundary
+            return;
+        }
+        buffer.pendingAcks.add(ack);
+        if (buffer.isDue(maxLatencyMs)) {
+            flush(buffer, consumer, List.of());
+        }
+    }
+
+    // Idle events are published on the consumer thread, so this sees the same buffer as consumeBatch
+    @EventListener(condition = "event.listenerId.startsWith('price-streamer-batch')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        TickBuffer buffer = buffers.get();
+        if (!buffer.ticks.isEmpty()) {
+            flush(buffer, event.getConsumer(), List.of());
+        }
+    }
+
+    /**
+     * Writes and acknowledges whatever this consumer thread buffered, so the partitions it is
+     * about to lose are committed up to the last processed record. Called by {@link PartitionShards}.
+     */
+    void flushBeforeRevoke(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        TickBuffer buffer = buffers.get();
+        if (!buffer.ticks.isEmpty()) {
+            flush(buffer, consumer, List.of());
+        }
+        forget(partitions);
+    }
+
+    /**
+     * Drops this consumer thread's processed offsets for partitions it no longer owns, so records
+     * of a partition assigned again later are always fanned out.
+     */
+    void forget(Collection<TopicPartition> partitions) {
+        buffers.get().processed.keySet().removeAll(partitions);
+    }
+
+    /**
+     * @param unread The records of the current poll after the one that filled the buffer; the
+     *               consumer is already past them, so they are rewound too if the write fails.
+     */
+    private boolean flush(TickBuffer buffer, Consumer<?, ?> consumer, List<ConsumerRecord<String, PriceTick>> unread) {
+        try {
+            batchWriter.write(buffer.ticks);
+            buffer.pendingAcks.forEach(Acknowledgment::acknowledge);
+            return true;
+        } catch (Exception e) {
+            // Rewind every partition to the first unflushed offset and let Kafka re-deliver
+            errorLog.error("Batch flush of {} ticks failed, rewinding: {}", buffer.ticks.size(), e.getMessage());
+            Map<TopicPartition, Long> rewind = new HashMap<>(buffer.firstOffsets);
+            for (ConsumerRecord<String, PriceTick> record : unread) {
+                rewind.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+            }
+            rewind.forEach(consumer::seek);
+            return false;
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private static class TickBuffer {
+        private final int capacity;
+        private final List<PriceTick> ticks;
+        private final Map<TopicPartition, Long> firstOffsets = new HashMap<>();
+        private final List<Acknowledgment> pendingAcks = new ArrayList<>();
+        // Highest offset handed to processTick per partition; survives flushes and rewinds
+        private final Map<TopicPartition, Long> processed = new HashMap<>();
+        private long oldestNanos;
+
+        TickBuffer(int capacity) {
+            this.capacity = capacity;
+            this.ticks = new ArrayList<>(capacity);
+        }
+
+        /**
+         * @return Whether the record is new, i.e. past the highest offset processed so far.
+         */
+        boolean markProcessed(TopicPartition partition, long offset) {
+            Long last = processed.get(partition);
+            if (last != null && offset <= last) {
+                return false;
+            }
+            processed.put(partition, offset);
+            return true;
+        }
+
+        void add(ConsumerRecord<String, PriceTick> record, TopicPartition partition) {
+            if (ticks.isEmpty()) {
+                oldestNanos = System.nanoTime();
+            }
+            ticks.add(record.value());
+            firstOffsets.putIfAbsent(partition, record.offset());
+        }
+
+        boolean isFull() {
+            return ticks.size() >= capacity;
+        }
+
+        boolean isDue(long maxLatencyMs) {
+            return !ticks.isEmpty() && System.nanoTime() - oldestNanos >= maxLatencyMs * 1_000_000L;
+        }
+
+        void clear() {
+            ticks.clear();
+            firstOffsets.clear();
+            pendingAcks.clear();
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.trading.price_streamer;
 
-import com.trading.price_streamer.domain.common.PriceTick;
+import com.trading.price_codec.PriceTick;
 import com.trading.price_streamer.domain.common.PriceTickEntity;
 import com.trading.price_streamer.domain.common.PriceTickRepository;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.TickHistoryStore;
+import com.trading.price_streamer.domain.common.TickWindowStore;
 import com.trading.price_streamer.domain.alert.AlertService;
+import com.trading.price_streamer.domain.candle.CandleAggregator;
+import com.trading.price_streamer.domain.signal.LiveSignalService;
 import com.trading.price_streamer.infrastructure.MLService;
+import com.trading.price_streamer.infrastructure.PriceBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate; // <-- Import this
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PriceStreamService {
 
-    // Inject the WebSocket messaging template
+    // Conflates ticks per symbol before they go out over WebSocket
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PriceBroadcaster priceBroadcaster;
 
     @Autowired
     private PriceTickRepository priceTickRepository;
@@ -30,43 +41,135 @@ public class PriceStreamService {
     @Autowired
     private MLService mlService;
 
-    // A small in-memory buffer to hold the last 15 ticks
-    private final LinkedList<PriceTickEntity> recentTicksBuffer = new LinkedList<>();
-    private static final int BUFFER_SIZE = 15;
+    @Autowired
+    private CandleAggregator candleAggregator;
+
+    @Autowired
+    private LiveSignalService liveSignalService;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
 
+    // Which partition, and so which listener thread, owns each symbol's state
+    @Autowired
+    private PartitionShards partitionShards;
+
+    // Per-symbol rolling windows of recent ticks, shared by the ML client and other consumers
+    @Autowired
+    private TickWindowStore tickWindowStore;
+
+    // Recent days of ticks, serving /history and backtests from memory
+    @Autowired
+    private TickHistoryStore tickHistoryStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamService.class);
+
+    private static final int MIN_TICKS_FOR_PREDICTION = 10; // Model needs at least 10 ticks for features
+
+    // One tick.stage timer per pipeline stage, created once so the hot path does no registry lookups
+    private Timer dbSaveTimer;
+    private Timer broadcastTimer;
+    private Timer alertsTimer;
+    private Timer candlesTimer;
+    private Timer signalsTimer;
+    private Timer historyTimer;
+    private Timer mlTimer;
+
+    @PostConstruct
+    void registerTimers() {
+        dbSaveTimer = stageTimer("db_save");
+        broadcastTimer = stageTimer("broadcast");
+        alertsTimer = stageTimer("alerts");
+        candlesTimer = stageTimer("candles");
+        signalsTimer = stageTimer("signals");
+        historyTimer = stageTimer("history");
+        mlTimer = stageTimer("ml");
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("tick.stage")
+                .description("Time one tick spends in each stage of the streamer pipeline")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
 
-    @KafkaListener(topics = "price-ticks", groupId = "price-streamer-group")
-    public void consume(PriceTick tick) {
+    // Only started when batch ingestion is off; otherwise PriceStreamBatchListener owns the topic
+    @KafkaListener(topics = "#{@priceWireConfig.topic()}", groupId = "price-streamer-group",
+            autoStartup = "#{!${ingest.batch.enabled:false}}")
+    public void consume(PriceTick tick, @Header(KafkaHeaders.RECEIVED_PARTITION) int partition) {
         // 1. Convert the incoming PriceTick record to our PriceTickEntity
-        PriceTickEntity entity = new PriceTickEntity(
-                tick.symbol(),
-                tick.price(),
-                Instant.ofEpochMilli(tick.timestamp()) // Convert long timestamp to Instant
-        );
+        PriceTickEntity entity = toEntity(tick);
 
         // 2. Use the repository to save the entity
+        long start = System.nanoTime();
         priceTickRepository.save(entity);
-        System.out.println("Saved to DB: " + entity.getSymbol() + " @ " + entity.getPrice());
+        dbSaveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Saved to DB: {} @ {}", entity.getSymbol(), entity.getPrice());
+
+        processTick(tick, partition);
+    }
+
+    /**
+     * Fans a single tick out to WebSocket clients, the alert engine, the candle and signal
+     * trackers, the in-memory tick history and the ML service.
+     * Persistence is the caller's job: {@link #consume} saves one row at a time, while
+     * {@link PriceStreamBatchListener} writes whole batches through the JDBC writer.
+     *
+     * @param tick The tick as received from Kafka.
+     * @param partition The partition it was read from; the calling thread owns that partition's symbols.
+     */
+    public void processTick(PriceTick tick, int partition) {
+        log.debug("Received price tick: {}", tick);
+        int symbolId = symbolRegistry.idOf(tick.symbol());
+        partitionShards.claim(symbolId, partition);
+
+        long start = System.nanoTime();
+        priceBroadcaster.publish(symbolId, tick);
+        long now = System.nanoTime();
+        broadcastTimer.record(now - start, TimeUnit.NANOSECONDS);
 
-        // Print to the console (we can keep this for logging)
-        System.out.println("Received price tick: " + tick);
-        messagingTemplate.convertAndSend("/topic/prices", tick);
+        start = now;
         alertService.checkAndTriggerAlerts(tick);
+        now = System.nanoTime();
+        alertsTimer.record(now - start, TimeUnit.NANOSECONDS);
 
-        // --- NEW: ML Prediction Logic ---
-        // 1. Add the new tick to our buffer
-        recentTicksBuffer.add(entity);
-        if (recentTicksBuffer.size() > BUFFER_SIZE) {
-            recentTicksBuffer.removeFirst(); // Keep the buffer from growing too large
-        }
+        start = now;
+        candleAggregator.onTick(symbolId, tick.price(), tick.timestamp());
+        now = System.nanoTime();
+        candlesTimer.record(now - start, TimeUnit.NANOSECONDS);
 
-        // 2. If we have enough data, call the ML service
-        if (recentTicksBuffer.size() >= 10) { // Model needs at least 10 ticks for features
-            String prediction = mlService.getPrediction(new ArrayList<>(recentTicksBuffer));
+        start = now;
+        liveSignalService.onTick(symbolId, tick.price(), tick.timestamp());
+        now = System.nanoTime();
+        signalsTimer.record(now - start, TimeUnit.NANOSECONDS);
 
-            // 3. Broadcast the prediction over a new WebSocket topic
-            messagingTemplate.convertAndSend("/topic/predictions", prediction);
-            System.out.println("AI Prediction: " + prediction);
+        start = now;
+        tickHistoryStore.append(symbolId, tick.price(), tick.timestamp());
+        now = System.nanoTime();
+        historyTimer.record(now - start, TimeUnit.NANOSECONDS);
+
+        // --- NEW: ML Prediction Logic ---
+        // 1. Add the new tick to this symbol's rolling window
+        start = now;
+        tickWindowStore.append(symbolId, tick.price(), tick.timestamp());
+
+        // 2. If we have enough data, ask the ML service. The call runs off this thread, reads the
+        //    window itself and broadcasts the prediction on /topic/predictions/{symbol} when it arrives.
+        //    This stage only times the hand-off; the HTTP call itself is the ml.request timer.
+        if (tickWindowStore.size(symbolId) >= MIN_TICKS_FOR_PREDICTION) {
+            mlService.requestPrediction(symbolId);
         }
+        mlTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static PriceTickEntity toEntity(PriceTick tick) {
+        return new PriceTickEntity(
+                tick.symbol(),
+                tick.price(),
+                Instant.ofEpochMilli(tick.timestamp()) // Convert long timestamp to Instant
+        );
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,12 @@ package com.trading.price_streamer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Flyway only runs in TimescaleDB storage mode, configured by TimescaleConfig
+@SpringBootApplication(exclude = FlywayAutoConfiguration.class)
+@EnableScheduling
 public class PriceStreamerApplication {
 
 	public static void main(String[] args) {
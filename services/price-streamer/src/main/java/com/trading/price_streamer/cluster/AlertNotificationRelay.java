@@ -0,0 +1,62 @@
+package com.trading.price_streamer.cluster;
+
+import com.trading.price_streamer.config.ClusterConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Delivers alert notifications to /user/queue/notifications, wherever the user is connected.
+ * <p>
+ * The broker is in-process, so a node can only reach sessions it holds itself. In cluster mode a
+ * notification is therefore also published to {@code cluster.topics.notifications}, keyed by user;
+ * every other node reads that topic and hands the message to the user's sessions if it holds any.
+ */
+@Component
+public class AlertNotificationRelay {
+
+    static final String DESTINATION = "/queue/notifications";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ClusterConfig clusterConfig;
+
+    /**
+     * @param userId The user the alert belongs to.
+     * @param message The notification text.
+     */
+    public void deliver(String userId, String message) {
+        if (!clusterConfig.isEnabled()) {
+            messagingTemplate.convertAndSendToUser(userId, DESTINATION, message);
+            return;
+        }
+
+        // Sessions on this node get it right away; the origin header keeps this node from delivering twice
+        if (userRegistry.getUser(userId) != null) {
+            messagingTemplate.convertAndSendToUser(userId, DESTINATION, message);
+        }
+        kafkaTemplate.send(clusterConfig.record(clusterConfig.notificationsTopic(), userId, message));
+    }
+
+    @KafkaListener(topics = "#{@clusterConfig.notificationsTopic()}",
+            groupId = "#{'price-streamer-notifications-' + @clusterConfig.nodeId()}",
+            containerFactory = "clusterKafkaListenerContainerFactory",
+            autoStartup = "${cluster.enabled:false}")
+    public void onNotification(ConsumerRecord<String, String> record) {
+        if (!clusterConfig.isFromThisNode(record) && userRegistry.getUser(record.key()) != null) {
+            messagingTemplate.convertAndSendToUser(record.key(), DESTINATION, record.value());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.trading.price_streamer.cluster;
+
+import com.trading.price_streamer.PartitionShards;
+import com.trading.price_streamer.config.ClusterConfig;
+import com.trading.price_streamer.domain.alert.AlertEntity;
+import com.trading.price_streamer.domain.alert.AlertIndex;
+import com.trading.price_streamer.domain.alert.AlertRepository;
+import com.trading.price_streamer.domain.alert.AlertService;
+import com.trading.price_streamer.domain.alert.AlertStatus;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps this node's {@link AlertIndex} limited to the symbols on the tick partitions it owns.
+ * <p>
+ * Alerts of a partition are loaded from the database when it is assigned and dropped when it is
+ * revoked. A new alert goes straight into the index when this node owns its symbol, and is
+ * announced on {@code cluster.topics.alerts}, keyed by symbol, for the owner when it does not.
+ * Ownership is checked under the same lock that dropping a revoked partition's books takes, so a
+ * new alert cannot recreate a book right after its partition moved away. An alert can race into
+ * the index twice (once from the database load, once from its announcement); that is harmless,
+ * because firing it first moves its row out of the ACTIVE state and the second copy then fails
+ * that update.
+ * <p>
+ * The announcements are read from the moment this bean was created, before any partition load,
+ * so an alert saved while the listener was still joining its group is not missed.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterAlertSharding implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterAlertSharding.class);
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private AlertIndex alertIndex;
+
+    @Autowired
+    private PartitionShards partitionShards;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ClusterConfig clusterConfig;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    // Held while checking ownership and indexing an alert, and while dropping released symbols
+    private final Object indexLock = new Object();
+
+    /**
+     * Loads the active alerts of every symbol that hashes to one of the partitions.
+     * Runs on the consumer thread before it polls those partitions, so no tick is checked early.
+     */
+    public void partitionsAssigned(Set<Integer> partitions, int partitionCount) {
+        List<String> symbols = alertRepository.findDistinctSymbolsByStatus(AlertStatus.ACTIVE).stream()
+                .filter(symbol -> partitions.contains(PartitionShards.partitionOf(symbol, partitionCount)))
+                .toList();
+        int loaded = symbols.isEmpty() ? 0 : alertService.loadActiveAlerts(symbols);
+        log.info("Took over partitions {}: loaded {} alerts on {} symbols", partitions, loaded, symbols.size());
+    }
+
+    public void partitionsReleased(Set<Integer> partitions, int partitionCount) {
+        int dropped;
+        // PartitionShards stopped owning the partitions before this, so no alert is added for them once the lock is released
+        synchronized (indexLock) {
+            dropped = alertIndex.removeSymbols(symbol -> partitions.contains(PartitionShards.partitionOf(symbol, partitionCount)));
+        }
+        log.info("Gave up partitions {}: dropped {} alerts", partitions, dropped);
+    }
+
+    /**
+     * Indexes a newly saved alert if this node owns its symbol, and announces it to the other nodes.
+     * It is announced either way, since ownership may be moving while the alert is created.
+     */
+    public void alertCreated(AlertEntity alert) {
+        addIfOwned(alert);
+        kafkaTemplate.send(clusterConfig.record(clusterConfig.alertsTopic(), alert.getSymbol(), String.valueOf(alert.getId())));
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToTimestamp(assignments.keySet(), startedAt);
+    }
+
+    @KafkaListener(topics = "#{@clusterConfig.alertsTopic()}",
+            groupId = "#{'price-streamer-alerts-' + @clusterConfig.nodeId()}",
+            containerFactory = "clusterKafkaListenerContainerFactory")
+    public void onAlertCreated(ConsumerRecord<String, String> record) {
+        // If this node takes the symbol over later, the partition load picks the alert up from the database
+        if (clusterConfig.isFromThisNode(record) || !partitionShards.owns(record.key())) {
+            return;
+        }
+        alertRepository.findById(Long.parseLong(record.value()))
+                .filter(alert -> alert.getStatus() == AlertStatus.ACTIVE)
+                .ifPresent(this::addIfOwned);
+    }
+
+    private void addIfOwned(AlertEntity alert) {
+        synchronized (indexLock) {
+            if (partitionShards.owns(alert.getSymbol())) {
+                alertIndex.add(alert);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.trading.price_streamer.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cluster mode, enabled with {@code cluster.enabled=true}, for running several streamers in
+ * price-streamer-group. Each node only holds the alerts of the symbols on its tick partitions,
+ * and nodes exchange new alerts and triggered notifications over two small Kafka topics.
+ * <p>
+ * Every node reads those topics in a consumer group of its own (named after its node id), so
+ * each one sees every record. Only records published after the node started matter, so a new
+ * group starts at the end of the topic.
+ */
+@Configuration
+public class ClusterConfig {
+
+    private static final String ORIGIN_HEADER = "origin-node";
+
+    @Value("${cluster.enabled:false}")
+    private boolean enabled;
+
+    // Defaults to a random id, so each restart is a new member
+    @Value("${cluster.node-id:#{T(java.util.UUID).randomUUID().toString()}}")
+    private String nodeId;
+
+    @Value("${cluster.topics.alerts:alert-events}")
+    private String alertsTopic;
+
+    @Value("${cluster.topics.notifications:alert-notifications}")
+    private String notificationsTopic;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * This node's id, referenced as {@code #{@clusterConfig.nodeId()}} in the relay listeners' group ids.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return A record for one of the relay topics, stamped with this node's id.
+     */
+    public ProducerRecord<String, String> record(String topic, String key, String value) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, value);
+        record.headers().add(ORIGIN_HEADER, nodeId.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    /**
+     * @return Whether this node published the record, and so already acted on it locally.
+     */
+    public boolean isFromThisNode(ConsumerRecord<?, ?> record) {
+        Header origin = record.headers().lastHeader(ORIGIN_HEADER);
+        return origin != null && nodeId.equals(new String(origin.value(), StandardCharsets.UTF_8));
+    }
+
+    public String alertsTopic() {
+        return alertsTopic;
+    }
+
+    public String notificationsTopic() {
+        return notificationsTopic;
+    }
+
+    /**
+     * Container factory for the relay topics: plain String keys and values, whatever wire format the
+     * tick listeners use, and one thread per listener since the traffic is tiny.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> clusterKafkaListenerContainerFactory(
+            ConsumerFactory<Object, Object> consumerFactory) {
+
+        Map<String, Object> properties = new HashMap<>(consumerFactory.getConfigurationProperties());
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        properties.remove(ConsumerConfig.GROUP_ID_CONFIG); // Every listener names its own group
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(properties, new StringDeserializer(), new StringDeserializer()));
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+    public NewTopic alertEventsTopic() {
+        return TopicBuilder.name(alertsTopic).partitions(1).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+    public NewTopic alertNotificationsTopic() {
+        return TopicBuilder.name(notificationsTopic).partitions(1).build();
+    }
+}
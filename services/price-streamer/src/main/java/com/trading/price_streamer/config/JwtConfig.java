@@ -0,0 +1,164 @@
+package com.trading.price_streamer.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.trading.price_streamer.infrastructure.CachingJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.SupplierJwtDecoder;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * The one {@link JwtDecoder} shared by the REST resource server and STOMP CONNECT, in place of the
+ * one Spring Boot would build from the same {@code spring.security.oauth2.resourceserver.jwt.*}
+ * properties (issuer, JWK set URI, audiences, algorithms).
+ * <p>
+ * Validated tokens are cached by {@link CachingJwtDecoder}. Signing keys come from a JWK set that
+ * is fetched in the background once the application is ready and refreshed ahead of its expiry
+ * on a schedule, so a rotated key is normally known before the first token signed with it
+ * arrives. If the JWK endpoint is down, the last key set keeps being used for a while.
+ */
+@Configuration
+@ConditionalOnExpression("'${spring.security.oauth2.resourceserver.jwt.issuer-uri:}' != '' "
+        + "or '${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}' != ''")
+public class JwtConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtConfig.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}")
+    private String issuerUri;
+
+    // Looked up through OpenID discovery on the issuer when not set
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}")
+    private String jwkSetUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.audiences:}")
+    private List<String> audiences;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jws-algorithms:RS256}")
+    private List<String> jwsAlgorithms;
+
+    @Value("${security.jwt-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    // How long a fetched JWK set is used, and how long before that it is re-fetched in the background
+    @Value("${security.jwks.ttl-ms:300000}")
+    private long jwksTtlMs;
+
+    @Value("${security.jwks.refresh-ahead-ms:60000}")
+    private long jwksRefreshAheadMs;
+
+    // How long the last JWK set is still trusted while the endpoint cannot be reached
+    @Value("${security.jwks.outage-tolerance-ms:3600000}")
+    private long jwksOutageToleranceMs;
+
+    private volatile JWKSource<SecurityContext> jwkSource;
+
+    @Bean
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry) {
+        // Built on first use, so startup does not depend on the identity provider being reachable
+        return new CachingJwtDecoder(new SupplierJwtDecoder(this::nimbusJwtDecoder), cacheMaxSize, meterRegistry);
+    }
+
+    /**
+     * Fetches the JWK set off the startup path, so the first authenticated request does not pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchKeys() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                int keys = jwkSource().get(new JWKSelector(new JWKMatcher.Builder().build()), null).size();
+                log.info("Prefetched {} signing keys", keys);
+            } catch (Exception e) {
+                log.warn("Could not prefetch signing keys, they will be fetched on first use: {}", e.toString());
+            }
+        });
+    }
+
+    private JwtDecoder nimbusJwtDecoder() {
+        Set<JWSAlgorithm> algorithms = jwsAlgorithms.stream().map(JWSAlgorithm::parse).collect(Collectors.toSet());
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource()));
+        processor.setJWTClaimsSetVerifier((claims, context) -> { }); // Claims are checked by the validators below
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(validator());
+        return decoder;
+    }
+
+    private OAuth2TokenValidator<Jwt> validator() {
+        OAuth2TokenValidator<Jwt> defaults = issuerUri.isEmpty()
+                ? JwtValidators.createDefault()
+                : JwtValidators.createDefaultWithIssuer(issuerUri);
+        List<String> expectedAudiences = audiences.stream().filter(a -> !a.isBlank()).toList();
+        if (expectedAudiences.isEmpty()) {
+            return defaults;
+        }
+        OAuth2TokenValidator<Jwt> audience = new JwtClaimValidator<List<String>>(JwtClaimNames.AUD,
+                aud -> aud != null && !Collections.disjoint(aud, expectedAudiences));
+        return new DelegatingOAuth2TokenValidator<>(defaults, audience);
+    }
+
+    private synchronized JWKSource<SecurityContext> jwkSource() {
+        if (jwkSource == null) {
+            try {
+                jwkSource = JWKSourceBuilder.<SecurityContext>create(URI.create(resolveJwkSetUri()).toURL())
+                        .cache(jwksTtlMs, JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                        .refreshAheadCache(jwksRefreshAheadMs, true)
+                        .outageTolerant(jwksOutageToleranceMs)
+                        .retrying(true)
+                        .build();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException("Invalid JWK set URI", e);
+            }
+        }
+        return jwkSource;
+    }
+
+    private String resolveJwkSetUri() {
+        if (!jwkSetUri.isEmpty()) {
+            return jwkSetUri;
+        }
+        String discovery = (issuerUri.endsWith("/") ? issuerUri : issuerUri + "/") + ".well-known/openid-configuration";
+        Map<?, ?> configuration = restTemplate.getForObject(discovery, Map.class);
+        Object uri = configuration == null ? null : configuration.get("jwks_uri");
+        if (uri == null) {
+            throw new IllegalStateException("No jwks_uri in " + discovery);
+        }
+        return uri.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package com.trading.price_streamer.config;
+
+import com.trading.price_streamer.PartitionShards;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener container factories for the tick topic. Both run one consumer thread per partition
+ * (up to {@code ingest.max-concurrency}), so ticks, which are keyed by symbol, are spread over
+ * threads while each symbol stays on one thread in order. {@link PartitionShards} follows which
+ * thread owns which partition.
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    @Autowired
+    private PriceWireConfig priceWireConfig;
+
+    @Autowired
+    private PartitionShards partitionShards;
+
+    // Fixed number of consumer threads; 0 sizes it from the topic's partition count
+    @Value("${ingest.concurrency:0}")
+    private int configuredConcurrency;
+
+    // Threads beyond the core count only add context switches
+    @Value("${ingest.max-concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int maxConcurrency;
+
+    private Integer concurrency;
+
+    /**
+     * Container factory for the record-at-a-time listener in {@code PriceStreamService}.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        shardByPartition(factory, new Properties());
+        return factory;
+    }
+
+    /**
+     * Container factory for the batch ingestion listener. Offsets are committed manually,
+     * only once the records they cover have been flushed to the database, and idle events
+     * fire after {@code ingest.batch.max-latency-ms} so a partial buffer never waits long.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            @Value("${ingest.batch.flush-size:500}") int flushSize,
+            @Value("${ingest.batch.max-latency-ms:250}") long maxLatencyMs) {
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setIdleEventInterval(maxLatencyMs);
+
+        // One poll never returns more than a single flush worth of records
+        Properties consumerProperties = new Properties();
+        consumerProperties.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(flushSize));
+        shardByPartition(factory, consumerProperties);
+        return factory;
+    }
+
+    private void shardByPartition(ConcurrentKafkaListenerContainerFactory<Object, Object> factory, Properties consumerProperties) {
+        factory.setConcurrency(concurrency());
+
+        // Only partitions that actually move are revoked on a rebalance, so the others keep their state
+        consumerProperties.setProperty(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
+        containerProperties.setConsumerRebalanceListener(partitionShards);
+    }
+
+    private synchronized int concurrency() {
+        if (concurrency == null) {
+            concurrency = configuredConcurrency > 0 ? configuredConcurrency : Math.min(partitionCount(), maxConcurrency);
+            log.info("Consuming {} with {} listener threads", priceWireConfig.topic(), concurrency);
+        }
+        return concurrency;
+    }
+
+    private int partitionCount() {
+        String topic = priceWireConfig.topic();
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            return admin.describeTopics(List.of(topic)).allTopicNames().get(5, TimeUnit.SECONDS)
+                    .get(topic).partitions().size();
+        } catch (Exception e) {
+            // Threads without a partition just sit idle, so guessing high is harmless
+            log.warn("Could not read the partition count of {}, assuming {}: {}", topic, maxConcurrency, e.toString());
+            return maxConcurrency;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.trading.price_streamer.config;
+
+import com.trading.price_streamer.PartitionShards;
+import com.trading.price_streamer.domain.alert.AlertIndex;
+import com.trading.price_streamer.domain.common.TickHistoryStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Gauges for state that lives outside the tick pipeline's own timers. Kafka consumer lag and the
+ * outbound executor's queue depth are not registered here: Spring Boot already binds every
+ * consumer's client metrics and every {@code ThreadPoolTaskExecutor} bean, including
+ * {@code clientOutboundChannelExecutor}, to the registry.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Open STOMP sessions, and how many were closed for exceeding the send time or buffer limits.
+     */
+    @Bean
+    public MeterBinder webSocketSessionMetrics(WebSocketMessageBrokerStats stats) {
+        return registry -> {
+            sessionGauge(registry, stats, "total", SubProtocolWebSocketHandler.Stats::getTotalSessions);
+            sessionGauge(registry, stats, "websocket", SubProtocolWebSocketHandler.Stats::getWebSocketSessions);
+            sessionGauge(registry, stats, "limit_exceeded", SubProtocolWebSocketHandler.Stats::getLimitExceededSessions);
+        };
+    }
+
+    @Bean
+    public MeterBinder activeAlertMetrics(AlertIndex alertIndex) {
+        return registry -> Gauge.builder("alerts.active", alertIndex, AlertIndex::size)
+                .description("ACTIVE alerts held in the in-memory alert index")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder partitionShardMetrics(PartitionShards partitionShards) {
+        return registry -> Gauge.builder("ingest.partitions.owned", partitionShards, PartitionShards::ownedPartitions)
+                .description("Tick topic partitions consumed by this instance")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder tickHistoryMetrics(TickHistoryStore tickHistoryStore) {
+        return registry -> {
+            Gauge.builder("tick.history.memory", tickHistoryStore, TickHistoryStore::usedBytes)
+                    .description("Bytes of tick segments held by the in-memory tick history")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("tick.history.evictions", tickHistoryStore, TickHistoryStore::evictedSegments)
+                    .description("Tick history segments dropped for the memory budget or retention period")
+                    .register(registry);
+            FunctionCounter.builder("tick.history.out-of-order", tickHistoryStore, TickHistoryStore::outOfOrderTicks)
+                    .description("Ticks not added to the tick history because they were older than their symbol's newest")
+                    .register(registry);
+        };
+    }
+
+    private static void sessionGauge(MeterRegistry registry, WebSocketMessageBrokerStats stats, String type,
+                                     ToIntFunction<SubProtocolWebSocketHandler.Stats> value) {
+        Gauge.builder("websocket.sessions", stats, s -> {
+                    var sessionStats = s.getWebSocketSessionStats();
+                    return sessionStats == null ? 0 : value.applyAsInt(sessionStats);
+                })
+                .description("STOMP sessions on this instance")
+                .tag("type", type)
+                .register(registry);
+    }
+}
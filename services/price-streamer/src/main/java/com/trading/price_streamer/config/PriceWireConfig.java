@@ -0,0 +1,71 @@
+package com.trading.price_streamer.config;
+
+import com.trading.price_codec.PriceTick;
+import com.trading.price_codec.PriceTickDeserializer;
+import com.trading.price_codec.SymbolDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import java.util.List;
+
+/**
+ * Chooses the wire format this streamer consumes. With {@code price.wire-format=json} (the default)
+ * the listeners read {@code price.topics.json} through the JSON deserializer configured in
+ * spring.kafka.consumer.*; with {@code binary} they read {@code price.topics.binary} through the
+ * shared {@link PriceTickDeserializer}. The producer can publish both topics at once, so old and
+ * new streamers run side by side while a deployment migrates.
+ * <p>
+ * Binary records encoded with a different symbol dictionary than {@code price.codec.symbols} fail
+ * to decode. The deserializer is wrapped in an {@link ErrorHandlingDeserializer}, so such records
+ * are skipped and logged by the listeners instead of stopping the consumer.
+ */
+@Configuration
+public class PriceWireConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceWireConfig.class);
+
+    @Value("${price.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${price.topics.json:price-ticks}")
+    private String jsonTopic;
+
+    @Value("${price.topics.binary:price-ticks-binary}")
+    private String binaryTopic;
+
+    // Must list the same symbols in the same order as the producer
+    @Value("${price.codec.symbols:BTC-USD}")
+    private List<String> dictionarySymbols;
+
+    /**
+     * The topic the price listeners subscribe to, referenced as {@code #{@priceWireConfig.topic()}}.
+     */
+    public String topic() {
+        return isBinary() ? binaryTopic : jsonTopic;
+    }
+
+    private boolean isBinary() {
+        return "binary".equalsIgnoreCase(wireFormat);
+    }
+
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer priceTickDeserializerCustomizer() {
+        return factory -> {
+            if (isBinary()) {
+                @SuppressWarnings("unchecked")
+                DefaultKafkaConsumerFactory<Object, PriceTick> consumerFactory = (DefaultKafkaConsumerFactory<Object, PriceTick>) factory;
+                SymbolDictionary dictionary = new SymbolDictionary(dictionarySymbols);
+                log.info("Decoding {} with a symbol dictionary of {} symbols, fingerprint {}", binaryTopic,
+                        dictionary.size(), String.format("%08x", dictionary.fingerprint()));
+                consumerFactory.setValueDeserializerSupplier(
+                        () -> new ErrorHandlingDeserializer<>(new PriceTickDeserializer(dictionary)));
+            }
+        };
+    }
+}
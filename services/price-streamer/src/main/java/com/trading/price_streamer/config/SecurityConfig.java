@@ -25,6 +25,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         // Allow the WebSocket endpoint to be accessed by anyone (we secure it separately)
                         .requestMatchers("/ws/**").permitAll()
+                        // Health checks and Prometheus scrapes come from infrastructure, not users
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         // Any other request must be authenticated (i.e., have a valid token)
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,57 @@
+package com.trading.price_streamer.config;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * TimescaleDB storage mode, enabled with {@code storage.timescale.enabled=true}.
+ * <p>
+ * Runs the Flyway migrations in {@code db/timescale} before JPA starts. They turn price_ticks into
+ * a hypertable with a (symbol, timestamp) index, set up compression and retention policies, and
+ * create continuous aggregates for the 1m, 5m, 1h and 1d candle intervals. These are read by
+ * {@link com.trading.price_streamer.domain.common.TimescaleTickRepository}. Outside this mode Flyway
+ * does not run at all (its auto-configuration is excluded), so a plain PostgreSQL or H2 database
+ * keeps working with the schema Hibernate creates.
+ */
+@Configuration
+@ConditionalOnProperty(name = "storage.timescale.enabled", havingValue = "true")
+public class TimescaleConfig {
+
+    // PostgreSQL interval literals, substituted into the migrations
+    @Value("${storage.timescale.chunk-interval:1 day}")
+    private String chunkInterval;
+
+    @Value("${storage.timescale.compress-after:7 days}")
+    private String compressAfter;
+
+    @Value("${storage.timescale.retain-for:90 days}")
+    private String retainFor;
+
+    @Bean
+    public Flyway timescaleFlyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/timescale")
+                // An existing database whose tables Hibernate created is migrated from V1, not skipped
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .placeholders(Map.of(
+                        "chunk_interval", chunkInterval,
+                        "compress_after", compressAfter,
+                        "retain_for", retainFor))
+                .load();
+    }
+
+    // Spring Boot orders the EntityManagerFactory after every FlywayMigrationInitializer bean
+    @Bean
+    public FlywayMigrationInitializer timescaleMigrations(Flyway timescaleFlyway) {
+        return new FlywayMigrationInitializer(timescaleFlyway);
+    }
+}
@@ -1,6 +1,10 @@
 package com.trading.price_streamer.config;
 
+import com.trading.price_streamer.infrastructure.RateLimitedLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -18,15 +22,44 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 @Order(Ordered.HIGHEST_PRECEDENCE + 99) // Give this config high priority to intercept messages first
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketConfig.class);
+    // Reconnect storms with expired tokens would otherwise log one line per attempt
+    private static final RateLimitedLogger authFailureLog = new RateLimitedLogger(log, Duration.ofSeconds(5));
+
+    // The shared, caching decoder from JwtConfig
     @Autowired
     private JwtDecoder jwtDecoder;
 
+    // Stateless, so one instance serves every CONNECT
+    private final JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+
+    // Threads writing broker messages out to client sessions, and how many messages may wait for them
+    @Value("${websocket.outbound.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors() * 2}}")
+    private int outboundThreads;
+
+    @Value("${websocket.outbound.queue-capacity:100000}")
+    private int outboundQueueCapacity;
+
+    // A session whose single send takes longer than this, or whose unsent messages exceed the
+    // buffer limit, is closed so it cannot hold up the outbound threads for everyone else
+    @Value("${websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.send-buffer-size-limit:131072}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
@@ -39,6 +72,21 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(new ChannelInterceptor() {
@@ -53,11 +101,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         String token = authHeader.substring(7);
                         try {
                             Jwt jwt = jwtDecoder.decode(token);
-                            JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-                            accessor.setUser(converter.convert(jwt));
-                            System.out.println("WebSocket Session Authenticated. User: " + accessor.getUser().getName());
+                            accessor.setUser(authenticationConverter.convert(jwt));
+                            log.debug("WebSocket Session Authenticated. User: {}", accessor.getUser().getName());
                         } catch (Exception e) {
-                            System.err.println("WebSocket Authentication Failed: " + e.getMessage());
+                            authFailureLog.warn("WebSocket Authentication Failed: {}", e.getMessage());
                         }
                     }
                 }
@@ -1,18 +1,59 @@
 package com.trading.price_streamer.controller;
 
+import com.trading.price_streamer.domain.archive.TickArchive;
+import com.trading.price_streamer.domain.backtest.AllocationRule;
+import com.trading.price_streamer.domain.backtest.BacktestJobPriority;
+import com.trading.price_streamer.domain.backtest.BacktestJobService;
+import com.trading.price_streamer.domain.backtest.BacktestJobUpdate;
 import com.trading.price_streamer.domain.backtest.BacktestResult;
-import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.backtest.BacktestResultCache;
+import com.trading.price_streamer.domain.backtest.ParameterSweepService;
+import com.trading.price_streamer.domain.backtest.PortfolioBacktestService;
+import com.trading.price_streamer.domain.backtest.PriceSeries;
+import com.trading.price_streamer.domain.backtest.SweepResult;
+import com.trading.price_streamer.domain.backtest.TickSource;
+import com.trading.price_streamer.domain.candle.CandleInterval;
 import com.trading.price_streamer.domain.common.PriceTickRepository;
 import com.trading.price_streamer.domain.backtest.BacktestingService;
+import com.trading.price_streamer.domain.common.PriceTickRow;
+import com.trading.price_streamer.domain.common.TickHistoryStore;
+import com.trading.price_streamer.domain.common.TimescaleTickRepository;
+import com.trading.price_streamer.domain.strategy.Strategies;
+import com.trading.price_streamer.domain.strategy.Strategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
 @CrossOrigin
@@ -24,24 +65,422 @@ public class BacktestController {
     @Autowired
     private BacktestingService backtestingService;
 
+    @Autowired
+    private ParameterSweepService parameterSweepService;
+
+    @Autowired
+    private BacktestResultCache backtestResultCache;
+
+    @Autowired
+    private BacktestJobService backtestJobService;
+
+    @Autowired
+    private TickHistoryStore tickHistoryStore;
+
+    // Only present in TimescaleDB storage mode
+    @Autowired
+    private ObjectProvider<TimescaleTickRepository> timescaleTickRepository;
+
+    // Only present with tick-archive.enabled=true
+    @Autowired
+    private ObjectProvider<TickArchive> tickArchive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Rolling windows start on a multiple of this, so repeat requests share a cached run
+    @Value("${backtest.cache.window-alignment-ms:60000}")
+    private long windowAlignmentMillis;
+
+    private static final String SYMBOL = "BTC-USD";
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Runs the SMA crossover strategy over every tick in the range, or, with {@code bucket} (e.g.
+     * 1m), over the last price of every bucket as downsampled by TimescaleDB. The range starts on
+     * the minute ({@code backtest.cache.window-alignment-ms}) before {@code range} ago.
+     * <p>
+     * Tick-level runs are cached (see {@link BacktestResultCache}): running the same backtest again
+     * only processes the ticks that arrived since the previous run.
+     * <p>
+     * With {@code from} (and optionally {@code to}, both inclusive UTC dates) the range is instead
+     * any span of whole days, scanned tick by tick from the tick archive without loading it into
+     * memory; {@code range} is then ignored.
+     */
     @GetMapping("/backtest/sma-crossover")
     public BacktestResult runSmaBacktest(
             @RequestParam(defaultValue = "24h") String range,
             @RequestParam(defaultValue = "10") int shortPeriod,
             @RequestParam(defaultValue = "30") int longPeriod,
-            @RequestParam(defaultValue = "10000") double initialBalance) {
+            @RequestParam(defaultValue = "10000") double initialBalance,
+            @RequestParam(required = false) String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (from != null) {
+            return runArchivedBacktest(from, to, bucket, shortPeriod, longPeriod, initialBalance);
+        }
 
-        // 1. Fetch data from DB
         Instant endTime = Instant.now();
+        Instant startTime = windowStart(range, endTime);
+        if (bucket == null) {
+            return runCached("single", startTime, BacktestResultCache.OPEN_ENDED, shortPeriod, longPeriod, initialBalance,
+                    fromMillis -> loadTicks(Instant.ofEpochMilli(fromMillis), endTime));
+        }
+
+        // 1. Fetch the downsampled data
+        long start = System.nanoTime();
+        PriceSeries series = loadBuckets(bucket, startTime, endTime);
+        long loaded = System.nanoTime();
+        String size = sizeBucket(series.size());
+        record("single", "load", size, loaded - start);
+
+        // 2. Run the backtest
+        BacktestResult result = backtestingService.runSmaCrossoverBacktest(series, shortPeriod, longPeriod, initialBalance);
+        record("single", "run", size, System.nanoTime() - loaded);
+        return result;
+    }
+
+    /**
+     * Runs any strategy, given as a spec such as {@code ema-crossover:12/26}, {@code rsi:14/30/70}
+     * or {@code bollinger:20/2} (see {@link Strategies#parse}), over the same ticks as
+     * {@link #runSmaBacktest} would. These runs are not cached.
+     */
+    @GetMapping("/backtest/strategy")
+    public BacktestResult runStrategyBacktest(
+            @RequestParam String strategy,
+            @RequestParam(defaultValue = "24h") String range,
+            @RequestParam(defaultValue = "10000") double initialBalance,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        Strategy instance;
+        try {
+            instance = Strategies.parse(strategy).get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // 1. Find the ticks
+        long start = System.nanoTime();
+        TickSource source;
+        String kind;
+        if (from != null) {
+            ArchiveWindow window = archiveWindow(from, to, null);
+            source = window.archive().source(SYMBOL, window.start(), window.end());
+            kind = "archive";
+        } else {
+            Instant endTime = Instant.now();
+            source = loadTicks(windowStart(range, endTime), endTime);
+            kind = "single";
+        }
+        long loaded = System.nanoTime();
+        String size = sizeBucket(source.count());
+        record(kind, "load", size, loaded - start);
+
+        // 2. Run the strategy over them
+        BacktestResult result = backtestingService.runStrategyBacktest(source, instance, initialBalance);
+        record(kind, "run", size, System.nanoTime() - loaded);
+        return result;
+    }
+
+    /**
+     * Evaluates every (shortPeriod, longPeriod) pair in the given ranges against one load of the
+     * data and returns the best {@code top} results, ranked by profit percentage. {@code bucket}
+     * works as for {@link #runSmaBacktest}.
+     */
+    @GetMapping("/backtest/sma-crossover/sweep")
+    public SweepResult runSmaSweep(
+            @RequestParam(defaultValue = "24h") String range,
+            @RequestParam(defaultValue = "5") int shortMin,
+            @RequestParam(defaultValue = "20") int shortMax,
+            @RequestParam(defaultValue = "1") int shortStep,
+            @RequestParam(defaultValue = "20") int longMin,
+            @RequestParam(defaultValue = "60") int longMax,
+            @RequestParam(defaultValue = "5") int longStep,
+            @RequestParam(defaultValue = "10000") double initialBalance,
+            @RequestParam(defaultValue = "20") int top,
+            @RequestParam(required = false) String bucket) {
+
+        // 1. Fetch the data, once for the whole grid
+        long start = System.nanoTime();
+        PriceSeries series = loadSeries(range, bucket);
+        long loaded = System.nanoTime();
+        String size = sizeBucket(series.size());
+        record("sweep", "load", size, loaded - start);
+
+        // 2. Evaluate the grid in parallel
+        try {
+            SweepResult result = parameterSweepService.sweep(series, shortMin, shortMax, shortStep,
+                    longMin, longMax, longStep, initialBalance, top);
+            record("sweep", "run", size, System.nanoTime() - loaded);
+            return result;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the same backtest as {@link #runSmaBacktest} (without {@code bucket}) in the background
+     * and answers right away with the job's id. Progress and the equity curve so far are pushed to
+     * /user/queue/backtest-jobs; the result can also be polled at /backtest/jobs/{id}.
+     */
+    @PostMapping("/backtest/sma-crossover/jobs")
+    public ResponseEntity<BacktestJobUpdate> submitSmaBacktestJob(
+            @RequestParam(defaultValue = "24h") String range,
+            @RequestParam(defaultValue = "10") int shortPeriod,
+            @RequestParam(defaultValue = "30") int longPeriod,
+            @RequestParam(defaultValue = "10000") double initialBalance,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NORMAL") BacktestJobPriority priority,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        Supplier<TickSource> ticks;
+        if (from != null) {
+            ArchiveWindow window = archiveWindow(from, to, null);
+            ticks = () -> window.archive().source(SYMBOL, window.start(), window.end());
+        } else {
+            Instant endTime = Instant.now();
+            Instant startTime = windowStart(range, endTime);
+            ticks = () -> loadTicks(startTime, endTime);
+        }
+        try {
+            BacktestJobUpdate job = backtestJobService.submitSmaCrossover(jwt.getSubject(), priority,
+                    shortPeriod, longPeriod, initialBalance, ticks);
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one strategy (a spec as for {@link #runStrategyBacktest}) over several symbols, e.g.
+     * {@code symbols=BTC-USD,ETH-USD,SOL-USD}, all trading from one account of
+     * {@code initialBalance}, as a background job like {@link #submitSmaBacktestJob}. Each BUY
+     * spends cash as the {@code allocation} rule says, and {@code fraction} of it under
+     * FIXED_FRACTION. Symbols load and run in parallel (see {@link PortfolioBacktestService}); the
+     * range works as for {@link #runSmaBacktest}.
+     */
+    @PostMapping("/backtest/portfolio/jobs")
+    public ResponseEntity<BacktestJobUpdate> submitPortfolioBacktestJob(
+            @RequestParam List<String> symbols,
+            @RequestParam(defaultValue = "sma-crossover:10/30") String strategy,
+            @RequestParam(defaultValue = "EQUAL_WEIGHT") AllocationRule allocation,
+            @RequestParam(defaultValue = "0.1") double fraction,
+            @RequestParam(defaultValue = "24h") String range,
+            @RequestParam(defaultValue = "10000") double initialBalance,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NORMAL") BacktestJobPriority priority,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        Function<String, TickSource> ticks;
+        if (from != null) {
+            ArchiveWindow window = archiveWindow(from, to, null);
+            ticks = symbol -> window.archive().source(symbol, window.start(), window.end());
+        } else {
+            Instant endTime = Instant.now();
+            Instant startTime = windowStart(range, endTime);
+            ticks = symbol -> loadTicks(symbol, startTime, endTime);
+        }
+        try {
+            BacktestJobUpdate job = backtestJobService.submitPortfolio(jwt.getSubject(), priority, symbols, ticks,
+                    Strategies.parse(strategy), allocation, fraction, initialBalance);
+            return ResponseEntity.accepted().body(job);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
+    @GetMapping("/backtest/jobs")
+    public List<BacktestJobUpdate> getMyBacktestJobs(@AuthenticationPrincipal Jwt jwt) {
+        return backtestJobService.list(jwt.getSubject());
+    }
+
+    @GetMapping("/backtest/jobs/{id}")
+    public BacktestJobUpdate getBacktestJob(@PathVariable String id, @AuthenticationPrincipal Jwt jwt) {
+        return found(backtestJobService.get(jwt.getSubject(), id));
+    }
+
+    @DeleteMapping("/backtest/jobs/{id}")
+    public BacktestJobUpdate cancelBacktestJob(@PathVariable String id, @AuthenticationPrincipal Jwt jwt) {
+        return found(backtestJobService.cancel(jwt.getSubject(), id));
+    }
+
+    private static BacktestJobUpdate found(BacktestJobUpdate job) {
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such backtest job");
+        }
+        return job;
+    }
+
+    private BacktestResult runArchivedBacktest(LocalDate from, LocalDate to, String bucket,
+                                               int shortPeriod, int longPeriod, double initialBalance) {
+        // Ticks are scanned in one streaming pass, never loaded as a whole
+        ArchiveWindow window = archiveWindow(from, to, bucket);
+        return runCached("archive", window.start(), window.cacheEnd(), shortPeriod, longPeriod, initialBalance,
+                fromMillis -> window.archive().source(SYMBOL, Instant.ofEpochMilli(fromMillis), window.end()));
+    }
+
+    /**
+     * @param cacheEnd The window's last millisecond, or {@link BacktestResultCache#OPEN_ENDED} if
+     *                 it runs up to now.
+     */
+    private record ArchiveWindow(TickArchive archive, Instant start, Instant end, long cacheEnd) {
+    }
+
+    // Whole UTC days from the start of from to the end of to (or now, whichever is earlier)
+    private ArchiveWindow archiveWindow(LocalDate from, LocalDate to, String bucket) {
+        TickArchive archive = tickArchive.getIfAvailable();
+        if (archive == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from requires tick-archive.enabled=true");
+        }
+        if (bucket != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from cannot be combined with bucket");
+        }
+        LocalDate lastDay = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        if (lastDay.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "to must not be before from");
+        }
+        Instant startTime = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant endTime = lastDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant now = Instant.now();
+        long cacheEnd = endTime.toEpochMilli() - 1;
+        if (endTime.isAfter(now)) {
+            endTime = now;
+            cacheEnd = BacktestResultCache.OPEN_ENDED;
+        }
+        if (!startTime.isBefore(endTime)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be in the future");
+        }
+        return new ArchiveWindow(archive, startTime, endTime, cacheEnd);
+    }
+
+    /**
+     * Runs the backtest through the result cache. The load phase covers finding and counting the
+     * ticks the cache asks for (a slice of memory, a binary search per archived day or a count
+     * query); the run phase is everything else, mostly the strategy's pass over those ticks.
+     */
+    private BacktestResult runCached(String kind, Instant startTime, long end, int shortPeriod, int longPeriod,
+                                     double initialBalance, LongFunction<TickSource> ticksFrom) {
+        long start = System.nanoTime();
+        long[] load = new long[2]; // nanos, ticks
+        BacktestResult result;
+        try {
+            result = backtestResultCache.smaCrossover(SYMBOL, startTime.toEpochMilli(), end,
+                    shortPeriod, longPeriod, initialBalance, from -> {
+                        long loadStart = System.nanoTime();
+                        TickSource source = ticksFrom.apply(from);
+                        load[1] = source.count();
+                        load[0] = System.nanoTime() - loadStart;
+                        return source;
+                    });
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        String size = sizeBucket(load[1]);
+        record(kind, "load", size, load[0]);
+        record(kind, "run", size, System.nanoTime() - start - load[0]);
+        return result;
+    }
+
+    private void record(String kind, String phase, String size, long nanos) {
+        Timer.builder("backtest.duration")
+                .description("Time spent loading data for and running backtests")
+                .tag("kind", kind)
+                .tag("phase", phase)
+                .tag("size", size)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Coarse order-of-magnitude buckets keep the tag cardinality fixed
+    private static String sizeBucket(long ticks) {
+        if (ticks < 10_000) {
+            return "<10k";
+        }
+        if (ticks < 100_000) {
+            return "10k-100k";
+        }
+        if (ticks < 1_000_000) {
+            return "100k-1m";
+        }
+        return ">=1m";
+    }
+
+    private Instant windowStart(String range, Instant endTime) {
         Instant startTime;
         if ("7d".equalsIgnoreCase(range)) {
             startTime = endTime.minus(7, ChronoUnit.DAYS);
         } else {
             startTime = endTime.minus(24, ChronoUnit.HOURS);
         }
-        List<PriceTickEntity> priceTicks = priceTickRepository.findBySymbolAndTimestampBetween("BTC-USD", startTime, endTime);
+        long alignment = Math.max(1, windowAlignmentMillis);
+        return Instant.ofEpochMilli(Math.floorDiv(startTime.toEpochMilli(), alignment) * alignment);
+    }
 
-        // 2. Run the backtest
-        return backtestingService.runSmaCrossoverBacktest(priceTicks, shortPeriod, longPeriod, initialBalance);
+    private PriceSeries loadSeries(String range, String bucket) {
+        Instant endTime = Instant.now();
+        Instant startTime = windowStart(range, endTime);
+        if (bucket != null) {
+            return loadBuckets(bucket, startTime, endTime);
+        }
+        return loadTicks(startTime, endTime);
+    }
+
+    private PriceSeries loadTicks(Instant startTime, Instant endTime) {
+        return loadTicks(SYMBOL, startTime, endTime);
+    }
+
+    // Every tick in [startTime, endTime], from memory where possible
+    private PriceSeries loadTicks(String symbol, Instant startTime, Instant endTime) {
+        long coveredFrom = tickHistoryStore.coveredFrom(symbol);
+        if (startTime.toEpochMilli() >= coveredFrom) {
+            return tickHistoryStore.range(symbol, startTime.toEpochMilli(), endTime.toEpochMilli());
+        }
+
+        // Only the part of the range the in-memory store does not hold is read from the database
+        Instant databaseEnd = coveredFrom == TickHistoryStore.NOT_COVERED
+                ? endTime
+                : Instant.ofEpochMilli(Math.min(coveredFrom - 1, endTime.toEpochMilli()));
+        PriceSeries.Builder series = PriceSeries.builder();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PriceTickRow> rows = priceTickRepository.streamBySymbolAndTimestampBetween(symbol, startTime, databaseEnd)) {
+                rows.forEach(row -> series.add(row.timestamp().toEpochMilli(), row.price()));
+            }
+        });
+        if (coveredFrom != TickHistoryStore.NOT_COVERED) {
+            series.addAll(tickHistoryStore.range(symbol, coveredFrom, endTime.toEpochMilli()));
+        }
+        return series.build();
+    }
+
+    private PriceSeries loadBuckets(String bucket, Instant startTime, Instant endTime) {
+        TimescaleTickRepository timescale = timescaleTickRepository.getIfAvailable();
+        if (timescale == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket requires storage.timescale.enabled=true");
+        }
+        CandleInterval interval;
+        try {
+            interval = CandleInterval.fromCode(bucket);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return timescale.findCloses(SYMBOL, Duration.ofMillis(interval.getMillis()), startTime, endTime);
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,43 @@
 package com.trading.price_streamer.controller;
 
-import com.trading.price_streamer.domain.common.Signal;
-import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_codec.PriceTick;
 import com.trading.price_streamer.domain.common.PriceTickRepository;
-import com.trading.price_streamer.domain.backtest.BacktestingService;
+import com.trading.price_streamer.domain.common.PriceTickRow;
+import com.trading.price_streamer.domain.common.TickHistoryStore;
+import com.trading.price_streamer.domain.common.TickWindow;
+import com.trading.price_streamer.domain.common.TickWindowStore;
+import com.trading.price_streamer.domain.candle.Candle;
+import com.trading.price_streamer.domain.candle.CandleAggregator;
+import com.trading.price_streamer.domain.candle.CandleInterval;
+import com.trading.price_streamer.domain.signal.LiveSignalService;
+import com.trading.price_streamer.domain.signal.SignalEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController // Marks this class as a REST controller
 @CrossOrigin
@@ -21,37 +46,174 @@ public class HistoryController {
     @Autowired
     private PriceTickRepository priceTickRepository;
     @Autowired
-    private BacktestingService backtestingService;
+    private LiveSignalService liveSignalService;
+    @Autowired
+    private TickWindowStore tickWindowStore;
+    @Autowired
+    private TickHistoryStore tickHistoryStore;
+    @Autowired
+    private CandleAggregator candleAggregator;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    // Push a chunk to the client every this many rows
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectWriter rowWriter;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        // The servlet container owns the response stream, so Jackson must not close it
+        rowWriter = objectMapper.writerFor(PriceTickRow.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    // How many of the latest ticks a chart snapshot returns
+    @Value("${tick-window.snapshot:100}")
+    private int snapshotLength;
 
+    /**
+     * Streams every raw tick in the range as a JSON array. Ticks held by the {@link TickHistoryStore}
+     * are written straight from memory (with a null id); anything older is read through a database
+     * cursor. Either way rows go to the response as they are read, so heap use does not depend on
+     * the range length.
+     */
     @GetMapping("/history") // Maps HTTP GET requests for /history to this method
-    public List<PriceTickEntity> getHistory(
+    public ResponseEntity<StreamingResponseBody> getHistory(
             @RequestParam("symbol") String symbol,
             @RequestParam(value = "range", defaultValue = "24h") String range) {
 
         Instant endTime = Instant.now();
-        Instant startTime;
+        Instant startTime = rangeStart(range, endTime);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeTicks(symbol, startTime, endTime, out, false));
+    }
+
+    /**
+     * Same as {@link #getHistory}, but as newline-delimited JSON (one tick object per line).
+     */
+    @GetMapping(value = "/history", params = {"format=ndjson", "!interval"})
+    public ResponseEntity<StreamingResponseBody> getHistoryNdjson(
+            @RequestParam("symbol") String symbol,
+            @RequestParam(value = "range", defaultValue = "24h") String range) {
+
+        Instant endTime = Instant.now();
+        Instant startTime = rangeStart(range, endTime);
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> writeTicks(symbol, startTime, endTime, out, true));
+    }
+
+    private void writeTicks(String symbol, Instant start, Instant end, OutputStream out, boolean ndjson) {
+        long coveredFrom = tickHistoryStore.coveredFrom(symbol);
+        try (SequenceWriter writer = ndjson
+                ? rowWriter.withRootValueSeparator("\n").writeValues(out)
+                : rowWriter.writeValuesAsArray(out)) {
+            RowSink sink = new RowSink(writer);
 
-        // Simple logic to determine the start time based on the range parameter
+            // Only the part of the range the in-memory store does not hold is read from the database
+            if (start.toEpochMilli() < coveredFrom) {
+                Instant databaseEnd = coveredFrom == TickHistoryStore.NOT_COVERED
+                        ? end
+                        : Instant.ofEpochMilli(Math.min(coveredFrom - 1, end.toEpochMilli()));
+                // The cursor only lives as long as the transaction, so that part is written inside it
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<PriceTickRow> rows = priceTickRepository.streamBySymbolAndTimestampBetween(symbol, start, databaseEnd)) {
+                        rows.forEach(sink::write);
+                    }
+                });
+            }
+            if (coveredFrom != TickHistoryStore.NOT_COVERED) {
+                tickHistoryStore.forEach(symbol, Math.max(start.toEpochMilli(), coveredFrom), end.toEpochMilli(),
+                        (timestamp, price) -> sink.write(new PriceTickRow(null, symbol, price, Instant.ofEpochMilli(timestamp))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes rows to the response, pushing a chunk to the client every FLUSH_EVERY_ROWS
+    private static final class RowSink {
+        private final SequenceWriter writer;
+        private int written;
+
+        RowSink(SequenceWriter writer) {
+            this.writer = writer;
+        }
+
+        void write(PriceTickRow row) {
+            try {
+                writer.write(row);
+                if (++written % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Same ranges as {@link #getHistory}, but returns OHLCV candles (e.g. interval=5m) built
+     * incrementally by the {@link CandleAggregator} instead of every raw tick.
+     */
+    @GetMapping(value = "/history", params = "interval")
+    public List<Candle> getCandleHistory(
+            @RequestParam("symbol") String symbol,
+            @RequestParam(value = "range", defaultValue = "24h") String range,
+            @RequestParam("interval") String interval) {
+
+        CandleInterval candleInterval;
+        try {
+            candleInterval = CandleInterval.fromCode(interval);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Instant endTime = Instant.now();
+        return candleAggregator.getCandles(symbol, candleInterval, rangeStart(range, endTime), endTime);
+    }
+
+    // Simple logic to determine the start time based on the range parameter
+    private static Instant rangeStart(String range, Instant endTime) {
         if ("24h".equalsIgnoreCase(range)) {
-            startTime = endTime.minus(24, ChronoUnit.HOURS);
+            return endTime.minus(24, ChronoUnit.HOURS);
         } else if ("7d".equalsIgnoreCase(range)) {
-            startTime = endTime.minus(7, ChronoUnit.DAYS);
-        } else {
-            // Default to 1 hour if the range is not recognized
-            startTime = endTime.minus(1, ChronoUnit.HOURS);
+            return endTime.minus(7, ChronoUnit.DAYS);
         }
+        // Default to 1 hour if the range is not recognized
+        return endTime.minus(1, ChronoUnit.HOURS);
+    }
+    /**
+     * Returns the symbol's most recent ticks straight from the in-memory window store,
+     * so a chart can be seeded on load without a database query.
+     */
+    @GetMapping("/history/recent")
+    public List<PriceTick> getRecentTicks(@RequestParam("symbol") String symbol) {
+        TickWindow window = new TickWindow(Math.min(snapshotLength, tickWindowStore.capacity()));
+        tickWindowStore.fill(symbol, window);
 
-        // Call the repository to fetch the data
-        return priceTickRepository.findBySymbolAndTimestampBetween(symbol, startTime, endTime);
+        List<PriceTick> ticks = new ArrayList<>(window.size());
+        for (int i = 0; i < window.size(); i++) {
+            ticks.add(new PriceTick(symbol, window.price(i), window.timestamp(i)));
+        }
+        return ticks;
     }
-    @GetMapping("/test-signals")
-    public List<Signal> testSignals() {
-        Instant endTime = Instant.now();
-        // Fetch a larger set of data to increase the chance of a crossover
-        Instant startTime = endTime.minus(10, ChronoUnit.MINUTES);
-        List<PriceTickEntity> recentTicks = priceTickRepository.findBySymbolAndTimestampBetween("BTC-USD", startTime, endTime);
 
-        // Generate signals with a 10-period short SMA and a 30-period long SMA
-        return backtestingService.generateSmaCrossoverSignals(recentTicks, 10, 30);
+    /**
+     * Returns the symbol's latest SMA crossover transitions as computed live by the
+     * {@link LiveSignalService}; new ones are pushed on /topic/signals/{symbol}.
+     */
+    @GetMapping("/signals/recent")
+    public List<SignalEvent> getRecentSignals(@RequestParam("symbol") String symbol) {
+        return liveSignalService.getRecentSignals(symbol);
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.trading.price_streamer.domain.alert;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory book of active alerts, one per symbol.
+ * <p>
+ * Target prices are stored as longs scaled to the 4 decimal places of the alerts table.
+ * ABOVE alerts sit in a min-heap and BELOW alerts in a max-heap, so a tick only ever looks at
+ * the head of each side: when neither head has been crossed the check is two volatile reads.
+ */
+@Component
+public class AlertIndex {
+
+    // Matches the precision = 19, scale = 4 of AlertEntity.targetPrice
+    static final int PRICE_SCALE = 4;
+    private static final double SCALE_FACTOR = 10_000.0;
+
+    private final Map<String, SymbolBook> books = new ConcurrentHashMap<>();
+
+    /**
+     * Adds an active alert to its symbol's book.
+     * @param alert A persisted alert (it must already have an id).
+     */
+    public void add(AlertEntity alert) {
+        books.computeIfAbsent(alert.getSymbol(), SymbolBook::new)
+                .add(alert.getId(), alert.getUserId(), alert.getAlertCondition(), toKey(alert.getTargetPrice()));
+    }
+
+    /**
+     * Puts back an alert that {@link #match} removed but that could not be fired.
+     * @param alert The alert as match returned it.
+     */
+    public void restore(TriggeredAlert alert) {
+        books.computeIfAbsent(alert.symbol(), SymbolBook::new)
+                .add(alert.id(), alert.userId(), alert.condition(), toKey(alert.targetPrice()));
+    }
+
+    /**
+     * Removes and returns every alert on the symbol whose condition is met by the price.
+     * @param symbol The tick's symbol.
+     * @param price The tick's price.
+     * @return The triggered alerts, or an empty list (without allocating) when nothing fired.
+     */
+    public List<TriggeredAlert> match(String symbol, double price) {
+        SymbolBook book = books.get(symbol);
+        if (book == null) {
+            return Collections.emptyList();
+        }
+        return book.match(price);
+    }
+
+    /**
+     * Drops every alert on the symbols the filter accepts, e.g. when another node takes them over.
+     * @return The number of alerts dropped.
+     */
+    public int removeSymbols(Predicate<String> filter) {
+        int removed = 0;
+        for (Iterator<SymbolBook> it = books.values().iterator(); it.hasNext(); ) {
+            SymbolBook book = it.next();
+            if (filter.test(book.symbol)) {
+                removed += book.size();
+                it.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return The number of alerts currently held across all symbols.
+     */
+    public int size() {
+        int total = 0;
+        for (SymbolBook book : books.values()) {
+            total += book.size();
+        }
+        return total;
+    }
+
+    static long toKey(BigDecimal targetPrice) {
+        return targetPrice.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static final class SymbolBook {
+        private final String symbol;
+        private final PriceLevelHeap above = new PriceLevelHeap();
+        // Keys are negated so the min-heap yields the highest BELOW target first
+        private final PriceLevelHeap below = new PriceLevelHeap();
+
+        private volatile long lowestAbove = Long.MAX_VALUE;
+        private volatile long highestBelow = Long.MIN_VALUE;
+
+        SymbolBook(String symbol) {
+            this.symbol = symbol;
+        }
+
+        synchronized void add(long id, String userId, AlertCondition condition, long key) {
+            if (condition == AlertCondition.ABOVE) {
+                above.push(key, id, userId);
+                lowestAbove = above.peekKey();
+            } else {
+                below.push(-key, id, userId);
+                highestBelow = -below.peekKey();
+            }
+        }
+
+        synchronized int size() {
+            return above.size() + below.size();
+        }
+
+        List<TriggeredAlert> match(double price) {
+            // The double product can be off by a fraction of a unit, so keys within one unit of
+            // the floor are confirmed with the same BigDecimal comparison the alerts always used.
+            long floor = (long) Math.floor(price * SCALE_FACTOR);
+            if (lowestAbove > floor + 1 && highestBelow < floor) {
+                return Collections.emptyList();
+            }
+            return popCrossed(price, floor);
+        }
+
+        private synchronized List<TriggeredAlert> popCrossed(double price, long floor) {
+            List<TriggeredAlert> triggered = new ArrayList<>();
+
+            while (!above.isEmpty()) {
+                long key = above.peekKey();
+                if (key > floor + 1 || (key >= floor && BigDecimal.valueOf(price).compareTo(toPrice(key)) <= 0)) {
+                    break;
+                }
+                triggered.add(new TriggeredAlert(above.peekId(), above.peekUserId(), symbol, AlertCondition.ABOVE, toPrice(key)));
+                above.pop();
+            }
+            lowestAbove = above.isEmpty() ? Long.MAX_VALUE : above.peekKey();
+
+            while (!below.isEmpty()) {
+                long key = -below.peekKey();
+                if (key < floor || (key <= floor + 1 && BigDecimal.valueOf(price).compareTo(toPrice(key)) >= 0)) {
+                    break;
+                }
+                triggered.add(new TriggeredAlert(below.peekId(), below.peekUserId(), symbol, AlertCondition.BELOW, toPrice(key)));
+                below.pop();
+            }
+            highestBelow = below.isEmpty() ? Long.MIN_VALUE : -below.peekKey();
+
+            return triggered;
+        }
+
+        private static BigDecimal toPrice(long key) {
+            return BigDecimal.valueOf(key, PRICE_SCALE);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.trading.price_streamer.domain.alert;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +18,19 @@ public interface AlertRepository extends JpaRepository<AlertEntity, Long> {
     List<AlertEntity> findByUserIdAndStatus(String userId, AlertStatus status);
     List<AlertEntity> findBySymbolAndStatus(String symbol, AlertStatus status);
 
-}
\ No newline at end of file
+    // Used to page through every active alert when the in-memory index is built
+    Slice<AlertEntity> findByStatus(AlertStatus status, Pageable pageable);
+
+    // In cluster mode a node only pages through the alerts of the symbols it owns
+    @Query("SELECT DISTINCT a.symbol FROM AlertEntity a WHERE a.status = :status")
+    List<String> findDistinctSymbolsByStatus(@Param("status") AlertStatus status);
+
+    Slice<AlertEntity> findByStatusAndSymbolIn(AlertStatus status, Collection<String> symbols, Pageable pageable);
+
+    // Only moves the alert if it is still in the expected state; returns the number of rows changed
+    @Modifying
+    @Transactional
+    @Query("UPDATE AlertEntity a SET a.status = :newStatus WHERE a.id = :id AND a.status = :expectedStatus")
+    int updateStatus(@Param("id") Long id, @Param("expectedStatus") AlertStatus expectedStatus, @Param("newStatus") AlertStatus newStatus);
+
+}
@@ -1,23 +1,91 @@
 package com.trading.price_streamer.domain.alert;
 
-import com.trading.price_streamer.domain.common.PriceTick;
+import com.trading.price_codec.PriceTick;
+import com.trading.price_streamer.cluster.AlertNotificationRelay;
+import com.trading.price_streamer.cluster.ClusterAlertSharding;
+import com.trading.price_streamer.infrastructure.RateLimitedLogger;
 import com.trading.price_streamer.model.CreateAlertRequest;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 
 @Service
 public class AlertService {
 
+    private static final Logger log = LoggerFactory.getLogger(AlertService.class);
+    private static final RateLimitedLogger errorLog = new RateLimitedLogger(log, Duration.ofSeconds(10));
+
     @Autowired
     private AlertRepository alertRepository;
 
+    // Sends notifications to the user's sessions, on this node or (in cluster mode) another one
+    @Autowired
+    private AlertNotificationRelay notificationRelay;
+
+    // Only present in cluster mode
     @Autowired
-    private SimpMessagingTemplate messagingTemplate; // Inject the template
+    private ObjectProvider<ClusterAlertSharding> clusterAlertSharding;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Autowired
+    private AlertIndex alertIndex;
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
 
+    /**
+     * Loads every ACTIVE alert into the in-memory index. Runs before the Kafka listeners
+     * and the web server start, so no tick or new alert can race with the load.
+     * In cluster mode nothing is loaded here: each node loads the alerts of its own partitions
+     * as they are assigned, through {@link ClusterAlertSharding}.
+     */
+    @PostConstruct
+    public void loadActiveAlerts() {
+        if (clusterEnabled) {
+            log.info("Cluster mode: active alerts are loaded per assigned partition");
+            return;
+        }
+        Pageable page = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+        Slice<AlertEntity> slice;
+        do {
+            slice = alertRepository.findByStatus(AlertStatus.ACTIVE, page);
+            slice.forEach(alertIndex::add);
+            page = slice.nextPageable();
+        } while (slice.hasNext());
+        log.info("Loaded {} active alerts into the alert index", alertIndex.size());
+    }
+
+    /**
+     * Loads the ACTIVE alerts of the given symbols into the in-memory index.
+     * @return The number of alerts loaded.
+     */
+    public int loadActiveAlerts(Collection<String> symbols) {
+        Pageable page = PageRequest.of(0, LOAD_PAGE_SIZE, Sort.by("id"));
+        Slice<AlertEntity> slice;
+        int loaded = 0;
+        do {
+            slice = alertRepository.findByStatusAndSymbolIn(AlertStatus.ACTIVE, symbols, page);
+            slice.forEach(alertIndex::add);
+            loaded += slice.getNumberOfElements();
+            page = slice.nextPageable();
+        } while (slice.hasNext());
+        return loaded;
+    }
 
     /**
      * Creates a new alert for a given user.
@@ -30,9 +98,17 @@ public class AlertService {
         newAlert.setUserId(userId);
         newAlert.setSymbol(request.getSymbol());
         newAlert.setAlertCondition(request.getCondition());
-        newAlert.setTargetPrice(request.getTargetPrice());
+        // Round to the column's scale up front so the index matches what the DB stores
+        newAlert.setTargetPrice(request.getTargetPrice().setScale(AlertIndex.PRICE_SCALE, RoundingMode.HALF_UP));
         // Status and createdAt are set by default in the entity
-        return alertRepository.save(newAlert);
+        AlertEntity savedAlert = alertRepository.save(newAlert);
+        if (clusterEnabled) {
+            // Only the node owning the symbol's partition, possibly this one, indexes it
+            clusterAlertSharding.getObject().alertCreated(savedAlert);
+        } else {
+            alertIndex.add(savedAlert);
+        }
+        return savedAlert;
     }
 
     /**
@@ -45,40 +121,49 @@ public class AlertService {
         return alertRepository.findByUserIdAndStatus(userId, AlertStatus.ACTIVE);
     }
 
+    /**
+     * Fires every alert on the tick's symbol whose target was crossed. Matching runs against
+     * the in-memory {@link AlertIndex}; the database is only touched for alerts that fire.
+     * An alert whose status update fails goes back into the index, still ACTIVE like its row,
+     * and fires on a later tick that crosses its target.
+     * @param tick The latest price tick.
+     */
     public void checkAndTriggerAlerts(PriceTick tick) {
-        // Find all active alerts for the symbol (e.g., "BTC-USD")
-        List<AlertEntity> activeAlerts = alertRepository.findBySymbolAndStatus(tick.symbol(), AlertStatus.ACTIVE);
-
-        for (AlertEntity alert : activeAlerts) {
-            BigDecimal currentPrice = BigDecimal.valueOf(tick.price());
-            boolean triggered = false;
-
-            // Check if the condition is met
-            if (alert.getAlertCondition() == AlertCondition.BELOW && currentPrice.compareTo(alert.getTargetPrice()) < 0) {
-                triggered = true;
-            } else if (alert.getAlertCondition() == AlertCondition.ABOVE && currentPrice.compareTo(alert.getTargetPrice()) > 0) {
-                triggered = true;
+        List<TriggeredAlert> triggeredAlerts = alertIndex.match(tick.symbol(), tick.price());
+
+        for (TriggeredAlert alert : triggeredAlerts) {
+            // 1. Update the alert status to TRIGGERED so it doesn't fire again.
+            //    Skip it if it already left the ACTIVE state some other way.
+            try {
+                if (alertRepository.updateStatus(alert.id(), AlertStatus.ACTIVE, AlertStatus.TRIGGERED) == 0) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                // Ticks of this symbol, and any revocation of its partition, run on this thread,
+                // so the book cannot have moved to another node in between
+                alertIndex.restore(alert);
+                errorLog.error("Could not trigger alert {}, keeping it active", alert.id(), e);
+                continue;
             }
 
-            if (triggered) {
-                // 1. Update the alert status to TRIGGERED so it doesn't fire again
-                alert.setStatus(AlertStatus.TRIGGERED);
-                alertRepository.save(alert);
-
-                // 2. Send a private notification to the specific user
-                String message = String.format(
-                        "ALERT: %s is now %s your target of $%,.2f. Current price: $%,.2f",
-                        alert.getSymbol(),
-                        alert.getAlertCondition().toString().toLowerCase(),
-                        alert.getTargetPrice(),
-                        currentPrice
-                );
-
-                // This sends the message to the user's private queue
-                messagingTemplate.convertAndSendToUser(alert.getUserId(), "/queue/notifications", message);
-
-                System.out.println("Triggered alert for user " + alert.getUserId());
-            }
+            // 2. Send a private notification to the specific user
+            BigDecimal currentPrice = BigDecimal.valueOf(tick.price());
+            String message = String.format(
+                    "ALERT: %s is now %s your target of $%,.2f. Current price: $%,.2f",
+                    alert.symbol(),
+                    alert.condition().toString().toLowerCase(),
+                    alert.targetPrice(),
+                    currentPrice
+            );
+
+            // This sends the message to the user's private queue
+            notificationRelay.deliver(alert.userId(), message);
+
+            log.atInfo()
+                    .addKeyValue("user", alert.userId())
+                    .addKeyValue("symbol", alert.symbol())
+                    .addKeyValue("price", tick.price())
+                    .log("Triggered alert {}", alert.id());
         }
     }
 
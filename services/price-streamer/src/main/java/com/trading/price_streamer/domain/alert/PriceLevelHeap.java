@@ -0,0 +1,96 @@
+package com.trading.price_streamer.domain.alert;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of alert price levels kept in parallel primitive arrays.
+ * <p>
+ * Each entry is a scaled long key plus the alert id and owner it belongs to. Nothing is
+ * boxed, so a million alerts cost roughly 20 bytes each. Not thread-safe; callers lock.
+ */
+class PriceLevelHeap {
+
+    private long[] keys = new long[16];
+    private long[] ids = new long[16];
+    private String[] userIds = new String[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long peekKey() {
+        return keys[0];
+    }
+
+    long peekId() {
+        return ids[0];
+    }
+
+    String peekUserId() {
+        return userIds[0];
+    }
+
+    void push(long key, long id, String userId) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+        }
+        int i = size++;
+        // Sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        set(i, key, id, userId);
+    }
+
+    /** Removes the head entry; read it with the peek methods first. */
+    void pop() {
+        int last = --size;
+        long key = keys[last];
+        long id = ids[last];
+        String userId = userIds[last];
+        userIds[last] = null;
+        if (last == 0) {
+            return;
+        }
+        // Sift down the former last entry from the root
+        int i = 0;
+        int half = last >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < last && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        set(i, key, id, userId);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        ids[to] = ids[from];
+        userIds[to] = userIds[from];
+    }
+
+    private void set(int i, long key, long id, String userId) {
+        keys[i] = key;
+        ids[i] = id;
+        userIds[i] = userId;
+    }
+}
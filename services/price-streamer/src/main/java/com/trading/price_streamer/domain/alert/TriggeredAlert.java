@@ -0,0 +1,9 @@
+package com.trading.price_streamer.domain.alert;
+
+import java.math.BigDecimal;
+
+/**
+ * An alert that was removed from the {@link AlertIndex} because the price crossed its target.
+ */
+public record TriggeredAlert(long id, String userId, String symbol, AlertCondition condition, BigDecimal targetPrice) {
+}
@@ -0,0 +1,184 @@
+package com.trading.price_streamer.domain.archive;
+
+import com.trading.price_streamer.domain.backtest.DatabaseTickSource;
+import com.trading.price_streamer.domain.backtest.TickSource;
+import com.trading.price_streamer.domain.common.PriceTickRepository;
+import com.trading.price_streamer.domain.common.TickConsumer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A local archive of closed days of ticks, for backtests over ranges far longer than the database
+ * or memory are meant to serve.
+ * <p>
+ * Each UTC day is a directory, {@code <tick-archive.directory>/<yyyy-MM-dd>/}, holding one
+ * {@link TickArchiveFile} per symbol that had ticks that day. A day directory only appears once it
+ * is complete (see {@link TickArchiveExporter}) and is only ever replaced as a whole. Ranges are
+ * scanned straight from the memory-mapped columns, with no per-tick objects; days that are not
+ * archived yet, such as today, are read from price_ticks instead.
+ */
+@Component
+@ConditionalOnProperty(name = "tick-archive.enabled", havingValue = "true")
+public class TickArchive {
+
+    // Symbols become file names, so anything that could escape the day directory is refused
+    private static final Pattern SAFE_SYMBOL = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    private final Path root;
+
+    @Autowired
+    private PriceTickRepository priceTickRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    public TickArchive(@Value("${tick-archive.directory:data/tick-archive}") Path root) {
+        this.root = root;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(root);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * @return Whether the day was exported completely.
+     */
+    public boolean isArchived(LocalDate day) {
+        return Files.isDirectory(dayDirectory(day));
+    }
+
+    /**
+     * The symbol's ticks in [start, end), from the archive for archived days and from price_ticks
+     * for the others. Nothing is read until the source is scanned.
+     *
+     * @throws IllegalArgumentException If the symbol cannot be stored in the archive.
+     */
+    public TickSource source(String symbol, Instant start, Instant end) {
+        String fileName = fileName(symbol);
+        List<TickSource> parts = new ArrayList<>();
+        Instant databaseStart = null;
+        Instant databaseEnd = null;
+
+        LocalDate lastDay = LocalDate.ofInstant(end.minusMillis(1), ZoneOffset.UTC);
+        for (LocalDate day = LocalDate.ofInstant(start, ZoneOffset.UTC); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            Instant dayStart = max(start, day.atStartOfDay(ZoneOffset.UTC).toInstant());
+            Instant dayEnd = min(end, day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+            if (isArchived(day)) {
+                if (databaseStart != null) {
+                    parts.add(databaseSource(symbol, databaseStart, databaseEnd));
+                    databaseStart = null;
+                }
+                parts.add(new ArchivedDay(dayDirectory(day).resolve(fileName), dayStart.toEpochMilli(), dayEnd.toEpochMilli()));
+            } else {
+                // Consecutive days missing from the archive become one database range
+                if (databaseStart == null) {
+                    databaseStart = dayStart;
+                }
+                databaseEnd = dayEnd;
+            }
+        }
+        if (databaseStart != null) {
+            parts.add(databaseSource(symbol, databaseStart, databaseEnd));
+        }
+        return TickSource.concat(parts);
+    }
+
+    Path dayDirectory(LocalDate day) {
+        return root.resolve(day.toString());
+    }
+
+    // Where a day is written before it is renamed into place
+    Path stagingDirectory(LocalDate day) {
+        return root.resolve(day + ".staging");
+    }
+
+    static boolean isArchivable(String symbol) {
+        return SAFE_SYMBOL.matcher(symbol).matches();
+    }
+
+    static String fileName(String symbol) {
+        if (!isArchivable(symbol)) {
+            throw new IllegalArgumentException("Symbol cannot be archived: " + symbol);
+        }
+        return symbol + TickArchiveFile.EXTENSION;
+    }
+
+    // BETWEEN is inclusive and ticks have millisecond timestamps, so the range ends 1 ms early
+    private TickSource databaseSource(String symbol, Instant start, Instant end) {
+        return new DatabaseTickSource(priceTickRepository, readOnlyTransaction, symbol, start, end.minusMillis(1));
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * The part of one archived day's file in [from, to). The file is mapped on every scan; a
+     * symbol without a file had no ticks that day.
+     */
+    private static final class ArchivedDay implements TickSource {
+        private final Path file;
+        private final long from;
+        private final long to;
+
+        ArchivedDay(Path file, long from, long to) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public long count() {
+            TickArchiveFile.Mapped mapped = map();
+            return mapped == null ? 0 : mapped.lowerBound(to) - mapped.lowerBound(from);
+        }
+
+        @Override
+        public void forEach(TickConsumer consumer) {
+            TickArchiveFile.Mapped mapped = map();
+            if (mapped == null) {
+                return;
+            }
+            int end = mapped.lowerBound(to);
+            for (int i = mapped.lowerBound(from); i < end; i++) {
+                consumer.accept(mapped.timestamp(i), mapped.price(i));
+            }
+        }
+
+        private TickArchiveFile.Mapped map() {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            try {
+                return TickArchiveFile.map(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.trading.price_streamer.domain.archive;
+
+import com.trading.price_streamer.domain.common.PriceTickRepository;
+import com.trading.price_streamer.domain.common.PriceTickRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Copies closed UTC days from price_ticks into the {@link TickArchive}, once a day shortly after
+ * midnight and once at startup to catch up on the last {@code tick-archive.backfill-days} days.
+ * <p>
+ * A day is written to a staging directory and renamed into place only once every symbol's file is
+ * complete, so readers never see half a day and an interrupted export simply starts over. Days
+ * without ticks are not archived, and a day is only exported {@code tick-archive.export-grace-ms}
+ * after it ends, leaving time for ticks still on their way in. Each archived day also records how
+ * many rows it was exported from; when price_ticks holds a different number for the day on a
+ * later run (ticks that arrived late, a replay), the day is exported again and replaced.
+ * <p>
+ * Exports run on a thread of their own, never on the shared scheduler thread.
+ */
+@Component
+@ConditionalOnProperty(name = "tick-archive.enabled", havingValue = "true")
+public class TickArchiveExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(TickArchiveExporter.class);
+
+    // A leading dot cannot be a symbol's file name (see TickArchive.isArchivable)
+    static final String SOURCE_ROWS_FILE = ".rows";
+
+    @Autowired
+    private TickArchive tickArchive;
+
+    @Autowired
+    private PriceTickRepository priceTickRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${tick-archive.backfill-days:30}")
+    private int backfillDays;
+
+    @Value("${tick-archive.export-grace-ms:600000}")
+    private long graceMillis;
+
+    private TransactionTemplate readOnlyTransaction;
+    private ExecutorService exportThread;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        exportThread = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "tick-archive-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        exportThread.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        exportThread.execute(this::exportClosedDays);
+    }
+
+    /**
+     * Hands a run to the export thread and returns right away.
+     */
+    @Scheduled(cron = "${tick-archive.export-cron:0 10 0 * * *}", zone = "UTC")
+    public void scheduleExport() {
+        exportThread.execute(this::exportClosedDays);
+    }
+
+    /**
+     * Exports every closed day in the backfill window that is not archived yet, or whose ticks in
+     * price_ticks changed since it was.
+     */
+    void exportClosedDays() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long exportableBefore = System.currentTimeMillis() - graceMillis;
+        for (LocalDate day = today.minusDays(backfillDays); day.isBefore(today); day = day.plusDays(1)) {
+            Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant end = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (end.toEpochMilli() > exportableBefore) {
+                break;
+            }
+            try {
+                long rows = priceTickRepository.countByTimestampGreaterThanEqualAndTimestampLessThan(start, end);
+                if (tickArchive.isArchived(day)) {
+                    long archived = sourceRows(tickArchive, day);
+                    if (rows == archived) {
+                        continue;
+                    }
+                    log.info("price_ticks holds {} rows for {} but {} were archived, exporting it again", rows, day, archived);
+                } else if (rows == 0) {
+                    continue;
+                }
+                exportDay(day, start, end);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not archive ticks for {}, will retry on the next run: {}", day, e.toString());
+            }
+        }
+    }
+
+    private void exportDay(LocalDate day, Instant start, Instant end) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        long[] totals = new long[2]; // rows, symbols
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PriceTickRow> rows = priceTickRepository.streamBySymbolInRange(start, end)) {
+                long[] written = publish(tickArchive, day, rows.iterator());
+                totals[0] = written[0];
+                totals[1] = written[1];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (totals[0] > 0) {
+            log.info("Archived {} ticks of {} symbols for {} in {} ms",
+                    totals[0], totals[1], day, System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    /**
+     * Writes the rows as the day's files and puts them in place of whatever the archive held for
+     * the day. While an existing day is being replaced it briefly counts as not archived, so
+     * readers fall back to price_ticks rather than seeing a mix.
+     *
+     * @param rows Grouped by symbol, in timestamp order within each.
+     * @return The rows read and the symbols written. With no rows, nothing is published.
+     */
+    static long[] publish(TickArchive archive, LocalDate day, Iterator<PriceTickRow> rows) throws IOException {
+        Path staging = archive.stagingDirectory(day);
+        FileSystemUtils.deleteRecursively(staging);
+        Files.createDirectories(staging);
+
+        long[] totals = new long[2];
+        writeSymbols(rows, staging, totals);
+        if (totals[0] == 0) {
+            FileSystemUtils.deleteRecursively(staging);
+            return totals;
+        }
+        Files.writeString(staging.resolve(SOURCE_ROWS_FILE), Long.toString(totals[0]));
+
+        Path directory = archive.dayDirectory(day);
+        Path replaced = directory.resolveSibling(day + ".replaced");
+        FileSystemUtils.deleteRecursively(replaced);
+        if (Files.exists(directory)) {
+            Files.move(directory, replaced, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(staging, directory, StandardCopyOption.ATOMIC_MOVE);
+        FileSystemUtils.deleteRecursively(replaced);
+        return totals;
+    }
+
+    /**
+     * @return How many price_ticks rows the archived day was exported from, or -1 if it does not
+     *         say (it was archived before this was recorded).
+     */
+    static long sourceRows(TickArchive archive, LocalDate day) throws IOException {
+        Path file = archive.dayDirectory(day).resolve(SOURCE_ROWS_FILE);
+        return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : -1;
+    }
+
+    // Rows arrive grouped by symbol, so one file is open at a time
+    private static void writeSymbols(Iterator<PriceTickRow> rows, Path directory, long[] totals) throws IOException {
+        TickArchiveFile.Writer writer = null;
+        String symbol = null;
+        try {
+            while (rows.hasNext()) {
+                PriceTickRow row = rows.next();
+                totals[0]++;
+                if (!row.symbol().equals(symbol)) {
+                    if (writer != null) {
+                        writer.close();
+                        writer = null;
+                    }
+                    symbol = row.symbol();
+                    if (TickArchive.isArchivable(symbol)) {
+                        writer = new TickArchiveFile.Writer(directory.resolve(TickArchive.fileName(symbol)));
+                        totals[1]++;
+                    } else {
+                        log.warn("Not archiving ticks of symbol {}, it cannot be used as a file name", symbol);
+                    }
+                }
+                if (writer != null) {
+                    writer.add(row.timestamp().toEpochMilli(), row.price());
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.trading.price_streamer.domain.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One symbol's ticks for one UTC day, as stored in the tick archive:
+ * <pre>
+ * offset  0  int             magic "TICK"
+ *         4  int             format version
+ *         8  long            tick count
+ *        16  long            first timestamp (epoch ms)
+ *        24  long            last timestamp
+ *        32  double          lowest price
+ *        40  double          highest price
+ *        48                  reserved, up to 64
+ *        64  long[count]     timestamps, ascending
+ *            double[count]   prices
+ * </pre>
+ * Everything is little-endian. Files are written once, under a staging name, and never changed,
+ * so readers map them without any locking.
+ */
+final class TickArchiveFile {
+
+    static final String EXTENSION = ".ticks";
+
+    private static final int MAGIC = 0x4B434954; // "TICK" read as a little-endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private TickArchiveFile() {
+    }
+
+    /**
+     * Maps both columns of a file read-only. The mapping outlives the channel, so nothing has to
+     * be closed; it is released when the returned object is garbage collected.
+     *
+     * @throws IOException If the file cannot be read or is not a complete archive file.
+     */
+    static Mapped map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a tick archive file: " + file);
+            }
+            long count = header.getLong(8);
+            if (count > Integer.MAX_VALUE || channel.size() != HEADER_BYTES + count * 16) {
+                throw new IOException("Truncated tick archive file: " + file);
+            }
+            long columnBytes = count * 8;
+            LongBuffer timestamps = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, columnBytes)
+                    .order(ORDER).asLongBuffer();
+            DoubleBuffer prices = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + columnBytes, columnBytes)
+                    .order(ORDER).asDoubleBuffer();
+            return new Mapped((int) count, header.getLong(16), header.getLong(24), timestamps, prices);
+        }
+    }
+
+    /**
+     * Mapped columns of one file. Reads are absolute gets on the mapped memory.
+     */
+    static final class Mapped {
+        private final int count;
+        private final long first;
+        private final long last;
+        private final LongBuffer timestamps;
+        private final DoubleBuffer prices;
+
+        private Mapped(int count, long first, long last, LongBuffer timestamps, DoubleBuffer prices) {
+            this.count = count;
+            this.first = first;
+            this.last = last;
+            this.timestamps = timestamps;
+            this.prices = prices;
+        }
+
+        int count() {
+            return count;
+        }
+
+        long first() {
+            return first;
+        }
+
+        long last() {
+            return last;
+        }
+
+        long timestamp(int i) {
+            return timestamps.get(i);
+        }
+
+        double price(int i) {
+            return prices.get(i);
+        }
+
+        /**
+         * @return The first index whose timestamp is {@code >= value}, or {@link #count()}.
+         */
+        int lowerBound(long value) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (timestamps.get(mid) < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Writes one file front to back. Timestamps go straight to the file behind the header, prices
+     * to a side file that is appended on {@link #close()}, so neither column is held in memory.
+     */
+    static final class Writer implements Closeable {
+        private static final int BUFFER_BYTES = 64 * 1024;
+
+        private final Path file;
+        private final Path pricesFile;
+        private final FileChannel out;
+        private final FileChannel pricesOut;
+        private final ByteBuffer timestampBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ORDER);
+        private final ByteBuffer priceBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ORDER);
+
+        private long count;
+        private long first;
+        private long last;
+        private double low = Double.POSITIVE_INFINITY;
+        private double high = Double.NEGATIVE_INFINITY;
+
+        Writer(Path file) throws IOException {
+            this.file = file;
+            this.pricesFile = file.resolveSibling(file.getFileName() + ".prices");
+            this.out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.pricesOut = FileChannel.open(pricesFile,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.READ);
+            out.position(HEADER_BYTES);
+        }
+
+        /**
+         * @throws IllegalArgumentException If the tick is older than the previous one.
+         */
+        void add(long timestamp, double price) throws IOException {
+            if (count > 0 && timestamp < last) {
+                throw new IllegalArgumentException("Ticks must be added in timestamp order");
+            }
+            if (!timestampBuffer.hasRemaining()) {
+                drain(timestampBuffer, out);
+                drain(priceBuffer, pricesOut);
+            }
+            timestampBuffer.putLong(timestamp);
+            priceBuffer.putDouble(price);
+            if (count == 0) {
+                first = timestamp;
+            }
+            last = timestamp;
+            low = Math.min(low, price);
+            high = Math.max(high, price);
+            count++;
+        }
+
+        /**
+         * Completes the file: appends the price column and writes the header last, so a file that
+         * was cut short never carries a valid header.
+         */
+        @Override
+        public void close() throws IOException {
+            try (out; pricesOut) {
+                drain(timestampBuffer, out);
+                drain(priceBuffer, pricesOut);
+                long size = pricesOut.size();
+                for (long transferred = 0; transferred < size; ) {
+                    transferred += pricesOut.transferTo(transferred, size - transferred, out);
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(count)
+                        .putLong(first)
+                        .putLong(last)
+                        .putDouble(count == 0 ? 0 : low)
+                        .putDouble(count == 0 ? 0 : high);
+                header.clear();
+                for (int written = 0; written < HEADER_BYTES; ) {
+                    written += out.write(header, written);
+                }
+                out.force(true);
+            } finally {
+                Files.deleteIfExists(pricesFile);
+            }
+        }
+
+        long count() {
+            return count;
+        }
+
+        Path file() {
+            return file;
+        }
+
+        private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
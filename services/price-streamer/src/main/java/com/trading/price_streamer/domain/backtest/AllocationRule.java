@@ -0,0 +1,16 @@
+package com.trading.price_streamer.domain.backtest;
+
+/**
+ * How much of a portfolio backtest's shared cash a symbol's BUY signal spends.
+ */
+public enum AllocationRule {
+    /**
+     * The cash split evenly between the symbols not held at the time, so with nothing held each
+     * symbol gets an equal share and the last one to buy gets whatever is left.
+     */
+    EQUAL_WEIGHT,
+    /**
+     * A fixed fraction of the cash at the time, whatever else is held.
+     */
+    FIXED_FRACTION
+}
@@ -0,0 +1,10 @@
+package com.trading.price_streamer.domain.backtest;
+
+/**
+ * Order in which queued backtest jobs are started; jobs of equal priority start in submission order.
+ */
+public enum BacktestJobPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -0,0 +1,382 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.strategy.Strategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs backtests in the background, off the request threads, for ranges too long to answer
+ * within one HTTP request.
+ * <p>
+ * Jobs run on {@code backtest.jobs.threads} workers of their own and wait in a queue ordered by
+ * {@link BacktestJobPriority}, then submission order. Once {@code backtest.jobs.queue-capacity}
+ * jobs are waiting, new ones are refused. While a job runs, its progress and the newest points of
+ * its equity curve are pushed to the submitting user's /user/queue/backtest-jobs, about
+ * {@code backtest.jobs.progress-updates} times per job. Jobs can be cancelled while queued or
+ * running. Finished jobs can be polled for {@code backtest.jobs.retention-ms}, then are dropped.
+ * <p>
+ * Portfolio backtests ({@link #submitPortfolio}) share the same workers, queue and limits. Their
+ * progress is the share of symbols done, and they push no equity curve.
+ * <p>
+ * Jobs live on the node they were submitted to, and progress only reaches the user's sessions on
+ * that node.
+ */
+@Service
+public class BacktestJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(BacktestJobService.class);
+
+    static final String DESTINATION = "/queue/backtest-jobs";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PortfolioBacktestService portfolioBacktestService;
+    private final int queueCapacity;
+    private final int progressUpdates;
+    private final long retentionMillis;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter cancelled;
+    private final Counter rejected;
+
+    @Autowired
+    public BacktestJobService(SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry,
+                              PortfolioBacktestService portfolioBacktestService,
+                              @Value("${backtest.jobs.threads:2}") int threads,
+                              @Value("${backtest.jobs.queue-capacity:32}") int queueCapacity,
+                              @Value("${backtest.jobs.progress-updates:100}") int progressUpdates,
+                              @Value("${backtest.jobs.retention-ms:3600000}") long retentionMillis) {
+        this.messagingTemplate = messagingTemplate;
+        this.portfolioBacktestService = portfolioBacktestService;
+        this.queueCapacity = queueCapacity;
+        this.progressUpdates = Math.max(1, progressUpdates);
+        this.retentionMillis = retentionMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Only Jobs are ever queued, and they order themselves
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "backtest-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.completed = outcomeCounter(meterRegistry, "completed");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        this.cancelled = outcomeCounter(meterRegistry, "cancelled");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        Gauge.builder("backtest.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Backtest jobs waiting for a worker").register(meterRegistry);
+        Gauge.builder("backtest.jobs.running", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Backtest jobs being run").register(meterRegistry);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("backtest.jobs")
+                .description("Backtest jobs by how they ended, or were refused")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues an SMA crossover backtest.
+     *
+     * @param owner The user the job belongs to; only they can see it and receive its progress.
+     * @param ticks Loads the ticks to run over. Called on the worker, so it may be slow.
+     * @return The job's initial state.
+     * @throws IllegalArgumentException If a period is not positive.
+     * @throws RejectedExecutionException If the queue is full.
+     */
+    public BacktestJobUpdate submitSmaCrossover(String owner, BacktestJobPriority priority, int shortPeriod, int longPeriod,
+                                                double initialBalance, Supplier<TickSource> ticks) {
+        SmaCrossoverEngine.StreamingRun run = new SmaCrossoverEngine.StreamingRun(shortPeriod, longPeriod, initialBalance);
+        return enqueue(owner, priority, job -> smaCrossover(job, ticks.get(), run));
+    }
+
+    /**
+     * Queues a portfolio backtest (see {@link PortfolioBacktestService#run}). Its result is the
+     * shared account's, and the portfolio result carries each symbol's as well.
+     *
+     * @param ticks Loads a symbol's ticks. Called on the portfolio workers, several symbols at once.
+     * @return The job's initial state.
+     * @throws IllegalArgumentException If the symbols, the fraction or the balance are invalid.
+     * @throws RejectedExecutionException If the queue is full.
+     */
+    public BacktestJobUpdate submitPortfolio(String owner, BacktestJobPriority priority, List<String> symbols,
+                                             Function<String, TickSource> ticks, Supplier<Strategy> strategies,
+                                             AllocationRule rule, double fraction, double initialBalance) {
+        portfolioBacktestService.validate(symbols, rule, fraction, initialBalance);
+        return enqueue(owner, priority, job -> {
+            int[] done = new int[1];
+            PortfolioBacktestResult result = portfolioBacktestService.run(symbols, ticks, strategies, rule, fraction,
+                    initialBalance, new PortfolioBacktestService.Progress() {
+                        @Override
+                        public void beforeSymbol() {
+                            if (job.cancelRequested) {
+                                throw new CancellationException();
+                            }
+                        }
+
+                        @Override
+                        public void afterSymbol(long symbolTicks) {
+                            synchronized (job) {
+                                done[0]++;
+                                job.progress((double) done[0] / symbols.size(), job.ticksProcessed + symbolTicks, null);
+                            }
+                            publish(job);
+                        }
+                    });
+            return new Outcome(result.getPortfolio(), result, result.getTicks());
+        });
+    }
+
+    private BacktestJobUpdate enqueue(String owner, BacktestJobPriority priority, Work work) {
+        Job job = new Job(UUID.randomUUID().toString(), owner, priority, sequence.incrementAndGet(), work);
+        // Serialized so two submissions cannot both take the last free place
+        synchronized (executor) {
+            if (executor.getQueue().size() >= queueCapacity) {
+                rejected.increment();
+                throw new RejectedExecutionException("Backtest queue is full (" + queueCapacity + " jobs waiting)");
+            }
+            jobs.put(job.id, job);
+            executor.execute(job);
+        }
+        log.info("Queued backtest job {} for {} with priority {}", job.id, owner, priority);
+        return job.snapshot(false);
+    }
+
+    /**
+     * @return The job's state with its whole equity curve so far, or null if the owner has no such
+     *         job (any more).
+     */
+    public BacktestJobUpdate get(String owner, String jobId) {
+        Job job = find(owner, jobId);
+        return job == null ? null : job.snapshot(true);
+    }
+
+    /**
+     * @return The owner's jobs, oldest first, without their equity curves.
+     */
+    public List<BacktestJobUpdate> list(String owner) {
+        return jobs.values().stream()
+                .filter(job -> job.owner.equals(owner))
+                .sorted(Comparator.comparingLong(job -> job.sequence))
+                .map(Job::summary)
+                .toList();
+    }
+
+    /**
+     * Cancels the job: a queued job never starts, a running one stops at its next tick.
+     *
+     * @return The job's state, or null if the owner has no such job.
+     */
+    public BacktestJobUpdate cancel(String owner, String jobId) {
+        Job job = find(owner, jobId);
+        if (job == null) {
+            return null;
+        }
+        job.cancelRequested = true;
+        if (executor.remove(job)) {
+            finish(job, BacktestJobStatus.CANCELLED, null, null);
+        }
+        return job.snapshot(true);
+    }
+
+    /**
+     * Drops finished jobs older than the retention time.
+     */
+    @Scheduled(fixedDelayString = "${backtest.jobs.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.finishedAt != 0 && job.finishedAt < cutoff);
+    }
+
+    int size() {
+        return jobs.size();
+    }
+
+    private Job find(String owner, String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null && job.owner.equals(owner) ? job : null;
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status != BacktestJobStatus.QUEUED) {
+                return;
+            }
+            job.status = BacktestJobStatus.RUNNING;
+        }
+        publish(job);
+        long startedAt = System.currentTimeMillis();
+        try {
+            if (job.cancelRequested) {
+                throw new CancellationException();
+            }
+            Outcome outcome = job.work.run(job);
+            finish(job, BacktestJobStatus.COMPLETED, outcome, null);
+            log.info("Backtest job {} processed {} ticks in {} ms", job.id, outcome.ticks(), System.currentTimeMillis() - startedAt);
+        } catch (CancellationException e) {
+            finish(job, BacktestJobStatus.CANCELLED, null, null);
+        } catch (RuntimeException e) {
+            log.warn("Backtest job {} failed", job.id, e);
+            finish(job, BacktestJobStatus.FAILED, null, e.getMessage());
+        }
+    }
+
+    private Outcome smaCrossover(Job job, TickSource source, SmaCrossoverEngine.StreamingRun run) {
+        long total = source.count();
+        long step = Math.max(1, total / progressUpdates);
+        source.forEach((timestamp, price) -> {
+            if (job.cancelRequested) {
+                throw new CancellationException();
+            }
+            run.accept(timestamp, price);
+            long processed = run.ticks();
+            if (processed % step == 0) {
+                job.progress(Math.min(1.0, (double) processed / total), processed, new EquityPoint(timestamp, run.equity()));
+                publish(job);
+            }
+        });
+        return new Outcome(run.result(), null, run.ticks());
+    }
+
+    private void finish(Job job, BacktestJobStatus status, Outcome outcome, String error) {
+        synchronized (job) {
+            job.status = status;
+            job.error = error;
+            if (status == BacktestJobStatus.COMPLETED) {
+                job.result = outcome.result();
+                job.portfolio = outcome.portfolio();
+                job.progress = 1.0;
+                job.ticksProcessed = outcome.ticks();
+            }
+            job.finishedAt = System.currentTimeMillis();
+        }
+        switch (status) {
+            case COMPLETED -> completed.increment();
+            case CANCELLED -> cancelled.increment();
+            default -> failed.increment();
+        }
+        publish(job);
+    }
+
+    private void publish(Job job) {
+        try {
+            messagingTemplate.convertAndSendToUser(job.owner, DESTINATION, job.snapshot(false));
+        } catch (RuntimeException e) {
+            // A user without a session must not fail the job
+            log.debug("Could not push backtest job {} update: {}", job.id, e.toString());
+        }
+    }
+
+    /**
+     * What a job computes, on its worker. Throws {@link CancellationException} once the job is
+     * cancelled.
+     */
+    private interface Work {
+        Outcome run(Job job);
+    }
+
+    private record Outcome(BacktestResult result, PortfolioBacktestResult portfolio, long ticks) {
+    }
+
+    /**
+     * One job. Its state is read by the API threads and written by its worker, under its lock.
+     */
+    private final class Job implements Runnable, Comparable<Job> {
+        private final String id;
+        private final String owner;
+        private final BacktestJobPriority priority;
+        private final long sequence;
+        private final Work work;
+        private final List<EquityPoint> equity = new ArrayList<>();
+
+        private volatile boolean cancelRequested;
+        private BacktestJobStatus status = BacktestJobStatus.QUEUED;
+        private double progress;
+        private long ticksProcessed;
+        private int published; // Equity points already pushed
+        private BacktestResult result;
+        private PortfolioBacktestResult portfolio;
+        private String error;
+        private volatile long finishedAt;
+
+        Job(String id, String owner, BacktestJobPriority priority, long sequence, Work work) {
+            this.id = id;
+            this.owner = owner;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            BacktestJobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+
+        /**
+         * @param point The newest equity point, or null if the job has no equity curve.
+         */
+        synchronized void progress(double progress, long ticksProcessed, EquityPoint point) {
+            this.progress = progress;
+            this.ticksProcessed = ticksProcessed;
+            if (point != null) {
+                equity.add(point);
+            }
+        }
+
+        synchronized BacktestJobUpdate summary() {
+            return new BacktestJobUpdate(id, status, priority, progress, ticksProcessed, List.of(), result, portfolio, error);
+        }
+
+        /**
+         * @param wholeCurve Whether to include every equity point, rather than those not pushed yet.
+         */
+        synchronized BacktestJobUpdate snapshot(boolean wholeCurve) {
+            List<EquityPoint> points = List.copyOf(equity.subList(wholeCurve ? 0 : published, equity.size()));
+            if (!wholeCurve) {
+                published = equity.size();
+            }
+            return new BacktestJobUpdate(id, status, priority, progress, ticksProcessed, points, result, portfolio, error);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.trading.price_streamer.domain.backtest;
+
+import java.util.List;
+
+/**
+ * The state of a backtest job, as returned by the job API and pushed to the submitting user's
+ * /user/queue/backtest-jobs.
+ *
+ * @param progress The share of the job's ticks processed so far, from 0 to 1.
+ * @param equity Sampled points of the equity curve: the whole curve so far when polled, only the
+ *               points since the previous message when pushed.
+ * @param result Set once the job has completed; for a portfolio job, the shared account's.
+ * @param portfolio Set once a portfolio job has completed.
+ * @param error Why the job failed, if it did.
+ */
+public record BacktestJobUpdate(String jobId, BacktestJobStatus status, BacktestJobPriority priority,
+                                double progress, long ticksProcessed, List<EquityPoint> equity,
+                                BacktestResult result, PortfolioBacktestResult portfolio, String error) {
+}
@@ -0,0 +1,134 @@
+package com.trading.price_streamer.domain.backtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Keeps the final state of recent backtests, so running the same backtest again only processes
+ * the ticks that arrived since.
+ * <p>
+ * Entries are keyed by symbol, strategy, parameters and the window's start (and its end, for a
+ * window that does not run up to now), and hold the strategy's running state (SMA sums and rings,
+ * position, cash) together with its watermark: the newest tick timestamp it includes. A repeat
+ * request resumes a copy of that state with the ticks from the watermark on, skipping the ones at
+ * the watermark it has already counted, and the result is identical to a full run as long as
+ * ticks are not stored out of order. Ticks are only ever added after the watermark for a given
+ * key, so a window whose start moves (such as "the last 24h") has to be given a stable start by
+ * the caller.
+ * <p>
+ * At most {@code backtest.cache.max-entries} states are kept, least recently used first out.
+ * Exposes {@code cache.gets{cache=backtest,result=hit|extend|miss}}, {@code cache.size} and
+ * {@code cache.evictions}.
+ */
+@Component
+public class BacktestResultCache {
+
+    /**
+     * The end of a window that runs up to the newest tick.
+     */
+    public static final long OPEN_ENDED = Long.MAX_VALUE;
+
+    private static final String CACHE_NAME = "backtest";
+    private static final String SMA_CROSSOVER = "sma-crossover";
+
+    private final int maxEntries;
+    private final Map<Key, SmaCrossoverEngine.StreamingRun> states;
+
+    private final Counter hits;
+    private final Counter extensions;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public BacktestResultCache(@Value("${backtest.cache.max-entries:256}") int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .description("Backtest states dropped as least recently used").register(meterRegistry);
+        // Access order makes the eldest entry the least recently used one
+        this.states = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SmaCrossoverEngine.StreamingRun> eldest) {
+                if (size() > BacktestResultCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Backtests answered from a cached state without new ticks").register(meterRegistry);
+        this.extensions = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "extend")
+                .description("Backtests resumed from a cached state with the ticks since its watermark").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Backtests run over their whole window").register(meterRegistry);
+        Gauge.builder("cache.size", this, BacktestResultCache::size).tag("cache", CACHE_NAME)
+                .description("Backtest states currently cached").register(meterRegistry);
+    }
+
+    /**
+     * Runs the SMA crossover strategy over the window, resuming a cached run of it if there is one.
+     *
+     * @param start The window's first millisecond; must be the same for every request of the window.
+     * @param end The window's last millisecond, or {@link #OPEN_ENDED}.
+     * @param ticksFrom Gives the symbol's ticks in the window from the given timestamp (inclusive) on.
+     * @throws IllegalArgumentException If a period is not positive.
+     */
+    public BacktestResult smaCrossover(String symbol, long start, long end, int shortPeriod, int longPeriod,
+                                       double initialBalance, LongFunction<TickSource> ticksFrom) {
+        Key key = new Key(symbol, SMA_CROSSOVER, shortPeriod, longPeriod, initialBalance, start, end);
+        SmaCrossoverEngine.StreamingRun cached = get(key);
+        if (cached == null) {
+            misses.increment();
+            SmaCrossoverEngine.StreamingRun run = new SmaCrossoverEngine.StreamingRun(shortPeriod, longPeriod, initialBalance);
+            ticksFrom.apply(start).forEach(run);
+            put(key, run);
+            return run.result();
+        }
+
+        // Cached states are never changed, so concurrent requests can each resume their own copy
+        SmaCrossoverEngine.StreamingRun run = cached.copy();
+        long watermark = cached.watermark();
+        int[] skip = {cached.ticksAtWatermark()};
+        ticksFrom.apply(cached.ticks() == 0 ? start : watermark).forEach((timestamp, price) -> {
+            if (timestamp < watermark || (timestamp == watermark && skip[0]-- > 0)) {
+                return;
+            }
+            run.accept(timestamp, price);
+        });
+        if (run.ticks() == cached.ticks()) {
+            hits.increment();
+            return cached.result();
+        }
+        extensions.increment();
+        put(key, run);
+        return run.result();
+    }
+
+    synchronized int size() {
+        return states.size();
+    }
+
+    private synchronized SmaCrossoverEngine.StreamingRun get(Key key) {
+        return states.get(key);
+    }
+
+    // A slower request must not replace a state that already got further
+    private synchronized void put(Key key, SmaCrossoverEngine.StreamingRun run) {
+        SmaCrossoverEngine.StreamingRun current = states.get(key);
+        if (current == null || current.ticks() <= run.ticks()) {
+            states.put(key, run);
+        }
+    }
+
+    private record Key(String symbol, String strategy, int shortPeriod, int longPeriod, double initialBalance,
+                       long start, long end) {
+    }
+}
@@ -2,10 +2,9 @@ package com.trading.price_streamer.domain.backtest;
 
 import com.trading.price_streamer.domain.common.Signal;
 import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.strategy.Strategy;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -89,57 +88,50 @@ public class BacktestingService {
      */
 
     public BacktestResult runSmaCrossoverBacktest(List<PriceTickEntity> priceTicks, int shortPeriod, int longPeriod, double initialBalance) {
-        if (priceTicks.size() < longPeriod) {
-            return new BacktestResult("SMA Crossover", BigDecimal.valueOf(initialBalance), BigDecimal.valueOf(initialBalance), BigDecimal.ZERO, 0, 0);
-        }
-
-        List<Signal> signals = generateSmaCrossoverSignals(priceTicks, shortPeriod, longPeriod);
-        BigDecimal cash = BigDecimal.valueOf(initialBalance);
-        BigDecimal btcHoldings = BigDecimal.ZERO;
-        int trades = 0;
-        boolean isHolding = false; // Are we currently holding BTC?
-
-        // We start iterating from longPeriod since signals are not reliable before that
-        for (int i = longPeriod; i < priceTicks.size(); i++) {
-            Signal currentSignal = signals.get(i - 1); // Align signal with the correct tick
-            double currentPrice = priceTicks.get(i).getPrice();
-
-            if (Signal.BUY == currentSignal && !isHolding) {
-                // Buy with all available cash
-                btcHoldings = cash.divide(BigDecimal.valueOf(currentPrice), 8, RoundingMode.DOWN);
-                cash = BigDecimal.ZERO;
-                isHolding = true;
-                trades++;
-                System.out.println("EXECUTED BUY @ " + currentPrice);
-            } else if (Signal.SELL == currentSignal && isHolding) {
-                // Sell all holdings
-                cash = btcHoldings.multiply(BigDecimal.valueOf(currentPrice));
-                btcHoldings = BigDecimal.ZERO;
-                isHolding = false;
-                trades++;
-                System.out.println("EXECUTED SELL @ " + currentPrice);
-            }
-        }
-
-        // At the end of the simulation, calculate the final portfolio value
-        BigDecimal finalBalance = cash;
-        if (isHolding) {
-            double lastPrice = priceTicks.get(priceTicks.size() - 1).getPrice();
-            finalBalance = btcHoldings.multiply(BigDecimal.valueOf(lastPrice));
-        }
-
-        BigDecimal pnl = finalBalance.subtract(BigDecimal.valueOf(initialBalance));
-        double pnlPercentage = pnl.divide(BigDecimal.valueOf(initialBalance), 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue();
+        return runSmaCrossoverBacktest(PriceSeries.fromEntities(priceTicks), shortPeriod, longPeriod, initialBalance);
+    }
 
-        return new BacktestResult(
-                "SMA Crossover (" + shortPeriod + ", " + longPeriod + ")",
-                BigDecimal.valueOf(initialBalance),
-                finalBalance.setScale(2, RoundingMode.HALF_UP),
-                pnl.setScale(2, RoundingMode.HALF_UP),
-                pnlPercentage,
-                trades
-        );
+    /**
+     * Runs the SMA Crossover simulation directly on columnar price data, in a single
+     * allocation-free pass (see {@link SmaCrossoverEngine}).
+     *
+     * @param series The historical data in columnar form.
+     * @param shortPeriod The short SMA period.
+     * @param longPeriod The long SMA period.
+     * @param initialBalance The starting cash balance.
+     * @return A BacktestResult object with the performance summary.
+     */
+    public BacktestResult runSmaCrossoverBacktest(PriceSeries series, int shortPeriod, int longPeriod, double initialBalance) {
+        return SmaCrossoverEngine.run(series, shortPeriod, longPeriod, initialBalance);
     }
 
+    /**
+     * Runs the SMA Crossover simulation while streaming the prices from any source, such as the
+     * tick archive, so the data never has to be loaded as a whole.
+     *
+     * @param source The historical data, in timestamp order.
+     * @param shortPeriod The short SMA period.
+     * @param longPeriod The long SMA period.
+     * @param initialBalance The starting cash balance.
+     * @return A BacktestResult object with the performance summary.
+     */
+    public BacktestResult runSmaCrossoverBacktest(TickSource source, int shortPeriod, int longPeriod, double initialBalance) {
+        return SmaCrossoverEngine.run(source, shortPeriod, longPeriod, initialBalance);
+    }
 
-    }
\ No newline at end of file
+    /**
+     * Runs any strategy over the prices, trading the same all-in/all-out account as the SMA
+     * Crossover simulation. A {@code CrossoverStrategy.sma} gives the same result as
+     * {@link #runSmaCrossoverBacktest(TickSource, int, int, double)} once there is enough data.
+     *
+     * @param source The historical data, in timestamp order.
+     * @param strategy A fresh strategy instance; it is fed every tick.
+     * @param initialBalance The starting cash balance.
+     * @return A BacktestResult object with the performance summary.
+     */
+    public BacktestResult runStrategyBacktest(TickSource source, Strategy strategy, double initialBalance) {
+        StrategyRun run = new StrategyRun(strategy, initialBalance);
+        source.forEach(run);
+        return run.result();
+    }
+}
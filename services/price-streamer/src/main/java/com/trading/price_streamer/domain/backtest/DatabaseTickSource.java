@@ -0,0 +1,48 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.PriceTickRepository;
+import com.trading.price_streamer.domain.common.PriceTickRow;
+import com.trading.price_streamer.domain.common.TickConsumer;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * A symbol's ticks in [start, end] read from price_ticks through a database cursor as they are
+ * visited, so the range is never loaded as a whole.
+ */
+public class DatabaseTickSource implements TickSource {
+
+    private final PriceTickRepository priceTickRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String symbol;
+    private final Instant start;
+    private final Instant end;
+
+    /**
+     * @param readOnlyTransaction Wraps each scan, since the cursor only lives as long as its transaction.
+     */
+    public DatabaseTickSource(PriceTickRepository priceTickRepository, TransactionTemplate readOnlyTransaction,
+                              String symbol, Instant start, Instant end) {
+        this.priceTickRepository = priceTickRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.symbol = symbol;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public long count() {
+        return priceTickRepository.countBySymbolAndTimestampBetween(symbol, start, end);
+    }
+
+    @Override
+    public void forEach(TickConsumer consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PriceTickRow> rows = priceTickRepository.streamBySymbolAndTimestampBetween(symbol, start, end)) {
+                rows.forEach(row -> consumer.accept(row.timestamp().toEpochMilli(), row.price()));
+            }
+        });
+    }
+}
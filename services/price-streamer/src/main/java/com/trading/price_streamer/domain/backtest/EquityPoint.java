@@ -0,0 +1,9 @@
+package com.trading.price_streamer.domain.backtest;
+
+/**
+ * What a backtest's account was worth at one point of its run.
+ *
+ * @param timestamp The epoch millisecond of the tick the value was taken at.
+ */
+public record EquityPoint(long timestamp, double equity) {
+}
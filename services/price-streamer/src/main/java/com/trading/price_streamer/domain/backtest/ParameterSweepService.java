@@ -0,0 +1,146 @@
+package com.trading.price_streamer.domain.backtest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Evaluates the SMA crossover strategy over a grid of (shortPeriod, longPeriod) pairs.
+ * <p>
+ * The price data is loaded once by the caller and its prefix sums are computed once, so every
+ * SMA length costs O(1) per point. Grid points run in parallel on a dedicated ForkJoinPool,
+ * leaving the common pool and the request threads alone.
+ */
+@Service
+public class ParameterSweepService {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final Comparator<BacktestResult> BEST_FIRST = Comparator
+            .comparingDouble(BacktestResult::getProfitPercentage)
+            .thenComparing(BacktestResult::getFinalBalance)
+            .reversed();
+
+    // 0 means one worker per available core
+    @Value("${backtest.sweep.parallelism:0}")
+    private int parallelism;
+
+    @Value("${backtest.sweep.max-grid-size:10000}")
+    private int maxGridSize;
+
+    // Total CPU time all workers may spend on one request
+    @Value("${backtest.sweep.cpu-budget-ms:30000}")
+    private long cpuBudgetMs;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Runs every combination with shortPeriod &lt; longPeriod and returns the best ones.
+     *
+     * @param series The price data, shared read-only by all workers.
+     * @param top How many of the best results to return.
+     * @return The ranked results, plus how much of the grid fit in the CPU budget.
+     * @throws IllegalArgumentException If a range is invalid or the grid exceeds {@code backtest.sweep.max-grid-size}.
+     */
+    public SweepResult sweep(PriceSeries series,
+                             int shortMin, int shortMax, int shortStep,
+                             int longMin, int longMax, int longStep,
+                             double initialBalance, int top) {
+        if (shortMin < 1 || longMin < 1 || shortStep < 1 || longStep < 1 || shortMax < shortMin || longMax < longMin) {
+            throw new IllegalArgumentException("Periods and steps must be positive and each max must be >= its min");
+        }
+
+        // Count first, so a huge request is rejected before anything is allocated
+        long longCount = (longMax - longMin) / longStep + 1;
+        long gridSize = 0;
+        for (long s = shortMin; s <= shortMax && s < longMax && gridSize <= maxGridSize; s += shortStep) {
+            long notAboveShort = s < longMin ? 0 : Math.min(longCount, (s - longMin) / longStep + 1);
+            gridSize += longCount - notAboveShort;
+        }
+        if (gridSize > maxGridSize) {
+            throw new IllegalArgumentException("Grid of " + gridSize + " combinations exceeds the limit of " + maxGridSize);
+        }
+
+        int[] shortPeriods = new int[(int) gridSize];
+        int[] longPeriods = new int[(int) gridSize];
+        int k = 0;
+        // long like the counting loop above, so stepping past a max near Integer.MAX_VALUE cannot wrap
+        for (long s = shortMin; s <= shortMax && s < longMax; s += shortStep) {
+            for (long l = longMin; l <= longMax; l += longStep) {
+                if (s < l) {
+                    shortPeriods[k] = (int) s;
+                    longPeriods[k] = (int) l;
+                    k++;
+                }
+            }
+        }
+
+        double[] prefixSums = SmaCrossoverEngine.prefixSums(series);
+        BacktestResult[] results = new BacktestResult[k];
+        long budgetNanos = cpuBudgetMs * 1_000_000L;
+        LongAdder cpuNanos = new LongAdder();
+        AtomicBoolean budgetExceeded = new AtomicBoolean();
+
+        try {
+            pool.submit(() -> IntStream.range(0, results.length).parallel().forEach(i -> {
+                if (budgetExceeded.get()) {
+                    return;
+                }
+                long startCpu = cpuTime();
+                results[i] = SmaCrossoverEngine.run(series, prefixSums, shortPeriods[i], longPeriods[i], initialBalance);
+                cpuNanos.add(cpuTime() - startCpu);
+                if (cpuNanos.sum() > budgetNanos) {
+                    budgetExceeded.set(true);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parameter sweep was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parameter sweep failed", e.getCause());
+        }
+
+        List<BacktestResult> ranked = new ArrayList<>(results.length);
+        for (BacktestResult result : results) {
+            if (result != null) {
+                ranked.add(result);
+            }
+        }
+        int evaluated = ranked.size();
+        ranked.sort(BEST_FIRST);
+
+        return new SweepResult(
+                results.length,
+                evaluated,
+                budgetExceeded.get(),
+                cpuNanos.sum() / 1_000_000L,
+                new ArrayList<>(ranked.subList(0, Math.min(Math.max(top, 0), evaluated)))
+        );
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,80 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.Signal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The all-in/all-out account every simulation trades: a BUY spends all cash, a SELL sells all
+ * holdings. Only does BigDecimal work when a trade executes.
+ */
+final class Portfolio {
+    private final double initialBalance;
+    private BigDecimal cash;
+    private BigDecimal holdings = BigDecimal.ZERO;
+    private boolean isHolding;
+    private int trades;
+
+    Portfolio(double initialBalance) {
+        this.initialBalance = initialBalance;
+        this.cash = BigDecimal.valueOf(initialBalance);
+    }
+
+    Portfolio(Portfolio other) {
+        this.initialBalance = other.initialBalance;
+        this.cash = other.cash;
+        this.holdings = other.holdings;
+        this.isHolding = other.isHolding;
+        this.trades = other.trades;
+    }
+
+    static BacktestResult notEnoughData(String strategy, double initialBalance) {
+        return new BacktestResult(strategy, BigDecimal.valueOf(initialBalance), BigDecimal.valueOf(initialBalance), BigDecimal.ZERO, 0, 0);
+    }
+
+    void onSmas(double shortSma, double longSma, double prevShort, double prevLong, double price) {
+        if (shortSma > longSma && prevShort <= prevLong) {
+            onSignal(Signal.BUY, price);
+        } else if (shortSma < longSma && prevShort >= prevLong) {
+            onSignal(Signal.SELL, price);
+        }
+    }
+
+    void onSignal(Signal signal, double price) {
+        if (signal == Signal.BUY && !isHolding) {
+            // Buy with all available cash
+            holdings = cash.divide(BigDecimal.valueOf(price), 8, RoundingMode.DOWN);
+            cash = BigDecimal.ZERO;
+            isHolding = true;
+            trades++;
+        } else if (signal == Signal.SELL && isHolding) {
+            // Sell all holdings
+            cash = holdings.multiply(BigDecimal.valueOf(price));
+            holdings = BigDecimal.ZERO;
+            isHolding = false;
+            trades++;
+        }
+    }
+
+    double value(double price) {
+        return isHolding ? holdings.doubleValue() * price : cash.doubleValue();
+    }
+
+    BacktestResult result(String strategy, double lastPrice) {
+        // At the end of the simulation, calculate the final portfolio value
+        BigDecimal finalBalance = isHolding ? holdings.multiply(BigDecimal.valueOf(lastPrice)) : cash;
+
+        BigDecimal pnl = finalBalance.subtract(BigDecimal.valueOf(initialBalance));
+        double pnlPercentage = pnl.divide(BigDecimal.valueOf(initialBalance), 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue();
+
+        return new BacktestResult(
+                strategy,
+                BigDecimal.valueOf(initialBalance),
+                finalBalance.setScale(2, RoundingMode.HALF_UP),
+                pnl.setScale(2, RoundingMode.HALF_UP),
+                pnlPercentage,
+                trades
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.trading.price_streamer.domain.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioBacktestResult {
+    private BacktestResult portfolio;           // The shared account: cash plus every open position
+    private Map<String, BacktestResult> symbols; // In request order; balances are what each symbol invested and returned
+    private long ticks;                         // Across all symbols
+}
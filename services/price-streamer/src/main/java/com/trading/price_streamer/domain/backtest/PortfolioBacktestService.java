@@ -0,0 +1,351 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.Signal;
+import com.trading.price_streamer.domain.common.TickConsumer;
+import com.trading.price_streamer.domain.strategy.Strategy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Backtests one strategy over many symbols trading from one shared account.
+ * <p>
+ * Runs in two phases. First every symbol, in parallel on a dedicated ForkJoinPool, loads its
+ * ticks and runs its own instance of the strategy over them, keeping only the BUY and SELL
+ * signals (and its last price); the ticks are dropped as soon as the symbol is done, so at most
+ * one symbol's data per worker is held at a time. Then the signals of all symbols are merged in
+ * timestamp order and traded against the shared cash, sized by an {@link AllocationRule}. Signals
+ * are rare next to ticks, so the sequential merge is cheap and the run scales with cores.
+ * <p>
+ * Symbols loading from the database each hold a connection while they load, so at most
+ * {@code backtest.portfolio.max-concurrent-loads} load at once, always fewer than the connection
+ * pool holds; the other workers wait or run symbols already loaded.
+ * <p>
+ * Runs are submitted as jobs through {@link BacktestJobService#submitPortfolio}, which queues them
+ * like every other long backtest and reports their progress per symbol.
+ * <p>
+ * Trades use the same BigDecimal rounding as the single-symbol backtests: one symbol with
+ * {@link AllocationRule#FIXED_FRACTION} 1 ends with the same balance as
+ * {@link BacktestingService#runStrategyBacktest}.
+ */
+@Service
+public class PortfolioBacktestService {
+
+    private final int maxSymbols;
+    private final ForkJoinPool pool;
+    private final Semaphore loads;
+
+    /**
+     * Called on the workers as symbols start and finish. Either method may throw to stop the run,
+     * which then throws the same exception.
+     */
+    public interface Progress {
+        Progress NONE = new Progress() {
+        };
+
+        default void beforeSymbol() {
+        }
+
+        /**
+         * @param ticks The ticks the symbol that just finished ran over.
+         */
+        default void afterSymbol(long ticks) {
+        }
+    }
+
+    /**
+     * @param parallelism        Workers for the per-symbol phase, 0 for one per available core.
+     * @param maxConcurrentLoads Symbols loading at once, 0 for half the database pool. Always kept
+     *                           below {@code databasePoolSize}.
+     */
+    @Autowired
+    public PortfolioBacktestService(@Value("${backtest.portfolio.parallelism:0}") int parallelism,
+                                    @Value("${backtest.portfolio.max-symbols:500}") int maxSymbols,
+                                    @Value("${backtest.portfolio.max-concurrent-loads:0}") int maxConcurrentLoads,
+                                    @Value("${spring.datasource.hikari.maximum-pool-size:10}") int databasePoolSize) {
+        this.maxSymbols = maxSymbols;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        int permits = maxConcurrentLoads > 0 ? maxConcurrentLoads : databasePoolSize / 2;
+        this.loads = new Semaphore(Math.max(1, Math.min(permits, databasePoolSize - 1)), true);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    public PortfolioBacktestResult run(List<String> symbols, Function<String, TickSource> ticks, Supplier<Strategy> strategies,
+                                       AllocationRule rule, double fraction, double initialBalance) {
+        return run(symbols, ticks, strategies, rule, fraction, initialBalance, Progress.NONE);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the symbols, the fraction or the balance are invalid.
+     */
+    public void validate(List<String> symbols, AllocationRule rule, double fraction, double initialBalance) {
+        if (symbols.isEmpty() || symbols.size() > maxSymbols) {
+            throw new IllegalArgumentException("Need between 1 and " + maxSymbols + " symbols");
+        }
+        if (new HashSet<>(symbols).size() != symbols.size()) {
+            throw new IllegalArgumentException("Symbols must not repeat");
+        }
+        if (rule == AllocationRule.FIXED_FRACTION && !(fraction > 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("fraction must be in (0, 1]");
+        }
+        if (!(initialBalance > 0)) {
+            throw new IllegalArgumentException("initialBalance must be positive");
+        }
+    }
+
+    /**
+     * @param symbols    Distinct symbols, at most {@code backtest.portfolio.max-symbols}.
+     * @param ticks      Loads a symbol's ticks. Called on the workers, several symbols at once.
+     * @param strategies Makes a fresh strategy instance, one per symbol.
+     * @param fraction   The share of cash each BUY spends under {@link AllocationRule#FIXED_FRACTION}.
+     * @throws IllegalArgumentException If the symbols or the fraction are invalid.
+     */
+    public PortfolioBacktestResult run(List<String> symbols, Function<String, TickSource> ticks, Supplier<Strategy> strategies,
+                                       AllocationRule rule, double fraction, double initialBalance, Progress progress) {
+        validate(symbols, rule, fraction, initialBalance);
+
+        // 1. Each symbol's signals, in parallel
+        SymbolSignals[] signals = new SymbolSignals[symbols.size()];
+        try {
+            pool.submit(() -> IntStream.range(0, signals.length).parallel().forEach(i -> {
+                progress.beforeSymbol();
+                SymbolSignals recorder = new SymbolSignals(strategies.get());
+                load(ticks, symbols.get(i)).forEach(recorder);
+                signals[i] = recorder;
+                progress.afterSymbol(recorder.ticks);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Portfolio backtest was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Portfolio backtest failed", e.getCause());
+        }
+
+        // 2. One time-ordered pass over all of them against the shared cash
+        String strategy = strategies.get().name();
+        SharedAccount account = new SharedAccount(signals.length, rule, fraction, initialBalance);
+        merge(signals, account);
+
+        Map<String, BacktestResult> perSymbol = new LinkedHashMap<>();
+        long totalTicks = 0;
+        for (int i = 0; i < signals.length; i++) {
+            perSymbol.put(symbols.get(i), account.symbolResult(strategy, i, signals[i].lastPrice));
+            totalTicks += signals[i].ticks;
+        }
+        String name = strategy + " over " + signals.length + " symbols (" + rule + ")";
+        return new PortfolioBacktestResult(account.result(name, signals), perSymbol, totalTicks);
+    }
+
+    // Database sources are read in full here, so the permit bounds the connections in use
+    private TickSource load(Function<String, TickSource> ticks, String symbol) {
+        loads.acquireUninterruptibly();
+        try {
+            return ticks.apply(symbol);
+        } finally {
+            loads.release();
+        }
+    }
+
+    /**
+     * Hands every recorded signal to the account, oldest first. At equal timestamps sells go
+     * before buys, so cash freed by one symbol can be spent by another in the same millisecond,
+     * and otherwise symbols go in request order.
+     */
+    private static void merge(SymbolSignals[] signals, SharedAccount account) {
+        int[] next = new int[signals.length];
+        PriorityQueue<Integer> heads = new PriorityQueue<>((a, b) -> {
+            int byTime = Long.compare(signals[a].timestamps[next[a]], signals[b].timestamps[next[b]]);
+            if (byTime != 0) {
+                return byTime;
+            }
+            int bySide = Boolean.compare(signals[a].buys[next[a]], signals[b].buys[next[b]]);
+            return bySide != 0 ? bySide : Integer.compare(a, b);
+        });
+        for (int i = 0; i < signals.length; i++) {
+            if (signals[i].size > 0) {
+                heads.add(i);
+            }
+        }
+        while (!heads.isEmpty()) {
+            int i = heads.poll();
+            SymbolSignals symbol = signals[i];
+            int k = next[i];
+            if (symbol.buys[k]) {
+                account.buy(i, symbol.prices[k]);
+            } else {
+                account.sell(i, symbol.prices[k]);
+            }
+            // Only re-queued after advancing, so the heap never sees its key change
+            if (++next[i] < symbol.size) {
+                heads.add(i);
+            }
+        }
+    }
+
+    /**
+     * Runs one symbol's strategy and keeps its BUY and SELL signals in primitive columns.
+     */
+    private static final class SymbolSignals implements TickConsumer {
+        private final Strategy strategy;
+        private long[] timestamps = new long[16];
+        private double[] prices = new double[16];
+        private boolean[] buys = new boolean[16];
+        private int size;
+        private long ticks;
+        private double lastPrice;
+
+        SymbolSignals(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void accept(long timestamp, double price) {
+            Signal signal = strategy.onTick(timestamp, price);
+            if (signal != Signal.HOLD) {
+                if (size == timestamps.length) {
+                    timestamps = Arrays.copyOf(timestamps, size * 2);
+                    prices = Arrays.copyOf(prices, size * 2);
+                    buys = Arrays.copyOf(buys, size * 2);
+                }
+                timestamps[size] = timestamp;
+                prices[size] = price;
+                buys[size] = signal == Signal.BUY;
+                size++;
+            }
+            lastPrice = price;
+            ticks++;
+        }
+    }
+
+    /**
+     * The shared cash and each symbol's position. Like {@link Portfolio}, a symbol buys only when
+     * flat and sells its whole position, and BigDecimal work happens only on trades.
+     */
+    private static final class SharedAccount {
+        private final AllocationRule rule;
+        private final BigDecimal fraction;
+        private final double initialBalance;
+        private BigDecimal cash;
+        private final BigDecimal[] holdings;
+        private final BigDecimal[] invested;
+        private final BigDecimal[] returned;
+        private final int[] trades;
+        private int held;
+
+        SharedAccount(int symbols, AllocationRule rule, double fraction, double initialBalance) {
+            this.rule = rule;
+            this.fraction = BigDecimal.valueOf(fraction);
+            this.initialBalance = initialBalance;
+            this.cash = BigDecimal.valueOf(initialBalance);
+            this.holdings = new BigDecimal[symbols];
+            this.invested = new BigDecimal[symbols];
+            this.returned = new BigDecimal[symbols];
+            Arrays.fill(invested, BigDecimal.ZERO);
+            Arrays.fill(returned, BigDecimal.ZERO);
+            this.trades = new int[symbols];
+        }
+
+        void buy(int symbol, double price) {
+            if (holdings[symbol] != null) {
+                return;
+            }
+            BigDecimal budget = budget();
+            BigDecimal quantity = budget.divide(BigDecimal.valueOf(price), 8, RoundingMode.DOWN);
+            if (quantity.signum() <= 0) {
+                // Not enough cash left for this symbol to buy anything
+                return;
+            }
+            cash = cash.subtract(budget);
+            holdings[symbol] = quantity;
+            invested[symbol] = invested[symbol].add(budget);
+            held++;
+            trades[symbol]++;
+        }
+
+        void sell(int symbol, double price) {
+            if (holdings[symbol] == null) {
+                return;
+            }
+            BigDecimal proceeds = holdings[symbol].multiply(BigDecimal.valueOf(price));
+            cash = cash.add(proceeds);
+            returned[symbol] = returned[symbol].add(proceeds);
+            holdings[symbol] = null;
+            held--;
+            trades[symbol]++;
+        }
+
+        // All of the cash when it is all this symbol's share, so nothing is lost to rounding
+        private BigDecimal budget() {
+            if (rule == AllocationRule.EQUAL_WEIGHT) {
+                int flat = holdings.length - held;
+                return flat == 1 ? cash : cash.divide(BigDecimal.valueOf(flat), 8, RoundingMode.DOWN);
+            }
+            return fraction.compareTo(BigDecimal.ONE) == 0 ? cash : cash.multiply(fraction).setScale(8, RoundingMode.DOWN);
+        }
+
+        private BigDecimal openValue(int symbol, double lastPrice) {
+            return holdings[symbol] == null ? BigDecimal.ZERO : holdings[symbol].multiply(BigDecimal.valueOf(lastPrice));
+        }
+
+        /**
+         * @return What the symbol invested over the run as its initial balance, and what it
+         *         returned (its sales plus its open position) as its final balance.
+         */
+        BacktestResult symbolResult(String strategy, int symbol, double lastPrice) {
+            BigDecimal finalBalance = returned[symbol].add(openValue(symbol, lastPrice));
+            BigDecimal pnl = finalBalance.subtract(invested[symbol]);
+            double pnlPercentage = invested[symbol].signum() == 0 ? 0
+                    : pnl.divide(invested[symbol], 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue();
+            return new BacktestResult(
+                    strategy,
+                    invested[symbol].setScale(2, RoundingMode.HALF_UP),
+                    finalBalance.setScale(2, RoundingMode.HALF_UP),
+                    pnl.setScale(2, RoundingMode.HALF_UP),
+                    pnlPercentage,
+                    trades[symbol]
+            );
+        }
+
+        BacktestResult result(String strategy, SymbolSignals[] signals) {
+            BigDecimal finalBalance = cash;
+            int totalTrades = 0;
+            for (int i = 0; i < signals.length; i++) {
+                finalBalance = finalBalance.add(openValue(i, signals[i].lastPrice));
+                totalTrades += trades[i];
+            }
+            BigDecimal pnl = finalBalance.subtract(BigDecimal.valueOf(initialBalance));
+            double pnlPercentage = pnl.divide(BigDecimal.valueOf(initialBalance), 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue();
+            return new BacktestResult(
+                    strategy,
+                    BigDecimal.valueOf(initialBalance),
+                    finalBalance.setScale(2, RoundingMode.HALF_UP),
+                    pnl.setScale(2, RoundingMode.HALF_UP),
+                    pnlPercentage,
+                    totalTrades
+            );
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.common.TickConsumer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A symbol's price history in columnar form: parallel primitive arrays of prices and
+ * epoch-millisecond timestamps, oldest first. Only the first {@link #size()} entries are valid.
+ */
+public final class PriceSeries implements TickSource {
+
+    private final double[] prices;
+    private final long[] timestamps;
+    private final int size;
+
+    public PriceSeries(double[] prices, long[] timestamps, int size) {
+        this.prices = prices;
+        this.timestamps = timestamps;
+        this.size = size;
+    }
+
+    /**
+     * Copies a list of entities into columns, once, so the backtest loop never touches them.
+     */
+    public static PriceSeries fromEntities(List<PriceTickEntity> priceTicks) {
+        int size = priceTicks.size();
+        double[] prices = new double[size];
+        long[] timestamps = new long[size];
+        for (int i = 0; i < size; i++) {
+            PriceTickEntity tick = priceTicks.get(i);
+            prices[i] = tick.getPrice();
+            timestamps[i] = tick.getTimestamp().toEpochMilli();
+        }
+        return new PriceSeries(prices, timestamps, size);
+    }
+
+    /**
+     * @return A builder for series whose length is not known up front, such as database results.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long count() {
+        return size;
+    }
+
+    @Override
+    public void forEach(TickConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(timestamps[i], prices[i]);
+        }
+    }
+
+    public double price(int i) {
+        return prices[i];
+    }
+
+    public long timestamp(int i) {
+        return timestamps[i];
+    }
+
+    /**
+     * @return The backing price column; read-only by convention.
+     */
+    public double[] prices() {
+        return prices;
+    }
+
+    /**
+     * @return The backing timestamp column; read-only by convention.
+     */
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Appends ticks, oldest first, into columns that double in size as they fill.
+     */
+    public static final class Builder {
+        private double[] prices = new double[1024];
+        private long[] timestamps = new long[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(long timestamp, double price) {
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+            }
+            prices[size] = price;
+            timestamps[size] = timestamp;
+            size++;
+            return this;
+        }
+
+        public Builder addAll(PriceSeries series) {
+            for (int i = 0; i < series.size(); i++) {
+                add(series.timestamp(i), series.price(i));
+            }
+            return this;
+        }
+
+        public PriceSeries build() {
+            return new PriceSeries(prices, timestamps, size);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.TickConsumer;
+
+/**
+ * Single-pass SMA crossover simulation over a {@link PriceSeries}.
+ * <p>
+ * Both moving averages, the crossover signal and the position are advanced together in one
+ * loop over the price column with no per-tick allocation. The averages use exactly the same
+ * floating-point operations as {@link BacktestingService#calculateSMA}, and a crossover is
+ * detected with the same comparisons as {@link BacktestingService#generateSmaCrossoverSignals},
+ * so trades happen on exactly the same ticks as before.
+ * <p>
+ * Balances are only touched when a trade executes. Those (rare) steps keep the original
+ * BigDecimal rounding, so the resulting {@link BacktestResult} is identical to the old
+ * list-based implementation, cent for cent.
+ */
+public final class SmaCrossoverEngine {
+
+    private SmaCrossoverEngine() {
+    }
+
+    public static BacktestResult run(PriceSeries series, int shortPeriod, int longPeriod, double initialBalance) {
+        int size = series.size();
+        if (size < longPeriod) {
+            return Portfolio.notEnoughData("SMA Crossover", initialBalance);
+        }
+        double[] prices = series.prices();
+
+        double shortSum = 0;
+        double longSum = 0;
+        // SMA values are 0 until a full period has been seen, just like the zero-filled arrays
+        double shortSma = 0;
+        double longSma = 0;
+        Portfolio portfolio = new Portfolio(initialBalance);
+
+        for (int i = 0; i < size; i++) {
+            double prevShort = shortSma;
+            double prevLong = longSma;
+
+            // Same summation order as calculateSMA: seed the first period, then slide
+            if (i < shortPeriod) {
+                shortSum += prices[i];
+                if (i == shortPeriod - 1) {
+                    shortSma = shortSum / shortPeriod;
+                }
+            } else {
+                shortSum += prices[i] - prices[i - shortPeriod];
+                shortSma = shortSum / shortPeriod;
+            }
+            if (i < longPeriod) {
+                longSum += prices[i];
+                if (i == longPeriod - 1) {
+                    longSma = longSum / longPeriod;
+                }
+            } else {
+                longSum += prices[i] - prices[i - longPeriod];
+                longSma = longSum / longPeriod;
+            }
+
+            // Signals before the long SMA is established are never traded on
+            if (i >= longPeriod) {
+                portfolio.onSmas(shortSma, longSma, prevShort, prevLong, prices[i]);
+            }
+        }
+        return portfolio.result(name(shortPeriod, longPeriod), prices[size - 1]);
+    }
+
+    /**
+     * The same simulation over any {@link TickSource}, reading each price once as the source streams
+     * it past. The prices each average still has to drop are kept in two rings of the period
+     * lengths, and every floating-point operation is the same as in
+     * {@link #run(PriceSeries, int, int, double)}, so the results are identical.
+     */
+    public static BacktestResult run(TickSource source, int shortPeriod, int longPeriod, double initialBalance) {
+        if (source instanceof PriceSeries series) {
+            return run(series, shortPeriod, longPeriod, initialBalance);
+        }
+        StreamingRun run = new StreamingRun(shortPeriod, longPeriod, initialBalance);
+        source.forEach(run);
+        return run.result();
+    }
+
+    /**
+     * Cumulative sums for {@link #run(PriceSeries, double[], int, int, double)}. Entry {@code i}
+     * holds the sum of the first {@code i} prices, each taken relative to the first price so the
+     * running total stays small and keeps its precision over long series.
+     */
+    public static double[] prefixSums(PriceSeries series) {
+        int size = series.size();
+        double[] prefix = new double[size + 1];
+        double base = size == 0 ? 0 : series.price(0);
+        for (int i = 0; i < size; i++) {
+            prefix[i + 1] = prefix[i] + (series.price(i) - base);
+        }
+        return prefix;
+    }
+
+    /**
+     * The same simulation, with every SMA read in O(1) from shared prefix sums. Meant for
+     * parameter sweeps, where one set of prefix sums serves every (short, long) pair.
+     * <p>
+     * The averages are computed with different floating-point operations than {@link #run(PriceSeries, int, int, double)},
+     * so on a near-exact tie between the two SMAs a crossover can land one tick apart.
+     */
+    public static BacktestResult run(PriceSeries series, double[] prefixSums, int shortPeriod, int longPeriod, double initialBalance) {
+        int size = series.size();
+        if (size < longPeriod) {
+            return Portfolio.notEnoughData("SMA Crossover", initialBalance);
+        }
+        double[] prices = series.prices();
+        double base = prices[0];
+
+        double shortSma = 0;
+        double longSma = 0;
+        Portfolio portfolio = new Portfolio(initialBalance);
+
+        for (int i = 0; i < size; i++) {
+            double prevShort = shortSma;
+            double prevLong = longSma;
+            if (i >= shortPeriod - 1) {
+                shortSma = base + (prefixSums[i + 1] - prefixSums[i + 1 - shortPeriod]) / shortPeriod;
+            }
+            if (i >= longPeriod - 1) {
+                longSma = base + (prefixSums[i + 1] - prefixSums[i + 1 - longPeriod]) / longPeriod;
+            }
+            if (i >= longPeriod) {
+                portfolio.onSmas(shortSma, longSma, prevShort, prevLong, prices[i]);
+            }
+        }
+        return portfolio.result(name(shortPeriod, longPeriod), prices[size - 1]);
+    }
+
+    /**
+     * The loop body of {@link #run(PriceSeries, int, int, double)}, one tick per call, with
+     * {@code prices[i - period]} read from the rings. Also remembers the newest timestamp it has
+     * seen and how many ticks carried it, so a cached run can later be resumed with only the ticks
+     * that arrived since (see {@link BacktestResultCache}).
+     */
+    static final class StreamingRun implements TickConsumer {
+        private final int shortPeriod;
+        private final int longPeriod;
+        private final double initialBalance;
+        private final double[] shortRing;
+        private final double[] longRing;
+        private final Portfolio portfolio;
+
+        private long i;
+        private double shortSum;
+        private double longSum;
+        private double shortSma;
+        private double longSma;
+        private double lastPrice;
+        private long watermark = Long.MIN_VALUE;
+        private int ticksAtWatermark;
+
+        /**
+         * @throws IllegalArgumentException If a period is not positive.
+         */
+        StreamingRun(int shortPeriod, int longPeriod, double initialBalance) {
+            if (shortPeriod < 1 || longPeriod < 1) {
+                throw new IllegalArgumentException("SMA periods must be positive");
+            }
+            this.shortPeriod = shortPeriod;
+            this.longPeriod = longPeriod;
+            this.initialBalance = initialBalance;
+            this.shortRing = new double[shortPeriod];
+            this.longRing = new double[longPeriod];
+            this.portfolio = new Portfolio(initialBalance);
+        }
+
+        private StreamingRun(StreamingRun other) {
+            this.shortPeriod = other.shortPeriod;
+            this.longPeriod = other.longPeriod;
+            this.initialBalance = other.initialBalance;
+            this.shortRing = other.shortRing.clone();
+            this.longRing = other.longRing.clone();
+            this.portfolio = new Portfolio(other.portfolio);
+            this.i = other.i;
+            this.shortSum = other.shortSum;
+            this.longSum = other.longSum;
+            this.shortSma = other.shortSma;
+            this.longSma = other.longSma;
+            this.lastPrice = other.lastPrice;
+            this.watermark = other.watermark;
+            this.ticksAtWatermark = other.ticksAtWatermark;
+        }
+
+        @Override
+        public void accept(long timestamp, double price) {
+            double prevShort = shortSma;
+            double prevLong = longSma;
+
+            int shortSlot = (int) (i % shortPeriod);
+            if (i < shortPeriod) {
+                shortSum += price;
+                if (i == shortPeriod - 1) {
+                    shortSma = shortSum / shortPeriod;
+                }
+            } else {
+                shortSum += price - shortRing[shortSlot];
+                shortSma = shortSum / shortPeriod;
+            }
+            shortRing[shortSlot] = price;
+
+            int longSlot = (int) (i % longPeriod);
+            if (i < longPeriod) {
+                longSum += price;
+                if (i == longPeriod - 1) {
+                    longSma = longSum / longPeriod;
+                }
+            } else {
+                longSum += price - longRing[longSlot];
+                longSma = longSum / longPeriod;
+            }
+            longRing[longSlot] = price;
+
+            if (i >= longPeriod) {
+                portfolio.onSmas(shortSma, longSma, prevShort, prevLong, price);
+            }
+            lastPrice = price;
+            i++;
+
+            if (timestamp == watermark) {
+                ticksAtWatermark++;
+            } else {
+                watermark = timestamp;
+                ticksAtWatermark = 1;
+            }
+        }
+
+        BacktestResult result() {
+            return i < longPeriod
+                    ? Portfolio.notEnoughData("SMA Crossover", initialBalance)
+                    : portfolio.result(name(shortPeriod, longPeriod), lastPrice);
+        }
+
+        /**
+         * @return An independent run in the same state, to be continued without changing this one.
+         */
+        StreamingRun copy() {
+            return new StreamingRun(this);
+        }
+
+        long ticks() {
+            return i;
+        }
+
+        /**
+         * @return What the account is worth at the latest price: its cash, or its holdings.
+         */
+        double equity() {
+            return portfolio.value(lastPrice);
+        }
+
+        /**
+         * @return The newest timestamp seen, {@link Long#MIN_VALUE} before the first tick.
+         */
+        long watermark() {
+            return watermark;
+        }
+
+        int ticksAtWatermark() {
+            return ticksAtWatermark;
+        }
+    }
+
+    static String name(int shortPeriod, int longPeriod) {
+        return "SMA Crossover (" + shortPeriod + ", " + longPeriod + ")";
+    }
+}
@@ -0,0 +1,36 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.TickConsumer;
+import com.trading.price_streamer.domain.strategy.Strategy;
+
+/**
+ * Simulates any {@link Strategy} one tick at a time: each tick goes to the strategy, and its
+ * BUY/SELL signals trade the {@link Portfolio} at that tick's price.
+ */
+final class StrategyRun implements TickConsumer {
+
+    private final Strategy strategy;
+    private final double initialBalance;
+    private final Portfolio portfolio;
+    private long ticks;
+    private double lastPrice;
+
+    StrategyRun(Strategy strategy, double initialBalance) {
+        this.strategy = strategy;
+        this.initialBalance = initialBalance;
+        this.portfolio = new Portfolio(initialBalance);
+    }
+
+    @Override
+    public void accept(long timestamp, double price) {
+        portfolio.onSignal(strategy.onTick(timestamp, price), price);
+        lastPrice = price;
+        ticks++;
+    }
+
+    BacktestResult result() {
+        return ticks == 0
+                ? Portfolio.notEnoughData(strategy.name(), initialBalance)
+                : portfolio.result(strategy.name(), lastPrice);
+    }
+}
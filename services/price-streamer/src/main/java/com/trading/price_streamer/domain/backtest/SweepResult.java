@@ -0,0 +1,18 @@
+package com.trading.price_streamer.domain.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepResult {
+    private int gridSize;           // Valid (shortPeriod < longPeriod) combinations requested
+    private int evaluated;          // Combinations actually run before the CPU budget ran out
+    private boolean budgetExceeded;
+    private long cpuMillis;
+    private List<BacktestResult> results; // Best first, by profit percentage
+}
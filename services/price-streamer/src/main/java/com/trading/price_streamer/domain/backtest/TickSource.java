@@ -0,0 +1,50 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.TickConsumer;
+
+import java.util.List;
+
+/**
+ * Where a backtest reads its prices from, one symbol's ticks in timestamp order.
+ * <p>
+ * A {@link PriceSeries} is a source already held in memory; others, such as the tick archive,
+ * scan their data in place while the backtest runs, so a range does not have to fit on the heap.
+ */
+public interface TickSource {
+
+    /**
+     * @return How many ticks {@link #forEach} visits.
+     */
+    long count();
+
+    /**
+     * Hands every tick to the consumer, oldest first.
+     */
+    void forEach(TickConsumer consumer);
+
+    /**
+     * @return A source that visits each part in turn. The parts must not overlap in time.
+     */
+    static TickSource concat(List<? extends TickSource> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        return new TickSource() {
+            @Override
+            public long count() {
+                long count = 0;
+                for (TickSource part : parts) {
+                    count += part.count();
+                }
+                return count;
+            }
+
+            @Override
+            public void forEach(TickConsumer consumer) {
+                for (TickSource part : parts) {
+                    part.forEach(consumer);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.trading.price_streamer.domain.candle;
+
+import java.time.Instant;
+
+/**
+ * One OHLCV bar. Ticks carry no traded size, so the volume is the number of ticks in the bar.
+ *
+ * @param timestamp The bar's open time.
+ */
+public record Candle(String symbol, String interval, Instant timestamp,
+                     double open, double high, double low, double close, long tickCount) {
+}
@@ -0,0 +1,191 @@
+package com.trading.price_streamer.domain.candle;
+
+import com.trading.price_streamer.domain.common.ShardedSymbolState;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.SymbolSlots;
+import com.trading.price_streamer.domain.common.TimescaleTickRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds 1s/1m/5m/1h/1d OHLCV bars per symbol incrementally as ticks are consumed.
+ * <p>
+ * Each tick touches only the open bar of each interval, so no raw ticks are ever re-scanned.
+ * The last {@code candles.history-size} closed bars per interval stay in memory; closed bars
+ * of the intervals in {@code candles.persist-intervals} are also written to the candles table
+ * in the background, so longer ranges can be served from there. A bar written twice (after a
+ * restart or a partition hand-over) keeps whichever copy saw more ticks. In TimescaleDB storage mode
+ * older bars of every interval come from the price_ticks continuous aggregates instead.
+ */
+@Service
+public class CandleAggregator implements ShardedSymbolState {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleAggregator.class);
+
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+    // One duplicate must not roll back the rest of the batch, so conflicts update instead of failing
+    private static final String UPSERT_SQL = "INSERT INTO candles (symbol, interval_code, open_time, open, high, low, close, tick_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (symbol, interval_code, open_time) DO UPDATE SET open = EXCLUDED.open, high = EXCLUDED.high, "
+            + "low = EXCLUDED.low, close = EXCLUDED.close, tick_count = EXCLUDED.tick_count "
+            + "WHERE candles.tick_count <= EXCLUDED.tick_count";
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private CandleRepository candleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Only present in TimescaleDB storage mode
+    @Autowired
+    private ObjectProvider<TimescaleTickRepository> timescaleTickRepository;
+
+    @Value("${candles.history-size:1000}")
+    private int historySize;
+
+    // 1s bars are numerous and the raw ticks already cover short ranges, so they are not stored by default
+    @Value("${candles.persist-intervals:1m,5m,1h,1d}")
+    private String[] persistIntervals;
+
+    @Value("${candles.write-queue-capacity:10000}")
+    private int writeQueueCapacity;
+
+    private SymbolSlots<CandleSeries[]> series;
+    private final Set<CandleInterval> persisted = EnumSet.noneOf(CandleInterval.class);
+    private BlockingQueue<Candle> pendingWrites;
+    private final LongAdder droppedWrites = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        series = new SymbolSlots<>(id -> {
+            CandleSeries[] bars = new CandleSeries[INTERVALS.length];
+            for (CandleInterval interval : INTERVALS) {
+                bars[interval.ordinal()] = new CandleSeries(interval, historySize);
+            }
+            return bars;
+        });
+        for (String code : persistIntervals) {
+            persisted.add(CandleInterval.fromCode(code.trim()));
+        }
+        pendingWrites = new ArrayBlockingQueue<>(writeQueueCapacity);
+    }
+
+    /**
+     * Folds a tick into every interval's open bar for the symbol.
+     */
+    public void onTick(int symbolId, double price, long timestamp) {
+        for (CandleSeries bars : series.get(symbolId)) {
+            synchronized (bars) {
+                if (bars.update(price, timestamp) != Long.MIN_VALUE && persisted.contains(bars.interval())) {
+                    if (!pendingWrites.offer(bars.lastClosed(symbolRegistry.nameOf(symbolId)))) {
+                        droppedWrites.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the symbol's open bars without persisting them. Whichever instance takes the symbol
+     * over builds and persists those bars itself; closing them here later would write a second,
+     * partial copy of each. Closed bars stay in memory.
+     */
+    @Override
+    public void release(int symbolId) {
+        CandleSeries[] bars = series.getIfPresent(symbolId);
+        if (bars == null) {
+            return;
+        }
+        for (CandleSeries candleSeries : bars) {
+            synchronized (candleSeries) {
+                candleSeries.discardOpen();
+            }
+        }
+    }
+
+    /**
+     * Returns the bars whose open time falls in [start, end), oldest first, including the bar
+     * that is still open. Bars older than what memory holds are read from the candles table, or
+     * computed by TimescaleDB in TimescaleDB storage mode.
+     */
+    public List<Candle> getCandles(String symbol, CandleInterval interval, Instant start, Instant end) {
+        long startMillis = interval.bucketStart(start.toEpochMilli());
+        long endMillis = end.toEpochMilli();
+
+        // Take the in-memory part first, so the DB query can stop exactly where it begins
+        List<Candle> recent = new ArrayList<>();
+        long memoryStart = Long.MAX_VALUE;
+        int symbolId = symbolRegistry.find(symbol);
+        CandleSeries[] bars = symbolId < 0 ? null : series.getIfPresent(symbolId);
+        if (bars != null) {
+            CandleSeries candleSeries = bars[interval.ordinal()];
+            synchronized (candleSeries) {
+                memoryStart = candleSeries.oldestOpenTime();
+                candleSeries.collect(symbol, startMillis, endMillis, recent);
+            }
+        }
+
+        List<Candle> candles = new ArrayList<>();
+        TimescaleTickRepository timescale = timescaleTickRepository.getIfAvailable();
+        if (startMillis < memoryStart && timescale != null) {
+            Instant dbEnd = Instant.ofEpochMilli(Math.min(endMillis, memoryStart));
+            candles.addAll(timescale.findCandles(symbol, interval, Instant.ofEpochMilli(startMillis), dbEnd));
+        } else if (startMillis < memoryStart && persisted.contains(interval)) {
+            Instant dbEnd = Instant.ofEpochMilli(Math.min(endMillis, memoryStart));
+            candleRepository
+                    .findBySymbolAndIntervalCodeAndOpenTimeGreaterThanEqualAndOpenTimeLessThanOrderByOpenTimeAsc(
+                            symbol, interval.getCode(), Instant.ofEpochMilli(startMillis), dbEnd)
+                    .forEach(entity -> candles.add(entity.toCandle()));
+        }
+        candles.addAll(recent);
+        return candles;
+    }
+
+    @Scheduled(fixedDelayString = "${candles.flush-interval-ms:5000}")
+    public void flushClosedCandles() {
+        List<Candle> batch = new ArrayList<>(pendingWrites.size());
+        pendingWrites.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, candle) -> {
+                ps.setString(1, candle.symbol());
+                ps.setString(2, candle.interval());
+                ps.setTimestamp(3, Timestamp.from(candle.timestamp()));
+                ps.setDouble(4, candle.open());
+                ps.setDouble(5, candle.high());
+                ps.setDouble(6, candle.low());
+                ps.setDouble(7, candle.close());
+                ps.setLong(8, candle.tickCount());
+            });
+        } catch (Exception e) {
+            log.warn("Failed to persist {} closed candles: {}", batch.size(), e.getMessage());
+        }
+        long dropped = droppedWrites.sumThenReset();
+        if (dropped > 0) {
+            log.warn("Candle write queue was full, {} closed candles were not persisted", dropped);
+        }
+    }
+}
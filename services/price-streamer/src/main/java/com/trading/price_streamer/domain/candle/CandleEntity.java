@@ -0,0 +1,51 @@
+package com.trading.price_streamer.domain.candle;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Table(name = "candles",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "interval_code", "open_time"}))
+@NoArgsConstructor
+public class CandleEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false, name = "interval_code", length = 4)
+    private String intervalCode;
+
+    @Column(nullable = false, name = "open_time", columnDefinition = "TIMESTAMPTZ")
+    private Instant openTime;
+
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+
+    @Column(name = "tick_count")
+    private long tickCount;
+
+    public CandleEntity(Candle candle) {
+        this.symbol = candle.symbol();
+        this.intervalCode = candle.interval();
+        this.openTime = candle.timestamp();
+        this.open = candle.open();
+        this.high = candle.high();
+        this.low = candle.low();
+        this.close = candle.close();
+        this.tickCount = candle.tickCount();
+    }
+
+    public Candle toCandle() {
+        return new Candle(symbol, intervalCode, openTime, open, high, low, close, tickCount);
+    }
+}
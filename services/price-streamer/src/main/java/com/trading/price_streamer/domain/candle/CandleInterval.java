@@ -0,0 +1,46 @@
+package com.trading.price_streamer.domain.candle;
+
+public enum CandleInterval {
+    S1("1s", 1_000L),
+    M1("1m", 60_000L),
+    M5("5m", 300_000L),
+    H1("1h", 3_600_000L),
+    D1("1d", 86_400_000L);
+
+    private final String code;
+    private final long millis;
+
+    CandleInterval(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return The start of the bar that contains the timestamp (epoch milliseconds, UTC-aligned).
+     */
+    public long bucketStart(long timestamp) {
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+
+    /**
+     * @param code An interval code such as "1m" or "1h".
+     * @return The matching interval.
+     * @throws IllegalArgumentException If the code is unknown.
+     */
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + code);
+    }
+}
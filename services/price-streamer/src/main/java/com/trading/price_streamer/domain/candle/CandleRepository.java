@@ -0,0 +1,14 @@
+package com.trading.price_streamer.domain.candle;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CandleRepository extends JpaRepository<CandleEntity, Long> {
+    // Half-open range [start, end) so callers can stitch DB and in-memory bars without overlap
+    List<CandleEntity> findBySymbolAndIntervalCodeAndOpenTimeGreaterThanEqualAndOpenTimeLessThanOrderByOpenTimeAsc(
+            String symbol, String intervalCode, Instant start, Instant end);
+}
@@ -0,0 +1,156 @@
+package com.trading.price_streamer.domain.candle;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The bars of one symbol at one interval: the bar currently being built plus a bounded ring of
+ * the most recent closed bars, all in primitive arrays. Callers synchronize on the series.
+ */
+class CandleSeries {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final CandleInterval interval;
+
+    // The open bar
+    private long openTime = NONE;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private long tickCount;
+    private boolean discarded; // The open bar was given up and must not be closed into history
+
+    // Closed bars, oldest at (count - size) % capacity
+    private final long[] openTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final long[] tickCounts;
+    private long closedCount;
+
+    CandleSeries(CandleInterval interval, int capacity) {
+        this.interval = interval;
+        this.openTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.tickCounts = new long[capacity];
+    }
+
+    CandleInterval interval() {
+        return interval;
+    }
+
+    /**
+     * Folds a tick into the open bar, closing it first if the tick belongs to a later bar.
+     *
+     * @return The start of the bar that was closed by this tick, or {@link Long#MIN_VALUE} if none was.
+     *         Ticks older than the open bar are ignored and also return {@link Long#MIN_VALUE}.
+     */
+    long update(double price, long timestamp) {
+        long bucket = interval.bucketStart(timestamp);
+        if (bucket == openTime && discarded) {
+            open = high = low = close = price;
+            tickCount = 1;
+            discarded = false;
+            return NONE;
+        }
+        if (bucket == openTime) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            tickCount++;
+            return NONE;
+        }
+        if (bucket < openTime) {
+            return NONE; // Late tick for a bar that is already closed
+        }
+
+        long closedOpenTime = discarded ? NONE : openTime;
+        if (closedOpenTime != NONE) {
+            int slot = (int) (closedCount % openTimes.length);
+            openTimes[slot] = openTime;
+            opens[slot] = open;
+            highs[slot] = high;
+            lows[slot] = low;
+            closes[slot] = close;
+            tickCounts[slot] = tickCount;
+            closedCount++;
+        }
+        openTime = bucket;
+        open = high = low = close = price;
+        tickCount = 1;
+        discarded = false;
+        return closedOpenTime;
+    }
+
+    /**
+     * Forgets the open bar. The next tick starts it over if it falls in the same bucket, and it is
+     * never added to the closed bars. Open times still only move forward, so late ticks stay ignored.
+     */
+    void discardOpen() {
+        discarded = openTime != NONE;
+    }
+
+    /**
+     * @return The most recently closed bar. Only valid right after {@link #update} closed one.
+     */
+    Candle lastClosed(String symbol) {
+        return closedAt(symbol, (int) ((closedCount - 1) % openTimes.length));
+    }
+
+    /**
+     * @return The open time of the oldest closed bar still held, or {@link Long#MAX_VALUE} if there is none.
+     *         The series fully covers any range starting at or after this time.
+     */
+    long oldestOpenTime() {
+        int held = held();
+        if (held == 0) {
+            return openTime == NONE ? Long.MAX_VALUE : openTime;
+        }
+        return openTimes[(int) ((closedCount - held) % openTimes.length)];
+    }
+
+    /**
+     * Adds every bar (closed ones, then the open one) whose open time is in [start, end) to the list.
+     */
+    void collect(String symbol, long start, long end, List<Candle> out) {
+        int held = held();
+        long first = closedCount - held;
+
+        // Binary search for the first closed bar at or after start
+        int lo = 0;
+        int hi = held;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (openTimes[(int) ((first + mid) % openTimes.length)] < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < held; i++) {
+            int slot = (int) ((first + i) % openTimes.length);
+            if (openTimes[slot] >= end) {
+                return;
+            }
+            out.add(closedAt(symbol, slot));
+        }
+        if (openTime != NONE && !discarded && openTime >= start && openTime < end) {
+            out.add(new Candle(symbol, interval.getCode(), Instant.ofEpochMilli(openTime), open, high, low, close, tickCount));
+        }
+    }
+
+    private int held() {
+        return (int) Math.min(closedCount, openTimes.length);
+    }
+
+    private Candle closedAt(String symbol, int slot) {
+        return new Candle(symbol, interval.getCode(), Instant.ofEpochMilli(openTimes[slot]),
+                opens[slot], highs[slot], lows[slot], closes[slot], tickCounts[slot]);
+    }
+}
@@ -1,4 +0,0 @@
-package com.trading.price_streamer.domain.common;
-
-public record PriceTick(String symbol, double price, long timestamp) {
-}
\ No newline at end of file
@@ -8,7 +8,8 @@ import java.time.Instant;
 
 @Data
 @Entity // Marks this class as a JPA entity (a table in the DB)
-@Table(name = "price_ticks") // Specifies the table name
+@Table(name = "price_ticks", // Specifies the table name
+        indexes = @Index(name = "price_ticks_symbol_timestamp_idx", columnList = "symbol, timestamp"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class PriceTickEntity {
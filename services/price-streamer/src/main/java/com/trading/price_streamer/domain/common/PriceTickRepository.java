@@ -1,12 +1,62 @@
 package com.trading.price_streamer.domain.common;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository // Marks this as a Spring Data repository
 public interface PriceTickRepository extends JpaRepository<PriceTickEntity, Long> {
     List<PriceTickEntity> findBySymbolAndTimestampBetween(String symbol, Instant start, Instant end);
-}
\ No newline at end of file
+
+    long countBySymbolAndTimestampBetween(String symbol, Instant start, Instant end);
+
+    // Every symbol's ticks in [start, end)
+    long countByTimestampGreaterThanEqualAndTimestampLessThan(Instant start, Instant end);
+
+    /**
+     * Streams the range as projections through a server-side cursor, {@code fetchSize} rows per
+     * round trip. Must be called inside a transaction (PostgreSQL only uses a cursor when
+     * autocommit is off) and the stream must be closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.trading.price_streamer.domain.common.PriceTickRow(t.id, t.symbol, t.price, t.timestamp) " +
+            "FROM PriceTickEntity t WHERE t.symbol = :symbol AND t.timestamp BETWEEN :start AND :end ORDER BY t.timestamp")
+    Stream<PriceTickRow> streamBySymbolAndTimestampBetween(@Param("symbol") String symbol,
+                                                           @Param("start") Instant start,
+                                                           @Param("end") Instant end);
+
+    /**
+     * Streams every symbol's ticks from {@code start} on, in timestamp order, through a server-side
+     * cursor; same rules as {@link #streamBySymbolAndTimestampBetween}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.trading.price_streamer.domain.common.PriceTickRow(t.id, t.symbol, t.price, t.timestamp) " +
+            "FROM PriceTickEntity t WHERE t.timestamp >= :start ORDER BY t.timestamp")
+    Stream<PriceTickRow> streamByTimestampFrom(@Param("start") Instant start);
+
+    /**
+     * Streams every symbol's ticks in [start, end), grouped by symbol and in timestamp order within
+     * each; same rules as {@link #streamBySymbolAndTimestampBetween}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.trading.price_streamer.domain.common.PriceTickRow(t.id, t.symbol, t.price, t.timestamp) " +
+            "FROM PriceTickEntity t WHERE t.timestamp >= :start AND t.timestamp < :end ORDER BY t.symbol, t.timestamp")
+    Stream<PriceTickRow> streamBySymbolInRange(@Param("start") Instant start, @Param("end") Instant end);
+}
@@ -0,0 +1,11 @@
+package com.trading.price_streamer.domain.common;
+
+import java.time.Instant;
+
+/**
+ * A read-only projection of a price_ticks row. Unlike {@link PriceTickEntity} it is never
+ * attached to the persistence context, so streaming millions of them keeps memory flat.
+ * Serializes to the same JSON shape as the entity.
+ */
+public record PriceTickRow(Long id, String symbol, double price, Instant timestamp) {
+}
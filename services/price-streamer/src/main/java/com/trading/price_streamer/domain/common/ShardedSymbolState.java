@@ -0,0 +1,18 @@
+package com.trading.price_streamer.domain.common;
+
+/**
+ * Per-symbol state that is built from the symbol's own tick stream and is only valid while this
+ * instance keeps consuming that stream. When the Kafka partition carrying a symbol is revoked,
+ * {@code PartitionShards} releases the symbol so that, if the partition comes back later, the
+ * state is rebuilt from fresh ticks instead of being stitched onto a stale history.
+ */
+public interface ShardedSymbolState {
+
+    /**
+     * Forgets what was built for the symbol. Called on a Kafka consumer thread after the last
+     * tick of the symbol has been processed here.
+     *
+     * @param symbolId The symbol's {@link SymbolRegistry} id.
+     */
+    void release(int symbolId);
+}
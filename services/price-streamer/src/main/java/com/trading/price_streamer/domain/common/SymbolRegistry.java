@@ -0,0 +1,64 @@
+package com.trading.price_streamer.domain.common;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns symbol names to small dense ids, so per-symbol state can live in plain arrays
+ * indexed by id instead of maps keyed by String.
+ */
+@Component
+public class SymbolRegistry {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+
+    /**
+     * @param symbol A symbol name such as "BTC-USD".
+     * @return Its id, assigning the next free one on first sight.
+     */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    /**
+     * Looks a symbol up without registering it, for callers (such as HTTP requests) that
+     * should not be able to grow the registry.
+     * @return Its id, or -1 if the symbol has never been seen.
+     */
+    public int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id An id previously returned by {@link #idOf}.
+     * @return The canonical name for the id.
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int id = ids.size();
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = symbol;
+        // Publish the id only after the name is visible to nameOf
+        ids.put(symbol, id);
+        return id;
+    }
+}
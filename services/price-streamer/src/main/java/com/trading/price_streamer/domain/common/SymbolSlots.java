@@ -0,0 +1,56 @@
+package com.trading.price_streamer.domain.common;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * An array of per-symbol state indexed by {@link SymbolRegistry} id. Reads are a volatile array
+ * load; slots are created lazily and the array grows under a lock.
+ *
+ * @param <T> The per-symbol state type.
+ */
+public class SymbolSlots<T> {
+
+    private final IntFunction<T> factory;
+    private volatile Object[] slots = new Object[64];
+
+    /**
+     * @param factory Creates the state for a symbol id the first time it is requested.
+     */
+    public SymbolSlots(IntFunction<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return The state for the symbol, or null if it was never created.
+     */
+    @SuppressWarnings("unchecked")
+    public T getIfPresent(int symbolId) {
+        Object[] current = slots;
+        return symbolId < current.length ? (T) current[symbolId] : null;
+    }
+
+    /**
+     * @return The state for the symbol, creating it on first use.
+     */
+    public T get(int symbolId) {
+        T slot = getIfPresent(symbolId);
+        return slot != null ? slot : create(symbolId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized T create(int symbolId) {
+        Object[] current = slots;
+        if (symbolId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(symbolId + 1, current.length * 2));
+        } else if (current[symbolId] != null) {
+            return (T) current[symbolId];
+        } else {
+            current = current.clone();
+        }
+        T slot = factory.apply(symbolId);
+        current[symbolId] = slot;
+        slots = current; // Publish a fully built array
+        return slot;
+    }
+}
@@ -0,0 +1,13 @@
+package com.trading.price_streamer.domain.common;
+
+/**
+ * Receives ticks one at a time as primitives, so scanning a long history creates no per-tick objects.
+ */
+@FunctionalInterface
+public interface TickConsumer {
+
+    /**
+     * @param timestamp Epoch milliseconds.
+     */
+    void accept(long timestamp, double price);
+}
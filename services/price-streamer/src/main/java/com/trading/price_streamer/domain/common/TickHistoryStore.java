@@ -0,0 +1,452 @@
+package com.trading.price_streamer.domain.common;
+
+import com.trading.price_streamer.domain.backtest.PriceSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Every tick of the last few days, per symbol, so /history and backtests over recent ranges are
+ * answered without touching the database.
+ * <p>
+ * A symbol's ticks live in fixed-size columnar segments (a timestamp array and a price array),
+ * oldest first, and ranges are found by binary search on the timestamps. Segments are only ever
+ * appended to, so reads take no lock: a segment's size is published after its entries are written.
+ * The store is filled from the consumer threads and, in single-instance mode, pre-loaded from
+ * price_ticks before the Kafka listeners start. The pre-load only reaches back as far as the
+ * memory budget holds, so startup never reads ticks it would evict right away.
+ * <p>
+ * Memory is bounded by {@code tick-history.memory-budget-mb}: once it is exceeded, the oldest
+ * closed segment across all symbols is dropped. Segments older than {@code tick-history.retention-days}
+ * are dropped periodically. Each symbol knows from which timestamp on it holds every tick
+ * ({@link #coveredFrom}); callers read anything before that from the database.
+ */
+@Component
+public class TickHistoryStore implements ShardedSymbolState, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TickHistoryStore.class);
+
+    /**
+     * Returned by {@link #coveredFrom} for a symbol the store holds nothing reliable for.
+     */
+    public static final long NOT_COVERED = Long.MAX_VALUE;
+
+    // One long timestamp and one double price
+    private static final int BYTES_PER_TICK = 16;
+
+    private static final Segment[] NO_SEGMENTS = new Segment[0];
+
+    // How far back each count goes when sizing the pre-load to the budget
+    private static final long PRELOAD_STEP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final SymbolRegistry symbolRegistry;
+    private final int segmentSize;
+    private final long segmentBytes;
+    private final long budgetBytes;
+    private final long retentionMillis;
+    private final SymbolSlots<Series> series;
+
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong evictedSegments = new AtomicLong();
+    private final AtomicLong outOfOrderTicks = new AtomicLong();
+    private final Object evictionLock = new Object();
+
+    // Start of the pre-loaded window: every symbol is complete from here on, even one without ticks yet
+    private volatile long preloadedFrom = NOT_COVERED;
+
+    @Autowired
+    private PriceTickRepository priceTickRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${tick-history.preload:true}")
+    private boolean preload;
+
+    // Other instances write ticks too, so a snapshot taken at startup could miss some
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Autowired
+    public TickHistoryStore(SymbolRegistry symbolRegistry,
+                            @Value("${tick-history.segment-size:4096}") int segmentSize,
+                            @Value("${tick-history.memory-budget-mb:256}") long memoryBudgetMb,
+                            @Value("${tick-history.retention-days:7}") int retentionDays) {
+        this(symbolRegistry, segmentSize, memoryBudgetMb * 1024 * 1024, TimeUnit.DAYS.toMillis(retentionDays));
+    }
+
+    TickHistoryStore(SymbolRegistry symbolRegistry, int segmentSize, long budgetBytes, long retentionMillis) {
+        this.symbolRegistry = symbolRegistry;
+        this.segmentSize = segmentSize;
+        this.segmentBytes = (long) segmentSize * BYTES_PER_TICK;
+        this.budgetBytes = budgetBytes;
+        this.retentionMillis = retentionMillis;
+        this.series = new SymbolSlots<>(id -> new Series(preloadedFrom));
+    }
+
+    /**
+     * Appends a tick. Ticks must arrive in timestamp order per symbol: one older than the symbol's
+     * newest is skipped, as it can only be a re-delivery of a tick that is already held, and
+     * counted in {@link #outOfOrderTicks}.
+     */
+    public void append(int symbolId, double price, long timestamp) {
+        Series symbolSeries = series.get(symbolId);
+        boolean newSegment;
+        synchronized (symbolSeries) {
+            if (timestamp < symbolSeries.newest) {
+                outOfOrderTicks.incrementAndGet();
+                return;
+            }
+            newSegment = symbolSeries.append(timestamp, price, segmentSize);
+        }
+        if (newSegment && usedBytes.addAndGet(segmentBytes) > budgetBytes) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Drops the symbol's ticks: they stop being complete once another consumer takes its partition.
+     */
+    @Override
+    public void release(int symbolId) {
+        Series symbolSeries = series.getIfPresent(symbolId);
+        if (symbolSeries == null) {
+            return;
+        }
+        synchronized (symbolSeries) {
+            usedBytes.addAndGet(-symbolSeries.segments.length * segmentBytes);
+            symbolSeries.clear();
+        }
+    }
+
+    /**
+     * @return The epoch millisecond from which on the store holds every tick of the symbol, or
+     *         {@link #NOT_COVERED} if it holds none it can vouch for.
+     */
+    public long coveredFrom(String symbol) {
+        int symbolId = symbolRegistry.find(symbol);
+        Series symbolSeries = symbolId < 0 ? null : series.getIfPresent(symbolId);
+        return symbolSeries == null ? NOT_COVERED : symbolSeries.coveredFrom;
+    }
+
+    /**
+     * Copies the symbol's ticks with {@code from <= timestamp <= to} into a new series.
+     */
+    public PriceSeries range(String symbol, long from, long to) {
+        Segment[] segments = segmentsOf(symbol);
+        int first = firstSegmentEndingAtOrAfter(segments, from);
+
+        // Count first, so the columns are allocated exactly once
+        int total = 0;
+        for (int s = first; s < segments.length; s++) {
+            Segment segment = segments[s];
+            int size = segment.size;
+            if (size == 0 || segment.timestamps[0] > to) {
+                break;
+            }
+            total += upperBound(segment.timestamps, size, to) - lowerBound(segment.timestamps, size, from);
+        }
+
+        double[] prices = new double[total];
+        long[] timestamps = new long[total];
+        int copied = 0;
+        for (int s = first; s < segments.length && copied < total; s++) {
+            Segment segment = segments[s];
+            int size = segment.size;
+            int lo = lowerBound(segment.timestamps, size, from);
+            int n = Math.min(upperBound(segment.timestamps, size, to) - lo, total - copied);
+            System.arraycopy(segment.prices, lo, prices, copied, n);
+            System.arraycopy(segment.timestamps, lo, timestamps, copied, n);
+            copied += n;
+        }
+        return new PriceSeries(prices, timestamps, copied);
+    }
+
+    /**
+     * Hands the symbol's ticks with {@code from <= timestamp <= to} to the consumer, oldest first,
+     * without copying them.
+     *
+     * @return How many ticks were visited.
+     */
+    public int forEach(String symbol, long from, long to, TickConsumer consumer) {
+        Segment[] segments = segmentsOf(symbol);
+        int visited = 0;
+        for (int s = firstSegmentEndingAtOrAfter(segments, from); s < segments.length; s++) {
+            Segment segment = segments[s];
+            int size = segment.size;
+            if (size == 0 || segment.timestamps[0] > to) {
+                break;
+            }
+            int hi = upperBound(segment.timestamps, size, to);
+            for (int i = lowerBound(segment.timestamps, size, from); i < hi; i++) {
+                consumer.accept(segment.timestamps[i], segment.prices[i]);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * @return Bytes held in tick segments across all symbols.
+     */
+    public long usedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * @return Segments dropped so far to stay within the memory budget or the retention period.
+     */
+    public long evictedSegments() {
+        return evictedSegments.get();
+    }
+
+    /**
+     * @return Ticks skipped because they were older than their symbol's newest.
+     */
+    public long outOfOrderTicks() {
+        return outOfOrderTicks.get();
+    }
+
+    /**
+     * Fills the store from price_ticks before the Kafka listeners start, so the first requests after
+     * a restart are already served from memory. Only the newest ticks that fit the memory budget
+     * are loaded. Skipped in cluster mode.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!preload || clusterEnabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long from = preloadStart(System.currentTimeMillis(), (stepStart, stepEnd) ->
+                priceTickRepository.countByTimestampGreaterThanEqualAndTimestampLessThan(
+                        Instant.ofEpochMilli(stepStart), Instant.ofEpochMilli(stepEnd)));
+        long[] loaded = {0};
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        try {
+            preloadedFrom = from;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<PriceTickRow> rows = priceTickRepository.streamByTimestampFrom(Instant.ofEpochMilli(from))) {
+                    rows.forEach(row -> {
+                        append(symbolRegistry.idOf(row.symbol()), row.price(), row.timestamp().toEpochMilli());
+                        loaded[0]++;
+                    });
+                }
+            });
+            log.info("Pre-loaded {} ticks of {} symbols since {} in {} ms ({} MB)", loaded[0], symbolRegistry.size(),
+                    Instant.ofEpochMilli(from), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    usedBytes.get() / (1024 * 1024));
+        } catch (Exception e) {
+            // Whatever was loaded may have gaps, so start empty and fill from the tick stream instead
+            log.warn("Could not pre-load tick history, serving it from the database until filled: {}", e.getMessage());
+            preloadedFrom = NOT_COVERED;
+            for (int symbolId = 0; symbolId < symbolRegistry.size(); symbolId++) {
+                release(symbolId);
+            }
+        }
+    }
+
+    /**
+     * Steps back from now an hour at a time, at most the retention period, while the ticks counted
+     * so far fit the memory budget.
+     *
+     * @param rowsBetween Counts the ticks of all symbols with {@code start <= timestamp < end}.
+     * @return The start of the oldest step that still fits.
+     */
+    long preloadStart(long now, LongBinaryOperator rowsBetween) {
+        long oldest = now - retentionMillis;
+        long from = now;
+        long bytes = 0;
+        while (from > oldest) {
+            long stepStart = Math.max(oldest, from - PRELOAD_STEP_MILLIS);
+            bytes += rowsBetween.applyAsLong(stepStart, from) * BYTES_PER_TICK;
+            if (bytes > budgetBytes) {
+                break;
+            }
+            from = stepStart;
+        }
+        return from;
+    }
+
+    /**
+     * Drops segments whose newest tick is older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${tick-history.trim-interval-ms:60000}")
+    public void trimExpired() {
+        trimOlderThan(System.currentTimeMillis() - retentionMillis);
+    }
+
+    void trimOlderThan(long cutoff) {
+        for (int symbolId = 0; symbolId < symbolRegistry.size(); symbolId++) {
+            Series symbolSeries = series.getIfPresent(symbolId);
+            if (symbolSeries == null) {
+                continue;
+            }
+            synchronized (symbolSeries) {
+                while (symbolSeries.segments.length > 0 && symbolSeries.segments[0].last() < cutoff) {
+                    dropOldestSegment(symbolSeries);
+                }
+            }
+        }
+    }
+
+    private void evictOldest() {
+        synchronized (evictionLock) {
+            while (usedBytes.get() > budgetBytes) {
+                Series oldest = null;
+                long oldestStart = Long.MAX_VALUE;
+                for (int symbolId = 0; symbolId < symbolRegistry.size(); symbolId++) {
+                    Series symbolSeries = series.getIfPresent(symbolId);
+                    Segment[] segments = symbolSeries == null ? NO_SEGMENTS : symbolSeries.segments;
+                    // A symbol's open segment is never evicted, so it always keeps its latest ticks
+                    if (segments.length > 1 && segments[0].timestamps[0] < oldestStart) {
+                        oldest = symbolSeries;
+                        oldestStart = segments[0].timestamps[0];
+                    }
+                }
+                if (oldest == null) {
+                    return; // Only open segments left: the budget is exceeded by at most one segment per symbol
+                }
+                synchronized (oldest) {
+                    if (oldest.segments.length > 1) {
+                        dropOldestSegment(oldest);
+                    }
+                }
+            }
+        }
+    }
+
+    // Caller holds the series' lock
+    private void dropOldestSegment(Series symbolSeries) {
+        Segment dropped = symbolSeries.segments[0];
+        symbolSeries.segments = Arrays.copyOfRange(symbolSeries.segments, 1, symbolSeries.segments.length);
+        // Ticks sharing the dropped segment's last millisecond may continue in the next one
+        symbolSeries.coveredFrom = Math.max(symbolSeries.coveredFrom, dropped.last() + 1);
+        usedBytes.addAndGet(-segmentBytes);
+        evictedSegments.incrementAndGet();
+    }
+
+    private Segment[] segmentsOf(String symbol) {
+        int symbolId = symbolRegistry.find(symbol);
+        Series symbolSeries = symbolId < 0 ? null : series.getIfPresent(symbolId);
+        return symbolSeries == null ? NO_SEGMENTS : symbolSeries.segments;
+    }
+
+    // Segments are in timestamp order, so binary search on each one's newest tick
+    private static int firstSegmentEndingAtOrAfter(Segment[] segments, long from) {
+        int lo = 0;
+        int hi = segments.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (segments[mid].size > 0 && segments[mid].last() < from) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index with timestamps[i] >= value
+    private static int lowerBound(long[] timestamps, int size, long value) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index with timestamps[i] > value
+    private static int upperBound(long[] timestamps, int size, long value) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static final class Series {
+        // Replaced, never mutated, so readers can iterate a snapshot without locking
+        private volatile Segment[] segments = NO_SEGMENTS;
+        private volatile long coveredFrom;
+        private long newest = Long.MIN_VALUE;
+
+        Series(long coveredFrom) {
+            this.coveredFrom = coveredFrom;
+        }
+
+        // Caller holds the lock; returns whether a new segment was allocated
+        boolean append(long timestamp, double price, int segmentSize) {
+            if (coveredFrom == NOT_COVERED) {
+                coveredFrom = timestamp; // Nothing before the first tick seen is known to be complete
+            }
+            newest = timestamp;
+            Segment[] current = segments;
+            Segment tail = current.length == 0 ? null : current[current.length - 1];
+            boolean allocated = tail == null || tail.size == segmentSize;
+            if (allocated) {
+                tail = new Segment(segmentSize);
+                Segment[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = tail;
+                segments = grown;
+            }
+            tail.append(timestamp, price);
+            return allocated;
+        }
+
+        void clear() {
+            segments = NO_SEGMENTS;
+            coveredFrom = NOT_COVERED;
+            newest = Long.MIN_VALUE;
+        }
+    }
+
+    private static final class Segment {
+        private final long[] timestamps;
+        private final double[] prices;
+        private volatile int size;
+
+        Segment(int capacity) {
+            this.timestamps = new long[capacity];
+            this.prices = new double[capacity];
+        }
+
+        // Single writer under the series lock; the volatile size write publishes the entry
+        void append(long timestamp, double price) {
+            int i = size;
+            timestamps[i] = timestamp;
+            prices[i] = price;
+            size = i + 1;
+        }
+
+        long last() {
+            return timestamps[size - 1];
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.trading.price_streamer.domain.common;
+
+/**
+ * A reusable, caller-owned view of the most recent ticks of one symbol, oldest first.
+ * Allocate one per consumer (or per thread) and refill it with {@link TickWindowStore#fill}.
+ */
+public final class TickWindow {
+
+    private final double[] prices;
+    private final long[] timestamps;
+    private int size;
+
+    /**
+     * @param length The maximum number of ticks this window holds.
+     */
+    public TickWindow(int length) {
+        this.prices = new double[length];
+        this.timestamps = new long[length];
+    }
+
+    public int length() {
+        return prices.length;
+    }
+
+    /**
+     * @return How many ticks the last fill copied; may be less than {@link #length()}.
+     */
+    public int size() {
+        return size;
+    }
+
+    public double price(int i) {
+        return prices[i];
+    }
+
+    /**
+     * @return The tick's producer timestamp in epoch milliseconds.
+     */
+    public long timestamp(int i) {
+        return timestamps[i];
+    }
+
+    double[] priceArray() {
+        return prices;
+    }
+
+    long[] timestampArray() {
+        return timestamps;
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,159 @@
+package com.trading.price_streamer.domain.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Rolling windows of the most recent ticks, one ring buffer per symbol.
+ * <p>
+ * Prices and timestamps live in fixed-size primitive arrays, so appending a tick allocates
+ * nothing. Each consumer picks its own window length (ML, signals, UI snapshot...) and reads
+ * into a {@link TickWindow} it owns. Reads are optimistic and never block writers.
+ */
+@Component
+public class TickWindowStore implements ShardedSymbolState {
+
+    private final SymbolRegistry symbolRegistry;
+    private final int capacity;
+    private final SymbolSlots<TickRing> rings;
+
+    public TickWindowStore(SymbolRegistry symbolRegistry,
+                           @Value("${tick-window.capacity:256}") int capacity) {
+        this.symbolRegistry = symbolRegistry;
+        this.capacity = capacity;
+        this.rings = new SymbolSlots<>(id -> new TickRing(capacity));
+    }
+
+    /**
+     * @return The longest window any consumer can ask for.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    public void append(String symbol, double price, long timestamp) {
+        append(symbolRegistry.idOf(symbol), price, timestamp);
+    }
+
+    public void append(int symbolId, double price, long timestamp) {
+        rings.get(symbolId).append(price, timestamp);
+    }
+
+    /**
+     * Empties the symbol's window; the next consumer sees only ticks appended after this.
+     */
+    @Override
+    public void release(int symbolId) {
+        TickRing ring = rings.getIfPresent(symbolId);
+        if (ring != null) {
+            ring.clear();
+        }
+    }
+
+    /**
+     * @return How many ticks are buffered for the symbol, capped at {@link #capacity()}.
+     */
+    public int size(int symbolId) {
+        TickRing ring = rings.getIfPresent(symbolId);
+        return ring == null ? 0 : ring.size();
+    }
+
+    /**
+     * Copies the latest {@code window.length()} ticks (or fewer, if not that many arrived yet)
+     * into the window, oldest first.
+     *
+     * @return The number of ticks copied, also available as {@link TickWindow#size()}.
+     */
+    public int fill(int symbolId, TickWindow window) {
+        TickRing ring = rings.getIfPresent(symbolId);
+        int copied = ring == null ? 0 : ring.copyLatest(window.priceArray(), window.timestampArray(), window.length());
+        window.setSize(copied);
+        return copied;
+    }
+
+    public int fill(String symbol, TickWindow window) {
+        int symbolId = symbolRegistry.find(symbol);
+        if (symbolId < 0) {
+            window.setSize(0);
+            return 0;
+        }
+        return fill(symbolId, window);
+    }
+
+    private static final class TickRing {
+        private final double[] prices;
+        private final long[] timestamps;
+        private final StampedLock lock = new StampedLock();
+        private long count; // Total ticks ever appended; the next write goes to count % capacity
+
+        TickRing(int capacity) {
+            this.prices = new double[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        void append(double price, long timestamp) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = (int) (count % prices.length);
+                prices[slot] = price;
+                timestamps[slot] = timestamp;
+                count++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                count = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.tryOptimisticRead();
+            long n = count;
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    n = count;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return (int) Math.min(n, prices.length);
+        }
+
+        int copyLatest(double[] priceOut, long[] timestampOut, int maxLength) {
+            long stamp = lock.tryOptimisticRead();
+            int copied = copy(priceOut, timestampOut, maxLength);
+            if (!lock.validate(stamp)) {
+                // A writer got in the way; retry under the read lock
+                stamp = lock.readLock();
+                try {
+                    copied = copy(priceOut, timestampOut, maxLength);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return copied;
+        }
+
+        private int copy(double[] priceOut, long[] timestampOut, int maxLength) {
+            long total = count;
+            int n = (int) Math.min(Math.min(total, prices.length), maxLength);
+            int start = (int) ((total - n) % prices.length);
+            // The window may wrap around the end of the ring, so copy in up to two runs
+            int firstRun = Math.min(n, prices.length - start);
+            System.arraycopy(prices, start, priceOut, 0, firstRun);
+            System.arraycopy(timestamps, start, timestampOut, 0, firstRun);
+            System.arraycopy(prices, 0, priceOut, firstRun, n - firstRun);
+            System.arraycopy(timestamps, 0, timestampOut, firstRun, n - firstRun);
+            return n;
+        }
+    }
+}
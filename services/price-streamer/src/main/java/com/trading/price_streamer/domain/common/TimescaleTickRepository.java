@@ -0,0 +1,104 @@
+package com.trading.price_streamer.domain.common;
+
+import com.trading.price_streamer.domain.backtest.PriceSeries;
+import com.trading.price_streamer.domain.candle.Candle;
+import com.trading.price_streamer.domain.candle.CandleInterval;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Range queries that downsample price_ticks inside TimescaleDB, so only one row per bucket leaves
+ * the database. Intervals with a continuous aggregate (1m, 5m, 1h, 1d, see
+ * {@code db/timescale/V3__price_ticks_aggregates.sql}) read its materialized bars; any other
+ * bucket is computed from the raw ticks with {@code time_bucket}.
+ * <p>
+ * Only present in TimescaleDB storage mode ({@code storage.timescale.enabled=true}). All ranges
+ * are half-open, [start, end).
+ */
+@Repository
+@ConditionalOnProperty(name = "storage.timescale.enabled", havingValue = "true")
+public class TimescaleTickRepository {
+
+    private static final Map<CandleInterval, String> AGGREGATES = new EnumMap<>(Map.of(
+            CandleInterval.M1, "price_ticks_1m",
+            CandleInterval.M5, "price_ticks_5m",
+            CandleInterval.H1, "price_ticks_1h",
+            CandleInterval.D1, "price_ticks_1d"));
+
+    private static final String RAW_CANDLES =
+            "SELECT time_bucket(CAST(? AS INTERVAL), timestamp) AS bucket, first(price, timestamp) AS open, " +
+            "max(price) AS high, min(price) AS low, last(price, timestamp) AS close, count(*) AS tick_count " +
+            "FROM price_ticks WHERE symbol = ? AND timestamp >= ? AND timestamp < ? " +
+            "GROUP BY bucket ORDER BY bucket";
+
+    private static final String RAW_CLOSES =
+            "SELECT time_bucket(CAST(? AS INTERVAL), timestamp) AS bucket, last(price, timestamp) AS close " +
+            "FROM price_ticks WHERE symbol = ? AND timestamp >= ? AND timestamp < ? " +
+            "GROUP BY bucket ORDER BY bucket";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return The symbol's OHLC bars whose open time falls in [start, end), oldest first.
+     */
+    public List<Candle> findCandles(String symbol, CandleInterval interval, Instant start, Instant end) {
+        String aggregate = AGGREGATES.get(interval);
+        if (aggregate != null) {
+            return jdbcTemplate.query(
+                    "SELECT bucket, open, high, low, close, tick_count FROM " + aggregate +
+                            " WHERE symbol = ? AND bucket >= ? AND bucket < ? ORDER BY bucket",
+                    candleMapper(symbol, interval), symbol, Timestamp.from(start), Timestamp.from(end));
+        }
+        return jdbcTemplate.query(RAW_CANDLES, candleMapper(symbol, interval),
+                Duration.ofMillis(interval.getMillis()).toString(), symbol, Timestamp.from(start), Timestamp.from(end));
+    }
+
+    /**
+     * Downsamples the symbol's ticks to the last price of every bucket, for backtests that do not
+     * need every tick. Each entry is timestamped with its bucket's start time.
+     *
+     * @param bucket The bucket length; 1m, 5m, 1h and 1d are read from the continuous aggregates.
+     */
+    public PriceSeries findCloses(String symbol, Duration bucket, Instant start, Instant end) {
+        PriceSeries.Builder series = PriceSeries.builder();
+        String aggregate = aggregateFor(bucket);
+        if (aggregate != null) {
+            jdbcTemplate.query(
+                    "SELECT bucket, close FROM " + aggregate +
+                            " WHERE symbol = ? AND bucket >= ? AND bucket < ? ORDER BY bucket",
+                    (RowCallbackHandler) rs -> series.add(rs.getTimestamp(1).getTime(), rs.getDouble(2)),
+                    symbol, Timestamp.from(start), Timestamp.from(end));
+        } else {
+            jdbcTemplate.query(RAW_CLOSES,
+                    (RowCallbackHandler) rs -> series.add(rs.getTimestamp(1).getTime(), rs.getDouble(2)),
+                    bucket.toString(), symbol, Timestamp.from(start), Timestamp.from(end));
+        }
+        return series.build();
+    }
+
+    private static RowMapper<Candle> candleMapper(String symbol, CandleInterval interval) {
+        return (rs, row) -> new Candle(symbol, interval.getCode(), rs.getTimestamp(1).toInstant(),
+                rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getLong(6));
+    }
+
+    private static String aggregateFor(Duration bucket) {
+        for (Map.Entry<CandleInterval, String> aggregate : AGGREGATES.entrySet()) {
+            if (aggregate.getKey().getMillis() == bucket.toMillis()) {
+                return aggregate.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.trading.price_streamer.domain.indicator;
+
+/**
+ * Bollinger bands: the simple moving average of the last {@code period} prices ({@link #value()},
+ * the middle band) and bands {@code k} population standard deviations above and below it.
+ * <p>
+ * Mean and squared deviations are slid with Welford's update rather than kept as a sum of
+ * squares, which at BTC prices would lose most of its precision to cancellation.
+ */
+public final class BollingerBands implements Indicator {
+
+    private final int period;
+    private final double k;
+    private final double[] ring;
+    private long count;
+    private double mean;
+    private double m2; // Sum of squared deviations from the mean
+    private double middle;
+    private double deviation;
+
+    public BollingerBands(int period, double k) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Bollinger period must be positive, got " + period);
+        }
+        this.period = period;
+        this.k = k;
+        this.ring = new double[period];
+    }
+
+    @Override
+    public void update(long timestamp, double price) {
+        int slot = (int) (count % period);
+        if (count < period) {
+            double delta = price - mean;
+            mean += delta / (count + 1);
+            m2 += delta * (price - mean);
+        } else {
+            double dropped = ring[slot];
+            double previousMean = mean;
+            mean += (price - dropped) / period;
+            m2 += (price - dropped) * (price - mean + dropped - previousMean);
+        }
+        ring[slot] = price;
+        count++;
+        if (count >= period) {
+            middle = mean;
+            deviation = Math.sqrt(Math.max(0, m2) / period);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    /**
+     * @return The middle band.
+     */
+    @Override
+    public double value() {
+        return middle;
+    }
+
+    public double upper() {
+        return middle + k * deviation;
+    }
+
+    public double lower() {
+        return middle - k * deviation;
+    }
+
+    /**
+     * @return The population standard deviation of the window.
+     */
+    public double standardDeviation() {
+        return deviation;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        middle = 0;
+        deviation = 0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.trading.price_streamer.domain.indicator;
+
+/**
+ * Exponential moving average with smoothing factor {@code 2 / (period + 1)}, seeded with the
+ * simple average of the first {@code period} prices.
+ */
+public final class Ema implements Indicator {
+
+    private final int period;
+    private final double alpha;
+    private long count;
+    private double seedSum;
+    private double value;
+
+    public Ema(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("EMA period must be positive, got " + period);
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    public int period() {
+        return period;
+    }
+
+    @Override
+    public void update(long timestamp, double price) {
+        if (count < period) {
+            seedSum += price;
+            if (count == period - 1) {
+                value = seedSum / period;
+            }
+        } else {
+            value += alpha * (price - value);
+        }
+        count++;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        seedSum = 0;
+        value = 0;
+    }
+}
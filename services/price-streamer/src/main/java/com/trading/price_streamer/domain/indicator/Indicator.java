@@ -0,0 +1,32 @@
+package com.trading.price_streamer.domain.indicator;
+
+/**
+ * A technical indicator computed one tick at a time, for backtests and live ticks alike.
+ * <p>
+ * {@link #update} does a constant amount of work on primitive state, whatever the period, and
+ * never allocates. Until the indicator has seen enough ticks ({@link #isReady()}), its value is 0,
+ * like the leading entries of {@code BacktestingService.calculateSMA}. Instances are not
+ * thread-safe; each symbol or backtest needs its own.
+ */
+public interface Indicator {
+
+    /**
+     * Takes in the next tick; ticks must arrive in timestamp order.
+     */
+    void update(long timestamp, double price);
+
+    /**
+     * @return Whether enough ticks have been seen for {@link #value()} to be meaningful.
+     */
+    boolean isReady();
+
+    /**
+     * @return The indicator's value after the latest tick, 0 while not ready.
+     */
+    double value();
+
+    /**
+     * Forgets every tick seen so far.
+     */
+    void reset();
+}
@@ -0,0 +1,80 @@
+package com.trading.price_streamer.domain.indicator;
+
+/**
+ * Relative strength index with Wilder's smoothing, from 0 to 100.
+ * <p>
+ * The first average gain and loss are the plain means of the first {@code period} price changes;
+ * after that each is smoothed as {@code (average * (period - 1) + change) / period}. Ready after
+ * {@code period + 1} prices. A window with no losses reads 100, one without any change 50.
+ */
+public final class Rsi implements Indicator {
+
+    private final int period;
+    private long count;
+    private double previousPrice;
+    private double averageGain;
+    private double averageLoss;
+    private double value;
+
+    public Rsi(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("RSI period must be positive, got " + period);
+        }
+        this.period = period;
+    }
+
+    public int period() {
+        return period;
+    }
+
+    @Override
+    public void update(long timestamp, double price) {
+        if (count > 0) {
+            double change = price - previousPrice;
+            double gain = change > 0 ? change : 0;
+            double loss = change < 0 ? -change : 0;
+            if (count <= period) {
+                // Seeding: plain sums, turned into means once the first period is complete
+                averageGain += gain;
+                averageLoss += loss;
+                if (count == period) {
+                    averageGain /= period;
+                    averageLoss /= period;
+                    value = rsi();
+                }
+            } else {
+                averageGain = (averageGain * (period - 1) + gain) / period;
+                averageLoss = (averageLoss * (period - 1) + loss) / period;
+                value = rsi();
+            }
+        }
+        previousPrice = price;
+        count++;
+    }
+
+    private double rsi() {
+        if (averageLoss == 0) {
+            return averageGain == 0 ? 50 : 100;
+        }
+        return 100 - 100 / (1 + averageGain / averageLoss);
+    }
+
+    @Override
+    public boolean isReady() {
+        return count > period;
+    }
+
+    @Override
+    public double value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        previousPrice = 0;
+        averageGain = 0;
+        averageLoss = 0;
+        value = 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.trading.price_streamer.domain.indicator;
+
+/**
+ * Simple moving average of the last {@code period} prices.
+ * <p>
+ * The sum is seeded with the first {@code period} prices and then slid by adding the new price
+ * and subtracting the one that drops out, read from a ring. These are the same floating-point
+ * operations as {@code BacktestingService.calculateSMA}, so the values are identical.
+ */
+public final class Sma implements Indicator {
+
+    private final int period;
+    private final double[] ring;
+    private long count;
+    private double sum;
+    private double value;
+
+    public Sma(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("SMA period must be positive, got " + period);
+        }
+        this.period = period;
+        this.ring = new double[period];
+    }
+
+    public int period() {
+        return period;
+    }
+
+    @Override
+    public void update(long timestamp, double price) {
+        int slot = (int) (count % period);
+        if (count < period) {
+            sum += price;
+            if (count == period - 1) {
+                value = sum / period;
+            }
+        } else {
+            sum += price - ring[slot];
+            value = sum / period;
+        }
+        ring[slot] = price;
+        count++;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        sum = 0;
+        value = 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.trading.price_streamer.domain.indicator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Volume-weighted average price since the start of the current session (by default the UTC day),
+ * restarting at every session boundary.
+ * <p>
+ * Price ticks in this pipeline carry no traded size, so {@link #update(long, double)} weighs every
+ * tick equally; {@link #update(long, double, double)} takes the volume for feeds that have it.
+ */
+public final class Vwap implements Indicator {
+
+    private final long sessionMillis;
+    private long session = Long.MIN_VALUE;
+    private double priceVolume;
+    private double volume;
+    private double value;
+
+    public Vwap() {
+        this(TimeUnit.DAYS.toMillis(1));
+    }
+
+    public Vwap(long sessionMillis) {
+        if (sessionMillis < 1) {
+            throw new IllegalArgumentException("VWAP session must be positive, got " + sessionMillis);
+        }
+        this.sessionMillis = sessionMillis;
+    }
+
+    @Override
+    public void update(long timestamp, double price) {
+        update(timestamp, price, 1);
+    }
+
+    public void update(long timestamp, double price, double tickVolume) {
+        long tickSession = Math.floorDiv(timestamp, sessionMillis);
+        if (tickSession != session) {
+            session = tickSession;
+            priceVolume = 0;
+            volume = 0;
+        }
+        priceVolume += price * tickVolume;
+        volume += tickVolume;
+        value = volume == 0 ? 0 : priceVolume / volume;
+    }
+
+    @Override
+    public boolean isReady() {
+        return volume > 0;
+    }
+
+    @Override
+    public double value() {
+        return value;
+    }
+
+    @Override
+    public void reset() {
+        session = Long.MIN_VALUE;
+        priceVolume = 0;
+        volume = 0;
+        value = 0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.trading.price_streamer.domain.signal;
+
+import com.trading.price_streamer.domain.common.ShardedSymbolState;
+import com.trading.price_streamer.domain.common.Signal;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.SymbolSlots;
+import com.trading.price_streamer.domain.strategy.CrossoverStrategy;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes SMA crossover signals as ticks are consumed and broadcasts only the BUY/SELL
+ * transitions on /topic/signals/{symbol}. Every symbol runs every configuration listed in
+ * {@code signals.sma-crossover.configs} (e.g. "10/30,5/20"). Nothing here touches the database.
+ * <p>
+ * Each configuration is a {@link CrossoverStrategy}, the same class backtests run, so a live
+ * BUY/SELL lands on the same tick as in a backtest over the same data.
+ */
+@Service
+public class LiveSignalService implements ShardedSymbolState {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Value("${signals.sma-crossover.configs:10/30}")
+    private String[] configs;
+
+    // How many past transitions per symbol /signals/recent can return
+    @Value("${signals.recent-size:50}")
+    private int recentSize;
+
+    private int[][] periods;
+    private SymbolSlots<SymbolSignals> symbols;
+
+    @PostConstruct
+    void init() {
+        periods = new int[configs.length][];
+        for (int i = 0; i < configs.length; i++) {
+            String[] parts = configs[i].trim().split("/");
+            periods[i] = new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+            if (periods[i][0] < 1 || periods[i][0] >= periods[i][1]) {
+                throw new IllegalArgumentException("Need 1 <= shortPeriod < longPeriod, got " + configs[i].trim());
+            }
+        }
+        symbols = new SymbolSlots<>(id -> new SymbolSignals(periods));
+    }
+
+    public void onTick(int symbolId, double price, long timestamp) {
+        SymbolSignals state = symbols.get(symbolId);
+        List<SignalEvent> fired = null; // Only allocated on an actual transition
+
+        synchronized (state) {
+            for (int i = 0; i < state.strategies.length; i++) {
+                CrossoverStrategy strategy = state.strategies[i];
+                Signal signal = strategy.onTick(timestamp, price);
+                if (signal == Signal.HOLD) {
+                    continue;
+                }
+                SignalEvent event = new SignalEvent(symbolRegistry.nameOf(symbolId), signal,
+                        periods[i][0], periods[i][1], price, timestamp,
+                        strategy.fast().value(), strategy.slow().value());
+                if (state.recent.size() == recentSize) {
+                    state.recent.removeFirst();
+                }
+                state.recent.addLast(event);
+                if (fired == null) {
+                    fired = new ArrayList<>(2);
+                }
+                fired.add(event);
+            }
+        }
+
+        if (fired != null) {
+            for (SignalEvent event : fired) {
+                messagingTemplate.convertAndSend("/topic/signals/" + event.symbol(), event);
+            }
+        }
+    }
+
+    /**
+     * Restarts the symbol's moving averages from scratch, so a gap in its ticks cannot show up
+     * as a crossover. Past transitions stay available from {@link #getRecentSignals}.
+     */
+    @Override
+    public void release(int symbolId) {
+        SymbolSignals state = symbols.getIfPresent(symbolId);
+        if (state != null) {
+            synchronized (state) {
+                state.reset(periods);
+            }
+        }
+    }
+
+    /**
+     * @return The symbol's most recent transitions, oldest first.
+     */
+    public List<SignalEvent> getRecentSignals(String symbol) {
+        int symbolId = symbolRegistry.find(symbol);
+        SymbolSignals state = symbolId < 0 ? null : symbols.getIfPresent(symbolId);
+        if (state == null) {
+            return Collections.emptyList();
+        }
+        synchronized (state) {
+            return new ArrayList<>(state.recent);
+        }
+    }
+
+    private static final class SymbolSignals {
+        private final CrossoverStrategy[] strategies;
+        private final ArrayDeque<SignalEvent> recent = new ArrayDeque<>();
+
+        SymbolSignals(int[][] periods) {
+            strategies = new CrossoverStrategy[periods.length];
+            reset(periods);
+        }
+
+        void reset(int[][] periods) {
+            for (int i = 0; i < periods.length; i++) {
+                strategies[i] = CrossoverStrategy.sma(periods[i][0], periods[i][1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.trading.price_streamer.domain.signal;
+
+import com.trading.price_streamer.domain.common.Signal;
+
+/**
+ * A BUY or SELL transition of one SMA crossover configuration, as broadcast on /topic/signals/{symbol}.
+ *
+ * @param timestamp The producer timestamp (epoch milliseconds) of the tick that caused it.
+ */
+public record SignalEvent(String symbol, Signal signal, int shortPeriod, int longPeriod,
+                          double price, long timestamp, double shortSma, double longSma) {
+}
@@ -0,0 +1,45 @@
+package com.trading.price_streamer.domain.strategy;
+
+import com.trading.price_streamer.domain.common.Signal;
+import com.trading.price_streamer.domain.indicator.BollingerBands;
+
+/**
+ * Mean reversion on Bollinger bands: BUY when the price falls below the lower band, SELL when it
+ * rises above the upper one. Each signal is given once, on the tick the price leaves the bands.
+ */
+public final class BollingerStrategy implements Strategy {
+
+    private final BollingerBands bands;
+    private final int period;
+    private final double k;
+    private Signal zone = Signal.HOLD;
+
+    public BollingerStrategy(int period, double k) {
+        this.bands = new BollingerBands(period, k);
+        this.period = period;
+        this.k = k;
+    }
+
+    @Override
+    public String name() {
+        return "Bollinger (" + period + ", " + k + ")";
+    }
+
+    @Override
+    public Signal onTick(long timestamp, double price) {
+        bands.update(timestamp, price);
+        if (!bands.isReady()) {
+            return Signal.HOLD;
+        }
+        Signal current = price < bands.lower() ? Signal.BUY : price > bands.upper() ? Signal.SELL : Signal.HOLD;
+        Signal previous = zone;
+        zone = current;
+        return current != previous ? current : Signal.HOLD;
+    }
+
+    @Override
+    public void reset() {
+        bands.reset();
+        zone = Signal.HOLD;
+    }
+}
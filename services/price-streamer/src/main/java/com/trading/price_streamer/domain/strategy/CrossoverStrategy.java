@@ -0,0 +1,78 @@
+package com.trading.price_streamer.domain.strategy;
+
+import com.trading.price_streamer.domain.common.Signal;
+import com.trading.price_streamer.domain.indicator.Ema;
+import com.trading.price_streamer.domain.indicator.Indicator;
+import com.trading.price_streamer.domain.indicator.Sma;
+
+/**
+ * BUY when the fast average crosses above the slow one, SELL when it crosses below.
+ * <p>
+ * Signals are only given once the slow average was already established on the previous tick.
+ * Averages that are not established yet count as 0 in the comparison. With two {@link Sma}s this
+ * is exactly {@code BacktestingService.generateSmaCrossoverSignals}, so live signals and
+ * {@code SmaCrossoverEngine} backtests trade on the same ticks.
+ */
+public final class CrossoverStrategy implements Strategy {
+
+    private final String name;
+    private final Indicator fast;
+    private final Indicator slow;
+
+    private CrossoverStrategy(String name, Indicator fast, Indicator slow) {
+        this.name = name;
+        this.fast = fast;
+        this.slow = slow;
+    }
+
+    public static CrossoverStrategy sma(int shortPeriod, int longPeriod) {
+        return new CrossoverStrategy("SMA Crossover (" + shortPeriod + ", " + longPeriod + ")",
+                new Sma(shortPeriod), new Sma(longPeriod));
+    }
+
+    public static CrossoverStrategy ema(int shortPeriod, int longPeriod) {
+        return new CrossoverStrategy("EMA Crossover (" + shortPeriod + ", " + longPeriod + ")",
+                new Ema(shortPeriod), new Ema(longPeriod));
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public Indicator fast() {
+        return fast;
+    }
+
+    public Indicator slow() {
+        return slow;
+    }
+
+    @Override
+    public Signal onTick(long timestamp, double price) {
+        double prevFast = fast.value();
+        double prevSlow = slow.value();
+        boolean established = slow.isReady();
+        fast.update(timestamp, price);
+        slow.update(timestamp, price);
+        if (!established) {
+            return Signal.HOLD;
+        }
+
+        double fastValue = fast.value();
+        double slowValue = slow.value();
+        if (fastValue > slowValue && prevFast <= prevSlow) {
+            return Signal.BUY;
+        }
+        if (fastValue < slowValue && prevFast >= prevSlow) {
+            return Signal.SELL;
+        }
+        return Signal.HOLD;
+    }
+
+    @Override
+    public void reset() {
+        fast.reset();
+        slow.reset();
+    }
+}
@@ -0,0 +1,49 @@
+package com.trading.price_streamer.domain.strategy;
+
+import com.trading.price_streamer.domain.common.Signal;
+import com.trading.price_streamer.domain.indicator.Rsi;
+
+/**
+ * Mean reversion on the RSI: BUY when it drops below {@code oversold}, SELL when it rises above
+ * {@code overbought}. Each signal is given once, on the tick the RSI enters the zone.
+ */
+public final class RsiStrategy implements Strategy {
+
+    private final Rsi rsi;
+    private final double oversold;
+    private final double overbought;
+    private Signal zone = Signal.HOLD;
+
+    public RsiStrategy(int period, double oversold, double overbought) {
+        if (oversold >= overbought) {
+            throw new IllegalArgumentException("Need oversold < overbought, got " + oversold + "/" + overbought);
+        }
+        this.rsi = new Rsi(period);
+        this.oversold = oversold;
+        this.overbought = overbought;
+    }
+
+    @Override
+    public String name() {
+        return "RSI (" + rsi.period() + ", " + oversold + ", " + overbought + ")";
+    }
+
+    @Override
+    public Signal onTick(long timestamp, double price) {
+        rsi.update(timestamp, price);
+        if (!rsi.isReady()) {
+            return Signal.HOLD;
+        }
+        double value = rsi.value();
+        Signal current = value < oversold ? Signal.BUY : value > overbought ? Signal.SELL : Signal.HOLD;
+        Signal previous = zone;
+        zone = current;
+        return current != previous ? current : Signal.HOLD;
+    }
+
+    @Override
+    public void reset() {
+        rsi.reset();
+        zone = Signal.HOLD;
+    }
+}
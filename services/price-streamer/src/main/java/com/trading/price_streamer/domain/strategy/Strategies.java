@@ -0,0 +1,76 @@
+package com.trading.price_streamer.domain.strategy;
+
+import java.util.function.Supplier;
+
+/**
+ * Builds strategies from specs such as {@code sma-crossover:10/30}, as taken by the backtest API:
+ * <ul>
+ *     <li>{@code sma-crossover:<short>/<long>} and {@code ema-crossover:<short>/<long>}</li>
+ *     <li>{@code rsi:<period>/<oversold>/<overbought>}, e.g. {@code rsi:14/30/70}</li>
+ *     <li>{@code bollinger:<period>/<k>}, e.g. {@code bollinger:20/2}</li>
+ * </ul>
+ */
+public final class Strategies {
+
+    private Strategies() {
+    }
+
+    /**
+     * @return Creates a fresh instance of the strategy per call, one for each symbol or backtest.
+     * @throws IllegalArgumentException If the spec is malformed or its parameters are invalid.
+     */
+    public static Supplier<Strategy> parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Strategy spec must look like name:params, got " + spec);
+        }
+        String name = spec.substring(0, colon).trim();
+        String[] params = spec.substring(colon + 1).split("/");
+        Supplier<Strategy> factory;
+        try {
+            factory = switch (name) {
+                case "sma-crossover" -> {
+                    int shortPeriod = intParam(params, 0, 2);
+                    int longPeriod = intParam(params, 1, 2);
+                    yield () -> CrossoverStrategy.sma(shortPeriod, longPeriod);
+                }
+                case "ema-crossover" -> {
+                    int shortPeriod = intParam(params, 0, 2);
+                    int longPeriod = intParam(params, 1, 2);
+                    yield () -> CrossoverStrategy.ema(shortPeriod, longPeriod);
+                }
+                case "rsi" -> {
+                    int period = intParam(params, 0, 3);
+                    double oversold = doubleParam(params, 1, 3);
+                    double overbought = doubleParam(params, 2, 3);
+                    yield () -> new RsiStrategy(period, oversold, overbought);
+                }
+                case "bollinger" -> {
+                    int period = intParam(params, 0, 2);
+                    double k = doubleParam(params, 1, 2);
+                    yield () -> new BollingerStrategy(period, k);
+                }
+                default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameters in strategy spec " + spec);
+        }
+        factory.get(); // Rejects invalid parameters now rather than on first use
+        return factory;
+    }
+
+    private static int intParam(String[] params, int index, int expected) {
+        return Integer.parseInt(param(params, index, expected));
+    }
+
+    private static double doubleParam(String[] params, int index, int expected) {
+        return Double.parseDouble(param(params, index, expected));
+    }
+
+    private static String param(String[] params, int index, int expected) {
+        if (params.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " parameters, got " + params.length);
+        }
+        return params[index].trim();
+    }
+}
@@ -0,0 +1,29 @@
+package com.trading.price_streamer.domain.strategy;
+
+import com.trading.price_streamer.domain.common.Signal;
+
+/**
+ * A trading strategy fed one tick at a time, so the same instance logic runs in backtests and on
+ * live ticks. {@link #onTick} does constant work per tick (its indicators are
+ * {@link com.trading.price_streamer.domain.indicator.Indicator}s). Instances hold per-symbol
+ * state and are not thread-safe.
+ */
+public interface Strategy {
+
+    /**
+     * @return A label including the parameters, used as the backtest result's strategy name.
+     */
+    String name();
+
+    /**
+     * Takes in the next tick.
+     *
+     * @return BUY or SELL on a transition, otherwise HOLD.
+     */
+    Signal onTick(long timestamp, double price);
+
+    /**
+     * Forgets every tick seen so far.
+     */
+    void reset();
+}
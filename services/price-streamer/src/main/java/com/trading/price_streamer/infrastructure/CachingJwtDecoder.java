@@ -0,0 +1,117 @@
+package com.trading.price_streamer.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers tokens that already passed full validation, so the REST filter chain and STOMP
+ * CONNECT only verify a signature the first time they see a token.
+ * <p>
+ * Entries are keyed by the SHA-256 of the token (the token itself is never held) and expire at
+ * the token's {@code exp}; after that the token goes back through the delegate, which rejects
+ * it. Tokens without an expiry and tokens that fail validation are never cached. The cache is
+ * bounded: once {@code maxSize} entries are held, new tokens are validated but not stored until
+ * the periodic purge has dropped expired ones.
+ * <p>
+ * Exposes the standard {@code cache.gets{cache=jwt,result=hit|miss}}, {@code cache.size} and
+ * {@code cache.evictions} meters.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final String CACHE_NAME = "jwt";
+
+    private final JwtDecoder delegate;
+    private final int maxSize;
+    private final Clock clock;
+    private final Map<String, Jwt> validated = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every JVM", e);
+        }
+    });
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxSize, MeterRegistry meterRegistry) {
+        this(delegate, maxSize, meterRegistry, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, int maxSize, MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Tokens found in the validated-token cache").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Tokens that had to be fully validated").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .description("Validated tokens dropped at expiry").register(meterRegistry);
+        Gauge.builder("cache.size", validated, Map::size).tag("cache", CACHE_NAME)
+                .description("Validated tokens currently cached").register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = validated.get(key);
+        if (cached != null) {
+            if (clock.instant().isBefore(cached.getExpiresAt())) {
+                hits.increment();
+                return cached;
+            }
+            if (validated.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        Jwt jwt = delegate.decode(token); // Throws for anything invalid, which is then not cached
+        if (jwt.getExpiresAt() != null && clock.instant().isBefore(jwt.getExpiresAt()) && validated.size() < maxSize) {
+            validated.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Drops every entry whose token has expired.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        int purged = 0;
+        for (Map.Entry<String, Jwt> entry : validated.entrySet()) {
+            if (!now.isBefore(entry.getValue().getExpiresAt()) && validated.remove(entry.getKey(), entry.getValue())) {
+                purged++;
+            }
+        }
+        evictions.increment(purged);
+    }
+
+    int size() {
+        return validated.size();
+    }
+
+    private static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+}
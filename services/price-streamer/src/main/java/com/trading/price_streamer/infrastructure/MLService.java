@@ -1,58 +1,329 @@
 package com.trading.price_streamer.infrastructure;
 
-import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.SymbolSlots;
+import com.trading.price_streamer.domain.common.TickWindow;
+import com.trading.price_streamer.domain.common.TickWindowStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class MLService {
 
+    private static final Logger log = LoggerFactory.getLogger(MLService.class);
+    // An unreachable ML service fails every call; one line every 10 s is plenty
+    private static final RateLimitedLogger errorLog = new RateLimitedLogger(log, Duration.ofSeconds(10));
+
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TickWindowStore tickWindowStore;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${ml.service.url}")
     private String mlServiceUrl;
 
-    public String getPrediction(List<PriceTickEntity> recentTicks) {
-        // *** MODIFIED PART: Convert entities to the correct request format ***
-        PredictionRequest request = new PredictionRequest(recentTicks);
+    @Value("${ml.service.max-in-flight-per-symbol:1}")
+    private int maxInFlightPerSymbol;
+
+    @Value("${ml.service.worker-threads:4}")
+    private int workerThreads;
+
+    // Most symbols' feature vectors sent in one /predict/batch call
+    @Value("${ml.service.batch-size:32}")
+    private int batchSize;
+
+    @Value("${ml.service.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${ml.service.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${ml.service.report-interval-ms:60000}")
+    private long reportIntervalMs;
+
+    private ExecutorService executor;
+    private CircuitBreaker circuitBreaker;
+
+    private final SymbolSlots<SymbolState> symbols = new SymbolSlots<>(id -> new SymbolState());
+    // Symbols with a call granted, waiting for a worker to put them in a batch
+    private final Queue<Integer> ready = new ConcurrentLinkedQueue<>();
+    // Workers draining the queue; never more than workerThreads
+    private final AtomicInteger senders = new AtomicInteger();
+    // Each worker reuses one window to read ticks out of the store
+    private ThreadLocal<TickWindow> windows;
+
+    // Request statistics, reset every time a report is printed
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejectedByBreaker = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private volatile long maxLatencyNanos;
+    private volatile long reportStartMillis = System.currentTimeMillis();
+
+    // Micrometer view of the same statistics, never reset
+    private Timer successTimer;
+    private Timer failureTimer;
+    private Counter coalescedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "ml-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMs);
+        if (tickWindowStore.capacity() < PredictionFeatures.WINDOW) {
+            throw new IllegalStateException("tick-window.capacity must be at least " + PredictionFeatures.WINDOW + " for ML features");
+        }
+        windows = ThreadLocal.withInitial(() -> new TickWindow(PredictionFeatures.WINDOW));
+        batchSize = Math.max(1, batchSize);
+
+        successTimer = requestTimer("success");
+        failureTimer = requestTimer("failure");
+        coalescedCounter = Counter.builder("ml.request.coalesced")
+                .description("Prediction requests folded into one that was already waiting")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("ml.request.rejected")
+                .description("Prediction requests dropped while the circuit breaker was open")
+                .register(meterRegistry);
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("ml.request")
+                .description("Round trip of one call to the ML service")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Asks the ML service for a prediction on the symbol's latest ticks without blocking the
+     * caller. The result is broadcast on /topic/predictions/{symbol} once it arrives.
+     * <p>
+     * The request carries the symbol's {@link PredictionFeatures} vector, computed when it is sent,
+     * rather than the ticks themselves. Symbols waiting to be sent at the same time share one
+     * /predict/batch call of up to {@code ml.service.batch-size} vectors.
+     * <p>
+     * At most {@code ml.service.max-in-flight-per-symbol} calls run per symbol. Requests made
+     * while that limit is reached are coalesced: when a call finishes, one more is sent with
+     * whatever the window holds at that moment. Requests are dropped outright while the
+     * circuit breaker is open.
+     *
+     * @param symbolId The symbol's {@link com.trading.price_streamer.domain.common.SymbolRegistry} id.
+     */
+    public void requestPrediction(int symbolId) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedByBreaker.increment();
+            rejectedCounter.increment();
+            return;
+        }
 
+        SymbolState state = symbols.get(symbolId);
+        synchronized (state) {
+            if (state.inFlight >= maxInFlightPerSymbol) {
+                if (state.pending) {
+                    coalesced.increment(); // Folded into the request that is already waiting
+                    coalescedCounter.increment();
+                }
+                state.pending = true;
+                return;
+            }
+            state.inFlight++;
+        }
+        ready.add(symbolId);
+        if (tryStartSender()) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private boolean tryStartSender() {
+        int running;
+        do {
+            running = senders.get();
+            if (running >= workerThreads) {
+                return false;
+            }
+        } while (!senders.compareAndSet(running, running + 1));
+        return true;
+    }
+
+    // Sends batches until no symbol is waiting, then gives up its sender slot
+    private void drain() {
+        do {
+            List<Integer> batch;
+            while (!(batch = nextBatch()).isEmpty()) {
+                send(batch);
+            }
+            senders.decrementAndGet();
+            // A symbol queued after the last poll may have found every sender busy, so pick it up
+        } while (!ready.isEmpty() && tryStartSender());
+        reportIfDue();
+    }
+
+    private List<Integer> nextBatch() {
+        List<Integer> batch = new ArrayList<>(Math.min(batchSize, 16));
+        Integer symbolId;
+        while (batch.size() < batchSize && (symbolId = ready.poll()) != null) {
+            batch.add(symbolId);
+        }
+        return batch;
+    }
+
+    private void send(List<Integer> batch) {
+        long start = System.nanoTime();
         try {
-            Map<String, String> response = restTemplate.postForObject(mlServiceUrl + "/predict", request, Map.class);
-            return response != null ? response.get("prediction") : "N/A";
+            // Sent even if empty, so a half-open breaker always hears how its trial call went
+            PredictionBatchRequest request = batchRequest(batch);
+            PredictionBatchResponse response = restTemplate.postForObject(mlServiceUrl + "/predict/batch", request, PredictionBatchResponse.class);
+            circuitBreaker.recordSuccess();
+            recordLatency(System.nanoTime() - start, request.items().size());
+            if (response != null && response.predictions() != null) {
+                for (Prediction prediction : response.predictions()) {
+                    messagingTemplate.convertAndSend("/topic/predictions/" + prediction.symbol(), prediction.prediction());
+                    log.debug("AI Prediction for {}: {}", prediction.symbol(), prediction.prediction());
+                }
+            }
         } catch (Exception e) {
-            System.err.println("Error calling ML service: " + e.getMessage());
-            return "Error";
+            circuitBreaker.recordFailure();
+            failed.add(batch.size());
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            errorLog.warn("Error calling ML service: {}", e.getMessage());
+        }
+
+        // Send once more for symbols whose new ticks asked for a prediction while we were busy
+        for (int symbolId : batch) {
+            SymbolState state = symbols.get(symbolId);
+            boolean more;
+            synchronized (state) {
+                more = state.pending;
+                state.pending = false;
+                if (!more) {
+                    state.inFlight--;
+                }
+            }
+            if (more && !circuitBreaker.tryAcquire()) {
+                rejectedByBreaker.increment();
+                rejectedCounter.increment();
+                synchronized (state) {
+                    state.inFlight--;
+                }
+                more = false;
+            }
+            if (more) {
+                ready.add(symbolId);
+            }
         }
     }
 
-    // --- NEW, CORRECTED REQUEST STRUCTURE ---
+    // Symbols whose window was emptied since they asked are left out
+    PredictionBatchRequest batchRequest(List<Integer> batch) {
+        TickWindow window = windows.get();
+        List<FeatureVector> items = new ArrayList<>(batch.size());
+        for (int symbolId : batch) {
+            tickWindowStore.fill(symbolId, window);
+            double[] features = PredictionFeatures.of(window);
+            if (features != null) {
+                items.add(new FeatureVector(symbolRegistry.nameOf(symbolId), features));
+            }
+        }
+        return new PredictionBatchRequest(items);
+    }
 
-    // A DTO representing a single tick with a String timestamp
-    private static class MLPredictionTick {
-        public String timestamp;
-        public double price;
+    private void recordLatency(long nanos, int predictions) {
+        successTimer.record(nanos, TimeUnit.NANOSECONDS);
+        completed.add(predictions);
+        calls.increment();
+        totalLatencyNanos.add(nanos);
+        if (nanos > maxLatencyNanos) {
+            maxLatencyNanos = nanos; // Racy but good enough for a reporting maximum
+        }
+    }
 
-        public MLPredictionTick(PriceTickEntity entity) {
-            this.timestamp = entity.getTimestamp().toString(); // Convert Instant to ISO 8601 String
-            this.price = entity.getPrice();
+    private void reportIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - reportStartMillis < reportIntervalMs) {
+            return;
+        }
+        synchronized (this) {
+            if (now - reportStartMillis < reportIntervalMs) {
+                return;
+            }
+            long batches = calls.sumThenReset();
+            log.info(String.format("ML client: %d predictions in %d calls, %d failed, %d coalesced, %d dropped (breaker %s), avg latency %.1f ms, max latency %.1f ms",
+                    completed.sumThenReset(),
+                    batches,
+                    failed.sumThenReset(),
+                    coalesced.sumThenReset(),
+                    rejectedByBreaker.sumThenReset(),
+                    circuitBreaker.getState(),
+                    batches == 0 ? 0.0 : totalLatencyNanos.sumThenReset() / 1e6 / batches,
+                    maxLatencyNanos / 1e6));
+            maxLatencyNanos = 0;
+            reportStartMillis = now;
         }
     }
 
-    // The main request body containing a list of the new DTOs
-    private static class PredictionRequest {
-        public List<MLPredictionTick> ticks;
+    // Per-symbol bookkeeping for in-flight calls; guarded by its own monitor
+    private static class SymbolState {
+        private int inFlight;
+        private boolean pending;
+    }
 
-        public PredictionRequest(List<PriceTickEntity> entities) {
-            this.ticks = entities.stream()
-                    .map(MLPredictionTick::new)
-                    .collect(Collectors.toList());
-        }
+    // --- /predict/batch contract, mirrored by the pydantic models in ml-service/main.py ---
+
+    /**
+     * @param features The symbol's vector, in {@link PredictionFeatures#NAMES} order.
+     */
+    record FeatureVector(String symbol, double[] features) {
+    }
+
+    // Package-private for the benchmarks
+    record PredictionBatchRequest(List<FeatureVector> items) {
+    }
+
+    record Prediction(String symbol, String prediction) {
+    }
+
+    record PredictionBatchResponse(List<Prediction> predictions) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.trading.price_streamer.infrastructure;
+
+import com.trading.price_streamer.domain.common.TickWindow;
+
+import java.util.List;
+
+/**
+ * The feature vector the ML service's model takes for one prediction: what {@code create_features}
+ * in ml-service/model.py computes for the newest tick, in the order of {@code FEATURE_NAMES} there.
+ * <p>
+ * Every feature depends only on the last {@link #WINDOW} prices, so the vector is read straight
+ * off the symbol's {@link com.trading.price_streamer.domain.common.TickWindowStore} ring in constant
+ * time. The moving averages are summed over their window each time, so their error stays within
+ * a few ulps however long the stream runs. pandas keeps a compensated running sum instead, which is
+ * bounded too but rounds differently: the two agree to about 1e-14 relative, not bit for bit.
+ */
+final class PredictionFeatures {
+
+    static final List<String> NAMES = List.of("lag_1", "lag_2", "lag_3", "lag_4", "lag_5", "sma_5", "sma_10");
+
+    /** Ticks needed before the first vector, like the rows create_features drops as NaN. */
+    static final int WINDOW = 10;
+
+    private PredictionFeatures() {
+    }
+
+    /**
+     * Computes the vector for the newest tick in the window.
+     *
+     * @param window The symbol's latest ticks, oldest first, at least {@link #WINDOW} long.
+     * @return The features in {@link #NAMES} order, or null if fewer than {@link #WINDOW} ticks
+     *         arrived yet.
+     */
+    static double[] of(TickWindow window) {
+        int newest = window.size() - 1;
+        if (newest + 1 < WINDOW) {
+            return null;
+        }
+        double[] features = new double[NAMES.size()];
+        for (int lag = 1; lag <= 5; lag++) {
+            features[lag - 1] = window.price(newest - lag);
+        }
+        features[5] = mean(window, newest, 5);
+        features[6] = mean(window, newest, 10);
+        return features;
+    }
+
+    // Oldest first, the order the rolling window sees them in
+    private static double mean(TickWindow window, int newest, int period) {
+        double sum = 0;
+        for (int i = newest - period + 1; i <= newest; i++) {
+            sum += window.price(i);
+        }
+        return sum / period;
+    }
+}
@@ -0,0 +1,98 @@
+package com.trading.price_streamer.infrastructure;
+
+import com.trading.price_codec.PriceTick;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.SymbolSlots;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Conflating price fan-out to WebSocket clients.
+ * <p>
+ * Consumers only record the latest tick per symbol; every {@code websocket.conflation.interval-ms}
+ * the newest unsent tick of each symbol is broadcast on /topic/prices/{symbol}. However fast a
+ * symbol ticks, each subscriber gets at most one message per symbol per interval, and intermediate
+ * ticks are simply overwritten instead of queueing up behind slow sessions.
+ * <p>
+ * The flush runs on a thread of its own rather than on Spring's shared scheduler, whose single
+ * thread also runs slow jobs (candle writes, the tick archive export) that would otherwise hold
+ * live prices back.
+ */
+@Component
+public class PriceBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceBroadcaster.class);
+    // A failing broker would otherwise log ten times a second
+    private static final RateLimitedLogger errorLog = new RateLimitedLogger(log, Duration.ofSeconds(10));
+
+    public static final String DESTINATION_PREFIX = "/topic/prices/";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Value("${websocket.conflation.interval-ms:100}")
+    private long intervalMs;
+
+    private final SymbolSlots<AtomicReference<PriceTick>> latest = new SymbolSlots<>(id -> new AtomicReference<>());
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "price-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // An exception would cancel every later run of a scheduled task
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            errorLog.warn("Price broadcast failed: {}", e.toString());
+        }
+    }
+
+    /**
+     * Replaces the symbol's pending tick. Never blocks and never touches the broker.
+     */
+    public void publish(int symbolId, PriceTick tick) {
+        latest.get(symbolId).set(tick);
+    }
+
+    public void flush() {
+        int symbols = symbolRegistry.size();
+        for (int id = 0; id < symbols; id++) {
+            AtomicReference<PriceTick> slot = latest.getIfPresent(id);
+            if (slot == null) {
+                continue;
+            }
+            PriceTick tick = slot.getAndSet(null);
+            if (tick != null) {
+                messagingTemplate.convertAndSend(DESTINATION_PREFIX + tick.symbol(), tick);
+            }
+        }
+    }
+}
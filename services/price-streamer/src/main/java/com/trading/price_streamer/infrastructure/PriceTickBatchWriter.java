@@ -0,0 +1,127 @@
+package com.trading.price_streamer.infrastructure;
+
+import com.trading.price_codec.PriceTick;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes batches of ticks to the price_ticks table with multi-row INSERT statements.
+ * <p>
+ * The entity uses an IDENTITY key, so Hibernate would insert one row per round trip.
+ * Going through JDBC directly lets a whole flush share a handful of statements.
+ */
+@Component
+public class PriceTickBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceTickBatchWriter.class);
+
+    // Keeps each statement well under PostgreSQL's 65535 bind-parameter limit (3 params per row)
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${ingest.batch.report-interval-ms:10000}")
+    private long reportIntervalMs;
+
+    // Flush statistics, reset every time a report is printed
+    private long flushes;
+    private long rows;
+    private long totalFlushNanos;
+    private long maxFlushNanos;
+    private long reportStartNanos = System.nanoTime();
+
+    private Timer flushTimer;
+    private DistributionSummary flushSize;
+
+    @PostConstruct
+    void registerMeters() {
+        flushTimer = Timer.builder("tick.batch.flush")
+                .description("Time to write one batch of ticks to price_ticks")
+                .register(meterRegistry);
+        flushSize = DistributionSummary.builder("tick.batch.size")
+                .description("Ticks written per batch flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inserts all ticks in a single transaction.
+     *
+     * @param ticks The ticks to persist, in arrival order.
+     */
+    @Transactional
+    public void write(List<PriceTick> ticks) {
+        if (ticks.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        for (int from = 0; from < ticks.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<PriceTick> chunk = ticks.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, ticks.size()));
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(insertSql(chunk.size()));
+                int i = 1;
+                for (PriceTick tick : chunk) {
+                    ps.setString(i++, tick.symbol());
+                    ps.setDouble(i++, tick.price());
+                    ps.setTimestamp(i++, Timestamp.from(Instant.ofEpochMilli(tick.timestamp())));
+                }
+                return ps;
+            });
+        }
+
+        recordFlush(ticks.size(), System.nanoTime() - start);
+    }
+
+    private static String insertSql(int rowCount) {
+        StringBuilder sql = new StringBuilder(48 + rowCount * 10)
+                .append("INSERT INTO price_ticks (symbol, price, timestamp) VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "(?,?,?)" : ",(?,?,?)");
+        }
+        return sql.toString();
+    }
+
+    private synchronized void recordFlush(int size, long elapsedNanos) {
+        flushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        flushSize.record(size);
+        flushes++;
+        rows += size;
+        totalFlushNanos += elapsedNanos;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsedNanos);
+
+        long now = System.nanoTime();
+        long windowNanos = now - reportStartNanos;
+        if (windowNanos >= reportIntervalMs * 1_000_000L) {
+            log.info(String.format("Tick ingestion: %d flushes, avg size %.1f, avg latency %.2f ms, max latency %.2f ms, %.0f rows/s",
+                    flushes,
+                    (double) rows / flushes,
+                    totalFlushNanos / 1e6 / flushes,
+                    maxFlushNanos / 1e6,
+                    rows * 1e9 / windowNanos));
+            flushes = 0;
+            rows = 0;
+            totalFlushNanos = 0;
+            maxFlushNanos = 0;
+            reportStartNanos = now;
+        }
+    }
+}
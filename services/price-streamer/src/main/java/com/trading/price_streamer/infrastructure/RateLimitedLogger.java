@@ -0,0 +1,49 @@
+package com.trading.price_streamer.infrastructure;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most one message per interval, for warnings that can repeat on every tick or request.
+ * Messages dropped in between are counted and reported as a {@code suppressed} key-value on the
+ * next one that gets through.
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final long intervalNanos;
+    private final AtomicLong nextAllowedNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void warn(String format, Object... args) {
+        log(Level.WARN, format, args);
+    }
+
+    public void error(String format, Object... args) {
+        log(Level.ERROR, format, args);
+    }
+
+    private void log(Level level, String format, Object... args) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        long now = System.nanoTime();
+        long allowed = nextAllowedNanos.get();
+        if (now - allowed < 0 || !nextAllowedNanos.compareAndSet(allowed, now + intervalNanos)) {
+            suppressed.increment();
+            return;
+        }
+        logger.atLevel(level)
+                .addKeyValue("suppressed", suppressed.sumThenReset())
+                .log(format, args);
+    }
+}
@@ -0,0 +1,28 @@
+-- Background jobs for price_ticks. Re-applied whenever this file or one of the
+-- storage.timescale.* values substituted into it changes.
+
+-- Compress chunks once no more ticks are expected in them, and drop raw ticks after the retention
+-- period. The continuous aggregates keep their bars after the raw ticks are gone.
+SELECT remove_compression_policy('price_ticks', if_exists => TRUE);
+SELECT add_compression_policy('price_ticks', compress_after => INTERVAL '${compress_after}');
+
+SELECT remove_retention_policy('price_ticks', if_exists => TRUE);
+SELECT add_retention_policy('price_ticks', drop_after => INTERVAL '${retain_for}');
+
+-- Materialize each aggregate's recently closed buckets. start_offset stays well inside the
+-- retention period, so a refresh never runs over ticks that were already dropped.
+SELECT remove_continuous_aggregate_policy('price_ticks_1m', if_exists => TRUE);
+SELECT add_continuous_aggregate_policy('price_ticks_1m',
+       start_offset => INTERVAL '2 hours', end_offset => INTERVAL '1 minute', schedule_interval => INTERVAL '1 minute');
+
+SELECT remove_continuous_aggregate_policy('price_ticks_5m', if_exists => TRUE);
+SELECT add_continuous_aggregate_policy('price_ticks_5m',
+       start_offset => INTERVAL '6 hours', end_offset => INTERVAL '5 minutes', schedule_interval => INTERVAL '5 minutes');
+
+SELECT remove_continuous_aggregate_policy('price_ticks_1h', if_exists => TRUE);
+SELECT add_continuous_aggregate_policy('price_ticks_1h',
+       start_offset => INTERVAL '3 days', end_offset => INTERVAL '1 hour', schedule_interval => INTERVAL '1 hour');
+
+SELECT remove_continuous_aggregate_policy('price_ticks_1d', if_exists => TRUE);
+SELECT add_continuous_aggregate_policy('price_ticks_1d',
+       start_offset => INTERVAL '7 days', end_offset => INTERVAL '1 day', schedule_interval => INTERVAL '1 hour');
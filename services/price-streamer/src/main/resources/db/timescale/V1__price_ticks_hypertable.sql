@@ -0,0 +1,22 @@
+-- Turns price_ticks into a hypertable partitioned by day. Also works on a database where Hibernate
+-- already created the table: existing rows are moved into chunks (this can take a while on a large table).
+CREATE EXTENSION IF NOT EXISTS timescaledb;
+
+CREATE TABLE IF NOT EXISTS price_ticks (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    symbol    VARCHAR(255)     NOT NULL,
+    price     DOUBLE PRECISION NOT NULL,
+    timestamp TIMESTAMPTZ      NOT NULL
+);
+
+-- Every unique index of a hypertable must include the time column
+ALTER TABLE price_ticks DROP CONSTRAINT IF EXISTS price_ticks_pkey;
+ALTER TABLE price_ticks ADD CONSTRAINT price_ticks_pkey PRIMARY KEY (id, timestamp);
+
+SELECT create_hypertable('price_ticks', 'timestamp',
+                         chunk_time_interval => INTERVAL '${chunk_interval}',
+                         if_not_exists => TRUE,
+                         migrate_data => TRUE);
+
+-- Serves every per-symbol range query; same name as the index declared on PriceTickEntity
+CREATE INDEX IF NOT EXISTS price_ticks_symbol_timestamp_idx ON price_ticks (symbol, timestamp);
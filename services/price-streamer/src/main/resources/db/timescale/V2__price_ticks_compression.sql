@@ -0,0 +1,7 @@
+-- Compressed chunks store each symbol's ticks as timestamp-ordered column segments. Policies are in
+-- R__price_ticks_policies.sql.
+ALTER TABLE price_ticks SET (
+    timescaledb.compress,
+    timescaledb.compress_segmentby = 'symbol',
+    timescaledb.compress_orderby = 'timestamp, id'
+);
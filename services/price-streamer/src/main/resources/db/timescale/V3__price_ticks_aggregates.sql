@@ -0,0 +1,54 @@
+-- OHLC bars per symbol for the standard candle intervals, maintained by TimescaleDB. Real-time
+-- aggregation is on, so the bucket still being filled is computed from the raw ticks at query time.
+-- Bucket boundaries line up with CandleInterval.bucketStart (UTC, aligned to the epoch).
+CREATE MATERIALIZED VIEW IF NOT EXISTS price_ticks_1m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 minute', timestamp) AS bucket,
+       first(price, timestamp) AS open,
+       max(price) AS high,
+       min(price) AS low,
+       last(price, timestamp) AS close,
+       count(*) AS tick_count
+FROM price_ticks
+GROUP BY symbol, bucket
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS price_ticks_5m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '5 minutes', timestamp) AS bucket,
+       first(price, timestamp) AS open,
+       max(price) AS high,
+       min(price) AS low,
+       last(price, timestamp) AS close,
+       count(*) AS tick_count
+FROM price_ticks
+GROUP BY symbol, bucket
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS price_ticks_1h
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 hour', timestamp) AS bucket,
+       first(price, timestamp) AS open,
+       max(price) AS high,
+       min(price) AS low,
+       last(price, timestamp) AS close,
+       count(*) AS tick_count
+FROM price_ticks
+GROUP BY symbol, bucket
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS price_ticks_1d
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 day', timestamp) AS bucket,
+       first(price, timestamp) AS open,
+       max(price) AS high,
+       min(price) AS low,
+       last(price, timestamp) AS close,
+       count(*) AS tick_count
+FROM price_ticks
+GROUP BY symbol, bucket
+WITH NO DATA;
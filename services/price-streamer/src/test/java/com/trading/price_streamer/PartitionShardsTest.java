@@ -0,0 +1,253 @@
+package com.trading.price_streamer;
+
+import com.trading.price_streamer.cluster.AlertNotificationRelay;
+import com.trading.price_streamer.cluster.ClusterAlertSharding;
+import com.trading.price_streamer.config.ClusterConfig;
+import com.trading.price_streamer.domain.alert.AlertCondition;
+import com.trading.price_streamer.domain.alert.AlertEntity;
+import com.trading.price_streamer.domain.alert.AlertIndex;
+import com.trading.price_streamer.domain.alert.AlertRepository;
+import com.trading.price_streamer.domain.alert.AlertService;
+import com.trading.price_streamer.domain.alert.AlertStatus;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionShardsTest {
+
+    private static final String TICKS = "price-ticks";
+    private static final int PARTITIONS = 4;
+
+    @Test
+    void partitionOfMatchesTheProducersPartitioner() {
+        for (int partitions : new int[]{1, 3, 4, 12}) {
+            for (int i = 0; i < 500; i++) {
+                String symbol = "SYM" + i + "-USD";
+                assertEquals(BuiltInPartitioner.partitionForKey(symbol.getBytes(StandardCharsets.UTF_8), partitions),
+                        PartitionShards.partitionOf(symbol, partitions), symbol);
+            }
+        }
+    }
+
+    @Test
+    void loadsAndDropsAlertBooksAsPartitionsMove() {
+        String mine = "BTC-USD";
+        String other = symbolOffPartition(PartitionShards.partitionOf(mine, PARTITIONS));
+        List<AlertEntity> stored = new ArrayList<>(List.of(alert(1, mine), alert(2, mine), alert(3, other)));
+        Node node = new Node("node-a", stored);
+
+        node.assign(PartitionShards.partitionOf(mine, PARTITIONS));
+        assertTrue(node.shards.owns(mine));
+        assertFalse(node.shards.owns(other));
+        assertEquals(2, node.alertIndex.size());
+
+        // Owned symbols go straight into the index, others only to the topic; both are announced
+        node.sharding.alertCreated(alert(4, mine));
+        node.sharding.alertCreated(alert(5, other));
+        assertEquals(3, node.alertIndex.size());
+        assertEquals(List.of(mine, other), node.producer.history().stream().map(ProducerRecord::key).toList());
+
+        // Another node's announcement is indexed here only if this node owns the symbol
+        stored.add(alert(6, mine));
+        stored.add(alert(7, other));
+        node.sharding.onAlertCreated(fromOtherNode(mine, "6"));
+        node.sharding.onAlertCreated(fromOtherNode(other, "7"));
+        assertEquals(4, node.alertIndex.size());
+
+        node.revoke(PartitionShards.partitionOf(mine, PARTITIONS));
+        assertFalse(node.shards.owns(mine));
+        assertEquals(0, node.alertIndex.size());
+
+        // Once revoked, a new alert on the symbol must not bring its book back
+        node.sharding.alertCreated(alert(8, mine));
+        node.sharding.onAlertCreated(fromOtherNode(mine, "6"));
+        assertEquals(0, node.alertIndex.size());
+    }
+
+    @Test
+    void relaysNotificationsToTheNodeHoldingTheSession() {
+        List<Message<?>> sentOnA = new ArrayList<>();
+        List<Message<?>> sentOnB = new ArrayList<>();
+        MockProducer<String, String> producerA = producer();
+        AlertNotificationRelay nodeA = relay(clusterConfig("node-a"), producerA, sentOnA, Set.of());
+        AlertNotificationRelay nodeB = relay(clusterConfig("node-b"), producer(), sentOnB, Set.of("alice"));
+
+        nodeA.deliver("alice", "BTC-USD crossed 70000");
+        assertEquals(0, sentOnA.size());
+        assertEquals(1, producerA.history().size());
+
+        // Every node reads the topic; only B holds alice's session, and A ignores its own record
+        ConsumerRecord<String, String> relayed = consumed(producerA.history().get(0));
+        nodeA.onNotification(relayed);
+        nodeB.onNotification(relayed);
+        assertEquals(0, sentOnA.size());
+        assertEquals(1, sentOnB.size());
+        assertEquals("/user/alice/queue/notifications", SimpMessageHeaderAccessor.getDestination(sentOnB.get(0).getHeaders()));
+    }
+
+    /**
+     * One streamer's PartitionShards and ClusterAlertSharding, wired by hand around a stub
+     * repository serving {@code stored}.
+     */
+    private static final class Node {
+        final PartitionShards shards = new PartitionShards();
+        final ClusterAlertSharding sharding = new ClusterAlertSharding();
+        final AlertIndex alertIndex = new AlertIndex();
+        final MockProducer<String, String> producer = producer();
+        final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+        Node(String nodeId, List<AlertEntity> stored) {
+            AlertRepository repository = stub(AlertRepository.class, Map.of(
+                    "findDistinctSymbolsByStatus", args -> stored.stream().map(AlertEntity::getSymbol).distinct().toList(),
+                    "findByStatusAndSymbolIn", args -> new SliceImpl<>(stored.stream()
+                            .filter(alert -> ((Collection<?>) args[1]).contains(alert.getSymbol()))
+                            .toList(), (Pageable) args[2], false),
+                    "findById", args -> stored.stream().filter(alert -> alert.getId().equals(args[0])).findFirst()));
+            AlertService alertService = new AlertService();
+            ReflectionTestUtils.setField(alertService, "alertRepository", repository);
+            ReflectionTestUtils.setField(alertService, "alertIndex", alertIndex);
+
+            ReflectionTestUtils.setField(sharding, "alertService", alertService);
+            ReflectionTestUtils.setField(sharding, "alertRepository", repository);
+            ReflectionTestUtils.setField(sharding, "alertIndex", alertIndex);
+            ReflectionTestUtils.setField(sharding, "partitionShards", shards);
+            ReflectionTestUtils.setField(sharding, "kafkaTemplate", new KafkaTemplate<>(() -> producer));
+            ReflectionTestUtils.setField(sharding, "clusterConfig", clusterConfig(nodeId));
+
+            ReflectionTestUtils.setField(shards, "symbolRegistry", new SymbolRegistry());
+            ReflectionTestUtils.setField(shards, "shardedStates", List.of());
+            ReflectionTestUtils.setField(shards, "batchListener",
+                    new StaticListableBeanFactory().getBeanProvider(PriceStreamBatchListener.class));
+            ReflectionTestUtils.setField(shards, "clusterAlertSharding",
+                    new StaticListableBeanFactory(Map.of("clusterAlertSharding", sharding)).getBeanProvider(ClusterAlertSharding.class));
+
+            consumer.updatePartitions(TICKS, IntStream.range(0, PARTITIONS)
+                    .mapToObj(p -> new PartitionInfo(TICKS, p, null, null, null))
+                    .toList());
+        }
+
+        void assign(int partition) {
+            shards.onPartitionsAssigned(consumer, List.of(new TopicPartition(TICKS, partition)));
+        }
+
+        void revoke(int partition) {
+            List<TopicPartition> revoked = List.of(new TopicPartition(TICKS, partition));
+            shards.onPartitionsRevokedBeforeCommit(consumer, revoked);
+            shards.onPartitionsRevokedAfterCommit(consumer, revoked);
+        }
+    }
+
+    private static String symbolOffPartition(int partition) {
+        for (int i = 0; ; i++) {
+            String symbol = "SYM" + i + "-USD";
+            if (PartitionShards.partitionOf(symbol, PARTITIONS) != partition) {
+                return symbol;
+            }
+        }
+    }
+
+    private static AlertEntity alert(long id, String symbol) {
+        AlertEntity alert = new AlertEntity();
+        alert.setId(id);
+        alert.setUserId("alice");
+        alert.setSymbol(symbol);
+        alert.setAlertCondition(AlertCondition.ABOVE);
+        alert.setTargetPrice(new BigDecimal("100000.0000"));
+        alert.setStatus(AlertStatus.ACTIVE);
+        return alert;
+    }
+
+    private static ClusterConfig clusterConfig(String nodeId) {
+        ClusterConfig config = new ClusterConfig();
+        ReflectionTestUtils.setField(config, "enabled", true);
+        ReflectionTestUtils.setField(config, "nodeId", nodeId);
+        ReflectionTestUtils.setField(config, "alertsTopic", "alert-events");
+        ReflectionTestUtils.setField(config, "notificationsTopic", "alert-notifications");
+        return config;
+    }
+
+    // KafkaTemplate closes its producer after every send, as a shared factory producer ignores that
+    private static MockProducer<String, String> producer() {
+        return new MockProducer<>(true, new StringSerializer(), new StringSerializer()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+    }
+
+    private static ConsumerRecord<String, String> fromOtherNode(String symbol, String alertId) {
+        return consumed(clusterConfig("node-b").record("alert-events", symbol, alertId));
+    }
+
+    // As the relay listeners receive what another node's KafkaTemplate sent
+    private static ConsumerRecord<String, String> consumed(ProducerRecord<String, String> sent) {
+        return new ConsumerRecord<>(sent.topic(), 0, 0, 0, TimestampType.CREATE_TIME, 0, 0,
+                sent.key(), sent.value(), sent.headers(), Optional.empty());
+    }
+
+    private static AlertNotificationRelay relay(ClusterConfig config, MockProducer<String, String> producer,
+                                                List<Message<?>> sent, Set<String> connectedUsers) {
+        SimpUser user = stub(SimpUser.class, Map.of("hasSessions", args -> true));
+        AlertNotificationRelay relay = new AlertNotificationRelay();
+        ReflectionTestUtils.setField(relay, "messagingTemplate", new SimpMessagingTemplate((Message<?> message, long timeout) -> {
+            sent.add(message);
+            return true;
+        }));
+        ReflectionTestUtils.setField(relay, "userRegistry", stub(SimpUserRegistry.class,
+                Map.of("getUser", args -> connectedUsers.contains((String) args[0]) ? user : null)));
+        ReflectionTestUtils.setField(relay, "kafkaTemplate", new KafkaTemplate<>(() -> producer));
+        ReflectionTestUtils.setField(relay, "clusterConfig", config);
+        return relay;
+    }
+
+    // Implements only the named interface methods; calling any other one fails the test
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> body = methods.get(method.getName());
+            if (body != null) {
+                return body.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return method.getName().equals("toString") ? type.getSimpleName() + " stub" : method.invoke(methods, args);
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+        });
+    }
+}
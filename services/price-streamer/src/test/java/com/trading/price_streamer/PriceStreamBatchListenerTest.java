@@ -0,0 +1,76 @@
+package com.trading.price_streamer;
+
+import com.trading.price_codec.PriceTick;
+import com.trading.price_streamer.infrastructure.PriceTickBatchWriter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceStreamBatchListenerTest {
+
+    private static final String TICKS = "price-ticks";
+
+    @Test
+    void failedFlushRewindsPartitionsNotBufferedYet() {
+        TopicPartition p0 = new TopicPartition(TICKS, 0);
+        TopicPartition p1 = new TopicPartition(TICKS, 1);
+        MockConsumer<String, PriceTick> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(p0, p1));
+        consumer.updateBeginningOffsets(Map.of(p0, 0L, p1, 0L));
+        List<ConsumerRecord<String, PriceTick>> records = List.of(
+                record(0, 0, "BTC-USD", 1), record(0, 1, "BTC-USD", 2),
+                record(1, 0, "ETH-USD", 3), record(1, 1, "ETH-USD", 4));
+        records.forEach(consumer::addRecord);
+        consumer.poll(Duration.ZERO);
+
+        List<PriceTick> processed = new ArrayList<>();
+        List<PriceTick> written = new ArrayList<>();
+        boolean[] databaseDown = {true};
+        PriceStreamBatchListener listener = new PriceStreamBatchListener();
+        ReflectionTestUtils.setField(listener, "flushSize", 2);
+        ReflectionTestUtils.setField(listener, "maxLatencyMs", 60_000L);
+        ReflectionTestUtils.setField(listener, "priceStreamService", new PriceStreamService() {
+            @Override
+            public void processTick(PriceTick tick, int partition) {
+                processed.add(tick);
+            }
+        });
+        ReflectionTestUtils.setField(listener, "batchWriter", new PriceTickBatchWriter() {
+            @Override
+            public void write(List<PriceTick> ticks) {
+                if (databaseDown[0]) {
+                    databaseDown[0] = false;
+                    throw new DataAccessResourceFailureException("connection refused");
+                }
+                written.addAll(ticks);
+            }
+        });
+        int[] acks = {0};
+
+        // The buffer fills on partition 0; partition 1 was polled but none of it buffered yet
+        listener.consumeBatch(records, () -> acks[0]++, consumer);
+        assertEquals(0, consumer.position(p0));
+        assertEquals(0, consumer.position(p1));
+        assertEquals(0, acks[0]);
+
+        listener.consumeBatch(records, () -> acks[0]++, consumer);
+        assertEquals(records.stream().map(ConsumerRecord::value).toList(), written);
+        assertEquals(written, processed);
+        assertEquals(1, acks[0]);
+    }
+
+    private static ConsumerRecord<String, PriceTick> record(int partition, long offset, String symbol, double price) {
+        return new ConsumerRecord<>(TICKS, partition, offset, symbol, new PriceTick(symbol, price, offset));
+    }
+}
@@ -0,0 +1,90 @@
+package com.trading.price_streamer.domain.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertIndexTest {
+
+    private static AlertEntity alert(long id, AlertCondition condition, String targetPrice) {
+        AlertEntity alert = new AlertEntity();
+        alert.setId(id);
+        alert.setUserId("user-" + id);
+        alert.setSymbol("BTC-USD");
+        alert.setAlertCondition(condition);
+        alert.setTargetPrice(new BigDecimal(targetPrice));
+        return alert;
+    }
+
+    @Test
+    void popsOnlyCrossedAlertsInPriceOrder() {
+        AlertIndex index = new AlertIndex();
+        index.add(alert(1, AlertCondition.ABOVE, "60100"));
+        index.add(alert(2, AlertCondition.ABOVE, "60050"));
+        index.add(alert(3, AlertCondition.ABOVE, "61000"));
+        index.add(alert(4, AlertCondition.BELOW, "59000"));
+        index.add(alert(5, AlertCondition.BELOW, "59500"));
+
+        assertTrue(index.match("BTC-USD", 60000.0).isEmpty());
+        assertTrue(index.match("ETH-USD", 1.0).isEmpty());
+
+        List<TriggeredAlert> above = index.match("BTC-USD", 60200.0);
+        assertEquals(List.of(2L, 1L), above.stream().map(TriggeredAlert::id).toList());
+
+        List<TriggeredAlert> below = index.match("BTC-USD", 58000.0);
+        assertEquals(List.of(5L, 4L), below.stream().map(TriggeredAlert::id).toList());
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void restoredAlertFiresAgain() {
+        AlertIndex index = new AlertIndex();
+        index.add(alert(1, AlertCondition.BELOW, "59000.1234"));
+
+        List<TriggeredAlert> triggered = index.match("BTC-USD", 58000.0);
+        index.restore(triggered.get(0));
+
+        assertEquals(1, index.size());
+        assertTrue(index.match("BTC-USD", 59500.0).isEmpty());
+        assertEquals(triggered, index.match("BTC-USD", 58000.0));
+    }
+
+    @Test
+    void boundaryMatchesBigDecimalComparison() {
+        AlertIndex index = new AlertIndex();
+        index.add(alert(1, AlertCondition.ABOVE, "60000.1234"));
+        index.add(alert(2, AlertCondition.BELOW, "60000.1234"));
+
+        // Equal to the target triggers neither side, just like the strict compareTo checks
+        assertTrue(index.match("BTC-USD", 60000.1234).isEmpty());
+
+        List<TriggeredAlert> above = index.match("BTC-USD", 60000.12341);
+        assertEquals(1, above.size());
+        assertEquals(new BigDecimal("60000.1234"), above.get(0).targetPrice());
+
+        List<TriggeredAlert> below = index.match("BTC-USD", 60000.12339);
+        assertEquals(2L, below.get(0).id());
+    }
+
+    @Test
+    void heapKeepsOrderAcrossManyAlerts() {
+        AlertIndex index = new AlertIndex();
+        for (int i = 0; i < 10_000; i++) {
+            // Insert in a scrambled order
+            int level = (i * 7919) % 10_000;
+            index.add(alert(i, AlertCondition.ABOVE, String.valueOf(50_000 + level)));
+        }
+
+        List<TriggeredAlert> triggered = index.match("BTC-USD", 50_500.5);
+        assertEquals(501, triggered.size());
+        for (int i = 1; i < triggered.size(); i++) {
+            assertTrue(triggered.get(i - 1).targetPrice().compareTo(triggered.get(i).targetPrice()) <= 0);
+        }
+        assertEquals(9_499, index.size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.trading.price_streamer.domain.alert;
+
+import com.trading.price_codec.PriceTick;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AlertServiceTest {
+
+    @Test
+    void alertStaysIndexedWhenItsStatusUpdateFails() {
+        List<Long> updated = new ArrayList<>();
+        boolean[] databaseDown = {true};
+        // Only updateStatus is called; it fails while the database is down, then finds the row no longer ACTIVE
+        AlertRepository repository = (AlertRepository) Proxy.newProxyInstance(AlertRepository.class.getClassLoader(),
+                new Class<?>[]{AlertRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("updateStatus")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    updated.add((Long) args[0]);
+                    if (databaseDown[0]) {
+                        throw new DataAccessResourceFailureException("connection refused");
+                    }
+                    return 0;
+                });
+        AlertIndex index = new AlertIndex();
+        AlertService service = new AlertService();
+        ReflectionTestUtils.setField(service, "alertRepository", repository);
+        ReflectionTestUtils.setField(service, "alertIndex", index);
+
+        AlertEntity alert = new AlertEntity();
+        alert.setId(7L);
+        alert.setUserId("alice");
+        alert.setSymbol("BTC-USD");
+        alert.setAlertCondition(AlertCondition.ABOVE);
+        alert.setTargetPrice(new BigDecimal("70000.0000"));
+        index.add(alert);
+
+        service.checkAndTriggerAlerts(new PriceTick("BTC-USD", 70500, 1));
+        assertEquals(1, index.size());
+
+        databaseDown[0] = false;
+        service.checkAndTriggerAlerts(new PriceTick("BTC-USD", 70600, 2));
+        assertEquals(0, index.size());
+        assertEquals(List.of(7L, 7L), updated);
+    }
+}
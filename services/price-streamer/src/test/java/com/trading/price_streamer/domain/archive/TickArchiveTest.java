@@ -0,0 +1,137 @@
+package com.trading.price_streamer.domain.archive;
+
+import com.trading.price_streamer.domain.backtest.PriceSeries;
+import com.trading.price_streamer.domain.backtest.SmaCrossoverEngine;
+import com.trading.price_streamer.domain.backtest.TickSource;
+import com.trading.price_streamer.domain.common.PriceTickRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+    private static final long DAY_START = DAY.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    @TempDir
+    Path root;
+
+    @Test
+    void writtenFilesMapBackColumnForColumn() throws IOException {
+        Path file = root.resolve("BTC-USD.ticks");
+        try (TickArchiveFile.Writer writer = new TickArchiveFile.Writer(file)) {
+            // More than one write buffer's worth
+            for (int i = 0; i < 10_000; i++) {
+                writer.add(1_000L + i * 2, 100 + i * 0.5);
+            }
+        }
+        assertFalse(Files.exists(file.resolveSibling("BTC-USD.ticks.prices")));
+
+        TickArchiveFile.Mapped mapped = TickArchiveFile.map(file);
+        assertEquals(10_000, mapped.count());
+        assertEquals(1_000L, mapped.first());
+        assertEquals(20_998L, mapped.last());
+        assertEquals(1_010L, mapped.timestamp(5));
+        assertEquals(102.5, mapped.price(5));
+        assertEquals(5, mapped.lowerBound(1_010L));
+        assertEquals(6, mapped.lowerBound(1_011L));
+        assertEquals(10_000, mapped.lowerBound(30_000L));
+    }
+
+    @Test
+    void scansArchivedDaysLikeTheSeriesTheyHold() throws IOException {
+        TickArchive archive = new TickArchive(root);
+        PriceSeries.Builder expected = PriceSeries.builder();
+        Random random = new Random(3);
+        double price = 60_000;
+        for (int day = 0; day < 3; day++) {
+            Path directory = Files.createDirectories(archive.dayDirectory(DAY.plusDays(day)));
+            if (day == 1) {
+                continue; // No BTC-USD ticks that day
+            }
+            try (TickArchiveFile.Writer writer = new TickArchiveFile.Writer(directory.resolve(TickArchive.fileName("BTC-USD")))) {
+                for (int i = 0; i < 5_000; i++) {
+                    long timestamp = DAY_START + day * 86_400_000L + i * 10_000L;
+                    price += random.nextDouble() * 200 - 100;
+                    writer.add(timestamp, price);
+                    expected.add(timestamp, price);
+                }
+            }
+        }
+        PriceSeries series = expected.build();
+
+        TickSource source = archive.source("BTC-USD", Instant.ofEpochMilli(DAY_START), Instant.ofEpochMilli(DAY_START + 3 * 86_400_000L));
+        assertEquals(series.size(), source.count());
+        long[] visited = {0};
+        source.forEach((timestamp, p) -> {
+            assertEquals(series.timestamp((int) visited[0]), timestamp);
+            assertEquals(series.price((int) visited[0]), p);
+            visited[0]++;
+        });
+        assertEquals(series.size(), visited[0]);
+        assertEquals(SmaCrossoverEngine.run(series, 10, 30, 10_000), SmaCrossoverEngine.run(source, 10, 30, 10_000));
+
+        // Ranges that start and end inside a day, end exclusive
+        TickSource partial = archive.source("BTC-USD",
+                Instant.ofEpochMilli(DAY_START + 10_000L), Instant.ofEpochMilli(DAY_START + 2 * 86_400_000L + 30_000L));
+        assertEquals(4_999 + 3, partial.count());
+    }
+
+    @Test
+    void refusesSymbolsThatAreNotPlainFileNames() {
+        assertTrue(TickArchive.isArchivable("BTC-USD"));
+        assertTrue(TickArchive.isArchivable("eth_usd.perp"));
+        assertFalse(TickArchive.isArchivable("../BTC-USD"));
+        assertFalse(TickArchive.isArchivable(".hidden"));
+        assertFalse(TickArchive.isArchivable("BTC/USD"));
+        assertThrows(IllegalArgumentException.class, () -> new TickArchive(root).source("BTC/USD", Instant.EPOCH, Instant.now()));
+    }
+
+    private static List<PriceTickRow> rows(String symbol, int count) {
+        List<PriceTickRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new PriceTickRow((long) i, symbol, 100 + i, Instant.ofEpochMilli(DAY_START + i * 1_000L)));
+        }
+        return rows;
+    }
+
+    @Test
+    void exportsReplaceTheDayAndSkipEmptyOnes() throws IOException {
+        TickArchive archive = new TickArchive(root);
+
+        assertEquals(0, TickArchiveExporter.publish(archive, DAY, Collections.emptyIterator())[0]);
+        assertFalse(archive.isArchived(DAY));
+        assertFalse(Files.exists(archive.stagingDirectory(DAY)));
+
+        List<PriceTickRow> rows = rows("BTC-USD", 10);
+        rows.add(new PriceTickRow(99L, "BTC/USD", 1, Instant.ofEpochMilli(DAY_START))); // Counted, not archivable
+        TickArchiveExporter.publish(archive, DAY, rows.iterator());
+        assertTrue(archive.isArchived(DAY));
+        assertEquals(11, TickArchiveExporter.sourceRows(archive, DAY));
+        Instant end = Instant.ofEpochMilli(DAY_START + 86_400_000L);
+        assertEquals(10, archive.source("BTC-USD", Instant.ofEpochMilli(DAY_START), end).count());
+
+        // A late tick: exported again, in place of the first export
+        TickArchiveExporter.publish(archive, DAY, rows("BTC-USD", 11).iterator());
+        assertEquals(11, TickArchiveExporter.sourceRows(archive, DAY));
+        assertEquals(11, archive.source("BTC-USD", Instant.ofEpochMilli(DAY_START), end).count());
+        try (var entries = Files.list(root)) {
+            assertEquals(List.of(archive.dayDirectory(DAY)), entries.toList());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.TickConsumer;
+import com.trading.price_streamer.domain.strategy.CrossoverStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BacktestJobServiceTest {
+
+    private final List<BacktestJobUpdate> pushed = new CopyOnWriteArrayList<>();
+    private final SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((Message<?> message, long timeout) -> {
+        pushed.add((BacktestJobUpdate) message.getPayload());
+        return true;
+    });
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final PortfolioBacktestService portfolioService = new PortfolioBacktestService(2, 500, 1, 10);
+    private BacktestJobService service;
+
+    @AfterEach
+    void stop() {
+        release.countDown();
+        service.stop();
+        portfolioService.stop();
+    }
+
+    private static PriceSeries randomWalk(int size) {
+        Random random = new Random(9);
+        PriceSeries.Builder series = PriceSeries.builder();
+        double price = 60_000;
+        for (int i = 0; i < size; i++) {
+            price += random.nextDouble() * 200 - 100;
+            series.add(1_700_000_000_000L + i * 1000L, price);
+        }
+        return series.build();
+    }
+
+    // Holds its worker until the test releases it
+    private Supplier<TickSource> blocking(String name) {
+        return () -> {
+            started.add(name);
+            return new TickSource() {
+                @Override
+                public long count() {
+                    return 1;
+                }
+
+                @Override
+                public void forEach(TickConsumer consumer) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    consumer.accept(1L, 100.0);
+                }
+            };
+        };
+    }
+
+    private BacktestJobUpdate awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            BacktestJobUpdate job = service.get("alice", jobId);
+            if (job.status().isFinished()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    @Test
+    void runsInTheBackgroundAndPushesProgress() throws InterruptedException {
+        service = new BacktestJobService(messagingTemplate, new SimpleMeterRegistry(), portfolioService, 1, 4, 10, 60_000);
+        PriceSeries series = randomWalk(10_000);
+
+        BacktestJobUpdate submitted = service.submitSmaCrossover("alice", BacktestJobPriority.NORMAL, 10, 30, 10_000, () -> series);
+        BacktestJobUpdate finished = awaitFinished(submitted.jobId());
+
+        assertEquals(BacktestJobStatus.COMPLETED, finished.status());
+        assertEquals(SmaCrossoverEngine.run(series, 10, 30, 10_000), finished.result());
+        assertEquals(10_000, finished.ticksProcessed());
+        assertEquals(10, finished.equity().size());
+        assertEquals(series.timestamp(9_999), finished.equity().get(9).timestamp());
+
+        // Pushed: RUNNING, ten progress updates with one new equity point each, COMPLETED
+        assertEquals(12, pushed.size());
+        assertEquals(BacktestJobStatus.RUNNING, pushed.get(0).status());
+        assertEquals(0.5, pushed.get(5).progress());
+        assertEquals(1, pushed.get(5).equity().size());
+        assertEquals(BacktestJobStatus.COMPLETED, pushed.get(11).status());
+
+        // Other users cannot see it
+        assertNull(service.get("bob", submitted.jobId()));
+        assertEquals(0, service.list("bob").size());
+    }
+
+    @Test
+    void startsQueuedJobsByPriorityAndRefusesThemOnceTheQueueIsFull() throws InterruptedException {
+        service = new BacktestJobService(messagingTemplate, new SimpleMeterRegistry(), portfolioService, 1, 2, 10, 60_000);
+        BacktestJobUpdate running = service.submitSmaCrossover("alice", BacktestJobPriority.NORMAL, 3, 7, 10_000, blocking("running"));
+        while (started.isEmpty()) {
+            Thread.sleep(5);
+        }
+        BacktestJobUpdate low = service.submitSmaCrossover("alice", BacktestJobPriority.LOW, 3, 7, 10_000, blocking("low"));
+        BacktestJobUpdate high = service.submitSmaCrossover("alice", BacktestJobPriority.HIGH, 3, 7, 10_000, blocking("high"));
+        assertThrows(RejectedExecutionException.class,
+                () -> service.submitSmaCrossover("alice", BacktestJobPriority.HIGH, 3, 7, 10_000, blocking("refused")));
+
+        release.countDown();
+        awaitFinished(running.jobId());
+        awaitFinished(low.jobId());
+        awaitFinished(high.jobId());
+        assertEquals(List.of("running", "high", "low"), started);
+    }
+
+    @Test
+    void cancelsQueuedAndRunningJobs() throws InterruptedException {
+        service = new BacktestJobService(messagingTemplate, new SimpleMeterRegistry(), portfolioService, 1, 4, 10, 60_000);
+        BacktestJobUpdate running = service.submitSmaCrossover("alice", BacktestJobPriority.NORMAL, 3, 7, 10_000, blocking("running"));
+        while (started.isEmpty()) {
+            Thread.sleep(5);
+        }
+        BacktestJobUpdate queued = service.submitSmaCrossover("alice", BacktestJobPriority.NORMAL, 3, 7, 10_000, blocking("queued"));
+
+        assertEquals(BacktestJobStatus.CANCELLED, service.cancel("alice", queued.jobId()).status());
+        assertNull(service.cancel("bob", running.jobId()));
+        service.cancel("alice", running.jobId());
+        release.countDown();
+
+        assertEquals(BacktestJobStatus.CANCELLED, awaitFinished(running.jobId()).status());
+        assertEquals(List.of("running"), started);
+        assertTrue(pushed.stream().anyMatch(update -> update.jobId().equals(queued.jobId())
+                && update.status() == BacktestJobStatus.CANCELLED));
+    }
+
+    @Test
+    void runsPortfolioBacktestsAsJobs() throws InterruptedException {
+        service = new BacktestJobService(messagingTemplate, new SimpleMeterRegistry(), portfolioService, 1, 4, 10, 60_000);
+        PriceSeries series = randomWalk(5_000);
+        List<String> symbols = List.of("A", "B", "C", "D");
+
+        BacktestJobUpdate submitted = service.submitPortfolio("alice", BacktestJobPriority.NORMAL, symbols, symbol -> series,
+                () -> CrossoverStrategy.sma(10, 30), AllocationRule.EQUAL_WEIGHT, 0, 10_000);
+        BacktestJobUpdate finished = awaitFinished(submitted.jobId());
+
+        PortfolioBacktestResult expected = portfolioService.run(symbols, symbol -> series,
+                () -> CrossoverStrategy.sma(10, 30), AllocationRule.EQUAL_WEIGHT, 0, 10_000);
+        assertEquals(BacktestJobStatus.COMPLETED, finished.status());
+        assertEquals(expected, finished.portfolio());
+        assertEquals(expected.getPortfolio(), finished.result());
+        assertEquals(20_000, finished.ticksProcessed());
+        assertEquals(0, finished.equity().size());
+        // RUNNING, one update per symbol, COMPLETED
+        assertEquals(6, pushed.size());
+        assertEquals(0.25, pushed.get(1).progress());
+
+        assertThrows(IllegalArgumentException.class, () -> service.submitPortfolio("alice", BacktestJobPriority.NORMAL,
+                List.of("A", "A"), symbol -> series, () -> CrossoverStrategy.sma(10, 30), AllocationRule.EQUAL_WEIGHT, 0, 10_000));
+    }
+
+    @Test
+    void portfolioJobsQueueBehindOtherJobsAndCanBeCancelled() throws InterruptedException {
+        service = new BacktestJobService(messagingTemplate, new SimpleMeterRegistry(), portfolioService, 1, 4, 10, 60_000);
+        BacktestJobUpdate running = service.submitPortfolio("alice", BacktestJobPriority.NORMAL, List.of("A", "B", "C"),
+                symbol -> blocking(symbol).get(), () -> CrossoverStrategy.sma(3, 7), AllocationRule.EQUAL_WEIGHT, 0, 10_000);
+        while (started.isEmpty()) {
+            Thread.sleep(5);
+        }
+        BacktestJobUpdate queued = service.submitSmaCrossover("alice", BacktestJobPriority.NORMAL, 3, 7, 10_000, blocking("queued"));
+        assertEquals(BacktestJobStatus.QUEUED, service.get("alice", queued.jobId()).status());
+
+        service.cancel("alice", running.jobId());
+        release.countDown();
+        assertEquals(BacktestJobStatus.CANCELLED, awaitFinished(running.jobId()).status());
+        assertEquals(BacktestJobStatus.COMPLETED, awaitFinished(queued.jobId()).status());
+    }
+}
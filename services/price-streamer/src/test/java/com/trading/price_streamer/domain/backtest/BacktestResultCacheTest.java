@@ -0,0 +1,102 @@
+package com.trading.price_streamer.domain.backtest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BacktestResultCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<Double> prices = new ArrayList<>();
+    private final List<Long> requestedFrom = new ArrayList<>();
+    private final Random random = new Random(5);
+    private double price = 60_000;
+
+    // The stored ticks from the given timestamp on, like a slice of the tick history
+    private final LongFunction<TickSource> ticksFrom = from -> {
+        requestedFrom.add(from);
+        PriceSeries.Builder series = PriceSeries.builder();
+        for (int i = 0; i < prices.size(); i++) {
+            if (timestamps.get(i) >= from) {
+                series.add(timestamps.get(i), prices.get(i));
+            }
+        }
+        return series.build();
+    };
+
+    private void addTicks(long firstTimestamp, int count, long step) {
+        for (int i = 0; i < count; i++) {
+            price += random.nextDouble() * 200 - 100;
+            timestamps.add(firstTimestamp + i * step);
+            prices.add(price);
+        }
+    }
+
+    private BacktestResult fullRun(int shortPeriod, int longPeriod) {
+        return SmaCrossoverEngine.run(ticksFrom.apply(Long.MIN_VALUE), shortPeriod, longPeriod, 10_000);
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tag("result", result).counter().count();
+    }
+
+    @Test
+    void resumesFromTheWatermarkWithTheSameResultAsAFullRun() {
+        BacktestResultCache cache = new BacktestResultCache(16, registry);
+        addTicks(1_000L, 5_000, 10);
+        assertEquals(fullRun(10, 30), cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 10, 30, 10_000, ticksFrom));
+        assertEquals(1.0, gets("miss"));
+
+        addTicks(60_000L, 3_000, 10);
+        assertEquals(fullRun(10, 30), cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 10, 30, 10_000, ticksFrom));
+        assertEquals(1.0, gets("extend"));
+        assertEquals(50_990L, requestedFrom.get(requestedFrom.size() - 1));
+
+        // Nothing new since
+        assertEquals(fullRun(10, 30), cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 10, 30, 10_000, ticksFrom));
+        assertEquals(1.0, gets("hit"));
+
+        // Other parameters are a separate run
+        assertEquals(fullRun(5, 20), cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 5, 20, 10_000, ticksFrom));
+        assertEquals(2.0, gets("miss"));
+    }
+
+    @Test
+    void countsLateTicksAtTheWatermarkExactlyOnce() {
+        BacktestResultCache cache = new BacktestResultCache(16, registry);
+        addTicks(1_000L, 100, 10);
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 3, 7, 10_000, ticksFrom);
+
+        // Another tick in the same millisecond as the newest one, then a later one
+        addTicks(1_990L, 1, 0);
+        addTicks(2_000L, 1, 0);
+        BacktestResult resumed = cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 3, 7, 10_000, ticksFrom);
+        assertEquals(fullRun(3, 7), resumed);
+        assertEquals(1.0, gets("extend"));
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedState() {
+        BacktestResultCache cache = new BacktestResultCache(2, registry);
+        addTicks(1_000L, 100, 10);
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 3, 7, 10_000, ticksFrom);
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 4, 8, 10_000, ticksFrom);
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 3, 7, 10_000, ticksFrom);
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 5, 9, 10_000, ticksFrom);
+        assertEquals(1.0, registry.get("cache.evictions").counter().count());
+        assertEquals(2.0, registry.get("cache.size").gauge().value());
+
+        // 3/7 was used more recently than 4/8, so it is still held
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 3, 7, 10_000, ticksFrom);
+        assertEquals(2.0, gets("hit"));
+        cache.smaCrossover("BTC-USD", 0L, BacktestResultCache.OPEN_ENDED, 4, 8, 10_000, ticksFrom);
+        assertEquals(4.0, gets("miss"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.Signal;
+import com.trading.price_streamer.domain.strategy.CrossoverStrategy;
+import com.trading.price_streamer.domain.strategy.Strategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PortfolioBacktestServiceTest {
+
+    private final List<PortfolioBacktestService> services = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        services.forEach(PortfolioBacktestService::stop);
+    }
+
+    private PortfolioBacktestService service(int parallelism) {
+        PortfolioBacktestService service = new PortfolioBacktestService(parallelism, 500, 0, 10);
+        services.add(service);
+        return service;
+    }
+
+    private static PriceSeries randomWalk(long seed, int size) {
+        Random random = new Random(seed);
+        PriceSeries.Builder series = PriceSeries.builder();
+        double price = 100 + seed;
+        for (int i = 0; i < size; i++) {
+            price = Math.max(1, price + random.nextDouble() * 2 - 1);
+            series.add(1_700_000_000_000L + i * 1000L + random.nextInt(1000), price);
+        }
+        return series.build();
+    }
+
+    // Buys on a price of exactly 10 and sells on exactly 20
+    private static Strategy levels() {
+        return new Strategy() {
+            @Override
+            public String name() {
+                return "Levels";
+            }
+
+            @Override
+            public Signal onTick(long timestamp, double price) {
+                return price == 10 ? Signal.BUY : price == 20 ? Signal.SELL : Signal.HOLD;
+            }
+
+            @Override
+            public void reset() {
+            }
+        };
+    }
+
+    private static PriceSeries series(long[] timestamps, double[] prices) {
+        PriceSeries.Builder series = PriceSeries.builder();
+        for (int i = 0; i < prices.length; i++) {
+            series.add(timestamps[i], prices[i]);
+        }
+        return series.build();
+    }
+
+    @Test
+    void oneSymbolAllInMatchesTheSingleAssetBacktest() {
+        PriceSeries series = randomWalk(1, 20_000);
+        BacktestResult expected = new BacktestingService().runStrategyBacktest(series, CrossoverStrategy.sma(10, 30), 10_000);
+
+        PortfolioBacktestResult result = service(2).run(List.of("BTC-USD"), symbol -> series,
+                () -> CrossoverStrategy.sma(10, 30), AllocationRule.FIXED_FRACTION, 1, 10_000);
+
+        assertEquals(expected.getFinalBalance(), result.getPortfolio().getFinalBalance());
+        assertEquals(expected.getProfitPercentage(), result.getPortfolio().getProfitPercentage());
+        assertEquals(expected.getTotalTrades(), result.getPortfolio().getTotalTrades());
+        assertEquals(20_000, result.getTicks());
+    }
+
+    @Test
+    void sharesCashInTimeOrderAcrossSymbols() {
+        // A buys at t=1, B at t=2, A sells at t=3 and C then buys at t=3, with A's proceeds in the cash
+        Map<String, PriceSeries> data = Map.of(
+                "A", series(new long[]{1, 3, 4}, new double[]{10, 20, 20}),
+                "B", series(new long[]{2, 4}, new double[]{10, 5}),
+                "C", series(new long[]{3, 4}, new double[]{10, 15}));
+
+        PortfolioBacktestResult result = service(3).run(List.of("A", "B", "C"), data::get,
+                PortfolioBacktestServiceTest::levels, AllocationRule.EQUAL_WEIGHT, 0, 900);
+
+        // A: 300 -> 600. B: 300 -> 150 (open). C: half of the 900 cash, as A is flat again: 450 -> 675 (open)
+        BacktestResult a = result.getSymbols().get("A");
+        assertEquals(new BigDecimal("300.00"), a.getInitialBalance());
+        assertEquals(new BigDecimal("600.00"), a.getFinalBalance());
+        assertEquals(100.0, a.getProfitPercentage());
+        assertEquals(2, a.getTotalTrades());
+        assertEquals(new BigDecimal("-150.00"), result.getSymbols().get("B").getProfitOrLoss());
+        assertEquals(new BigDecimal("450.00"), result.getSymbols().get("C").getInitialBalance());
+        assertEquals(new BigDecimal("675.00"), result.getSymbols().get("C").getFinalBalance());
+
+        assertEquals(new BigDecimal("1275.00"), result.getPortfolio().getFinalBalance());
+        assertEquals(new BigDecimal("375.00"), result.getPortfolio().getProfitOrLoss());
+        assertEquals(4, result.getPortfolio().getTotalTrades());
+        assertEquals(List.of("A", "B", "C"), new ArrayList<>(result.getSymbols().keySet()));
+    }
+
+    @Test
+    void fixedFractionSpendsThatShareOfTheCash() {
+        Map<String, PriceSeries> data = Map.of(
+                "A", series(new long[]{1}, new double[]{10}),
+                "B", series(new long[]{2}, new double[]{10}));
+
+        PortfolioBacktestResult result = service(2).run(List.of("A", "B"), data::get,
+                PortfolioBacktestServiceTest::levels, AllocationRule.FIXED_FRACTION, 0.25, 1_000);
+
+        assertEquals(new BigDecimal("250.00"), result.getSymbols().get("A").getInitialBalance());
+        assertEquals(new BigDecimal("187.50"), result.getSymbols().get("B").getInitialBalance());
+        assertEquals(new BigDecimal("1000.00"), result.getPortfolio().getFinalBalance());
+    }
+
+    @Test
+    void resultDoesNotDependOnParallelism() {
+        Map<String, PriceSeries> data = new HashMap<>();
+        List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            symbols.add("S" + i);
+            data.put("S" + i, randomWalk(i, 2_000));
+        }
+
+        PortfolioBacktestResult sequential = service(1).run(symbols, data::get,
+                () -> CrossoverStrategy.ema(5, 20), AllocationRule.EQUAL_WEIGHT, 0, 100_000);
+        PortfolioBacktestResult parallel = service(8).run(symbols, data::get,
+                () -> CrossoverStrategy.ema(5, 20), AllocationRule.EQUAL_WEIGHT, 0, 100_000);
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        PortfolioBacktestService service = service(1);
+        PriceSeries series = randomWalk(1, 10);
+        assertThrows(IllegalArgumentException.class, () -> service.run(List.of(), symbol -> series,
+                PortfolioBacktestServiceTest::levels, AllocationRule.EQUAL_WEIGHT, 0, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> service.run(List.of("A", "A"), symbol -> series,
+                PortfolioBacktestServiceTest::levels, AllocationRule.EQUAL_WEIGHT, 0, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> service.run(List.of("A"), symbol -> series,
+                PortfolioBacktestServiceTest::levels, AllocationRule.FIXED_FRACTION, 1.5, 1_000));
+    }
+}
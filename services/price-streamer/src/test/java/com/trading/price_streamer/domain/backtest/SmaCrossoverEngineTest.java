@@ -0,0 +1,134 @@
+package com.trading.price_streamer.domain.backtest;
+
+import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.common.Signal;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SmaCrossoverEngineTest {
+
+    private final BacktestingService backtestingService = new BacktestingService();
+
+    private static List<PriceTickEntity> randomWalk(long seed, int size) {
+        Random random = new Random(seed);
+        List<PriceTickEntity> ticks = new ArrayList<>(size);
+        double price = 60_000;
+        for (int i = 0; i < size; i++) {
+            price += random.nextDouble() * 200 - 100;
+            ticks.add(new PriceTickEntity("BTC-USD", price, Instant.ofEpochMilli(1_700_000_000_000L + i * 1000L)));
+        }
+        return ticks;
+    }
+
+    @Test
+    void matchesListBasedImplementation() {
+        int[][] periods = {{10, 30}, {5, 20}, {3, 7}, {30, 10}, {1, 2}};
+        for (long seed = 1; seed <= 5; seed++) {
+            List<PriceTickEntity> ticks = randomWalk(seed, 5_000);
+            for (int[] p : periods) {
+                BacktestResult expected = referenceBacktest(ticks, p[0], p[1], 10_000);
+                BacktestResult actual = backtestingService.runSmaCrossoverBacktest(ticks, p[0], p[1], 10_000);
+                assertEquals(expected, actual, "seed " + seed + ", periods " + p[0] + "/" + p[1]);
+            }
+        }
+    }
+
+    @Test
+    void prefixSumVariantAgreesWithSlidingWindow() {
+        PriceSeries series = PriceSeries.fromEntities(randomWalk(7, 20_000));
+        double[] prefixSums = SmaCrossoverEngine.prefixSums(series);
+        for (int shortPeriod = 2; shortPeriod <= 20; shortPeriod += 3) {
+            for (int longPeriod = shortPeriod + 1; longPeriod <= 60; longPeriod += 7) {
+                assertEquals(
+                        SmaCrossoverEngine.run(series, shortPeriod, longPeriod, 10_000),
+                        SmaCrossoverEngine.run(series, prefixSums, shortPeriod, longPeriod, 10_000));
+            }
+        }
+    }
+
+    @Test
+    void streamingSourceAgreesWithPriceSeries() {
+        PriceSeries series = PriceSeries.fromEntities(randomWalk(11, 10_000));
+        // Two halves behind a concatenation, so the engine cannot take the array path
+        PriceSeries.Builder first = PriceSeries.builder();
+        PriceSeries.Builder second = PriceSeries.builder();
+        for (int i = 0; i < series.size(); i++) {
+            (i < 4_000 ? first : second).add(series.timestamp(i), series.price(i));
+        }
+        TickSource source = TickSource.concat(List.of(first.build(), second.build()));
+
+        int[][] periods = {{10, 30}, {5, 20}, {3, 7}, {30, 10}, {1, 2}};
+        for (int[] p : periods) {
+            assertEquals(
+                    SmaCrossoverEngine.run(series, p[0], p[1], 10_000),
+                    SmaCrossoverEngine.run(source, p[0], p[1], 10_000),
+                    "periods " + p[0] + "/" + p[1]);
+        }
+        // One tick short of the long period
+        assertEquals(SmaCrossoverEngine.run(PriceSeries.builder().build(), 10, 30, 10_000),
+                SmaCrossoverEngine.run(TickSource.concat(List.of(first.build(), PriceSeries.builder().build())), 3_999, 4_001, 10_000));
+    }
+
+    @Test
+    void tooLittleDataReturnsInitialBalance() {
+        BacktestResult result = backtestingService.runSmaCrossoverBacktest(randomWalk(1, 20), 10, 30, 10_000);
+        assertEquals(referenceBacktest(randomWalk(1, 20), 10, 30, 10_000), result);
+        assertEquals(0, result.getTotalTrades());
+    }
+
+    // The list-based simulation this engine replaced, kept verbatim (minus logging) as the reference
+    private BacktestResult referenceBacktest(List<PriceTickEntity> priceTicks, int shortPeriod, int longPeriod, double initialBalance) {
+        if (priceTicks.size() < longPeriod) {
+            return new BacktestResult("SMA Crossover", BigDecimal.valueOf(initialBalance), BigDecimal.valueOf(initialBalance), BigDecimal.ZERO, 0, 0);
+        }
+
+        List<Signal> signals = backtestingService.generateSmaCrossoverSignals(priceTicks, shortPeriod, longPeriod);
+        BigDecimal cash = BigDecimal.valueOf(initialBalance);
+        BigDecimal btcHoldings = BigDecimal.ZERO;
+        int trades = 0;
+        boolean isHolding = false;
+
+        for (int i = longPeriod; i < priceTicks.size(); i++) {
+            Signal currentSignal = signals.get(i - 1);
+            double currentPrice = priceTicks.get(i).getPrice();
+
+            if (Signal.BUY == currentSignal && !isHolding) {
+                btcHoldings = cash.divide(BigDecimal.valueOf(currentPrice), 8, RoundingMode.DOWN);
+                cash = BigDecimal.ZERO;
+                isHolding = true;
+                trades++;
+            } else if (Signal.SELL == currentSignal && isHolding) {
+                cash = btcHoldings.multiply(BigDecimal.valueOf(currentPrice));
+                btcHoldings = BigDecimal.ZERO;
+                isHolding = false;
+                trades++;
+            }
+        }
+
+        BigDecimal finalBalance = cash;
+        if (isHolding) {
+            double lastPrice = priceTicks.get(priceTicks.size() - 1).getPrice();
+            finalBalance = btcHoldings.multiply(BigDecimal.valueOf(lastPrice));
+        }
+
+        BigDecimal pnl = finalBalance.subtract(BigDecimal.valueOf(initialBalance));
+        double pnlPercentage = pnl.divide(BigDecimal.valueOf(initialBalance), 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue();
+
+        return new BacktestResult(
+                "SMA Crossover (" + shortPeriod + ", " + longPeriod + ")",
+                BigDecimal.valueOf(initialBalance),
+                finalBalance.setScale(2, RoundingMode.HALF_UP),
+                pnl.setScale(2, RoundingMode.HALF_UP),
+                pnlPercentage,
+                trades
+        );
+    }
+}
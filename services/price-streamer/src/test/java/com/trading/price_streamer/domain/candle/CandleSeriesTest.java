@@ -0,0 +1,45 @@
+package com.trading.price_streamer.domain.candle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CandleSeriesTest {
+
+    @Test
+    void discardedOpenBarIsNeverClosedIntoHistory() {
+        CandleSeries series = new CandleSeries(CandleInterval.S1, 10);
+        series.update(100, 1_000);
+        series.update(105, 1_500);
+        series.discardOpen();
+
+        // Back in the same bucket: the bar starts over from this tick
+        series.update(110, 1_700);
+        List<Candle> candles = new ArrayList<>();
+        series.collect("BTC-USD", 0, 10_000, candles);
+        assertEquals(1, candles.size());
+        assertEquals(110.0, candles.get(0).open());
+        assertEquals(1, candles.get(0).tickCount());
+
+        // A late tick from before the discarded bar is still ignored
+        assertEquals(Long.MIN_VALUE, series.update(90, 500));
+    }
+
+    @Test
+    void discardedBarIsSkippedWhenTheNextBucketOpens() {
+        CandleSeries series = new CandleSeries(CandleInterval.S1, 10);
+        series.update(100, 1_000);
+        series.update(101, 2_000); // Closes the 1s bar at 1000
+        series.discardOpen();
+
+        assertEquals(Long.MIN_VALUE, series.update(102, 3_000));
+        List<Candle> candles = new ArrayList<>();
+        series.collect("BTC-USD", 0, 10_000, candles);
+        assertEquals(2, candles.size());
+        assertEquals(1_000L, candles.get(0).timestamp().toEpochMilli());
+        assertEquals(3_000L, candles.get(1).timestamp().toEpochMilli());
+    }
+}
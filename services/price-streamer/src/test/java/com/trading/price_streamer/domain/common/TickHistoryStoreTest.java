@@ -0,0 +1,120 @@
+package com.trading.price_streamer.domain.common;
+
+import com.trading.price_streamer.domain.backtest.PriceSeries;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TickHistoryStoreTest {
+
+    // Segments of 4 ticks, 64 bytes each
+    private static final int SEGMENT_SIZE = 4;
+    private static final long DAY = 86_400_000L;
+
+    @Test
+    void findsRangesAcrossSegmentsInclusiveOfBothEnds() {
+        SymbolRegistry registry = new SymbolRegistry();
+        TickHistoryStore store = new TickHistoryStore(registry, SEGMENT_SIZE, 1 << 20, DAY);
+        int btc = registry.idOf("BTC-USD");
+        for (int i = 0; i < 10; i++) {
+            store.append(btc, 100 + i, 1_000L + i * 10);
+        }
+
+        assertEquals(1_000L, store.coveredFrom("BTC-USD"));
+        assertEquals(TickHistoryStore.NOT_COVERED, store.coveredFrom("ETH-USD"));
+
+        PriceSeries series = store.range("BTC-USD", 1_030L, 1_070L);
+        assertEquals(5, series.size());
+        assertEquals(103.0, series.price(0));
+        assertEquals(1_070L, series.timestamp(4));
+
+        int[] visited = {0};
+        assertEquals(3, store.forEach("BTC-USD", 1_015L, 1_045L, (timestamp, price) -> visited[0]++));
+        assertEquals(3, visited[0]);
+        assertEquals(0, store.range("BTC-USD", 2_000L, 3_000L).size());
+        assertEquals(0, store.range("ETH-USD", 0L, 3_000L).size());
+    }
+
+    @Test
+    void evictsTheOldestClosedSegmentOnceOverBudget() {
+        SymbolRegistry registry = new SymbolRegistry();
+        // Room for three segments
+        TickHistoryStore store = new TickHistoryStore(registry, SEGMENT_SIZE, 3 * SEGMENT_SIZE * 16, DAY);
+        int btc = registry.idOf("BTC-USD");
+        int eth = registry.idOf("ETH-USD");
+        for (int i = 0; i < 8; i++) {
+            store.append(btc, 100 + i, 1_000L + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            store.append(eth, 10 + i, 2_000L + i);
+        }
+        assertEquals(0, store.evictedSegments());
+
+        // A fourth segment pushes out BTC's first one, the oldest across both symbols
+        store.append(eth, 14, 2_004L);
+        assertEquals(1, store.evictedSegments());
+        assertEquals(3 * SEGMENT_SIZE * 16, store.usedBytes());
+        assertEquals(1_004L, store.coveredFrom("BTC-USD"));
+        assertEquals(2_000L, store.coveredFrom("ETH-USD"));
+        assertEquals(4, store.range("BTC-USD", 0L, 10_000L).size());
+    }
+
+    @Test
+    void skipsRedeliveriesAndForgetsReleasedSymbols() {
+        SymbolRegistry registry = new SymbolRegistry();
+        TickHistoryStore store = new TickHistoryStore(registry, SEGMENT_SIZE, 1 << 20, DAY);
+        int btc = registry.idOf("BTC-USD");
+        store.append(btc, 100, 1_000L);
+        store.append(btc, 101, 1_010L);
+        store.append(btc, 99, 1_005L);
+        assertEquals(2, store.range("BTC-USD", 0L, 10_000L).size());
+
+        store.release(btc);
+        assertEquals(TickHistoryStore.NOT_COVERED, store.coveredFrom("BTC-USD"));
+        assertEquals(0, store.usedBytes());
+
+        // Ticks after the release are complete only from the first one on
+        store.append(btc, 102, 1_020L);
+        assertEquals(1_020L, store.coveredFrom("BTC-USD"));
+    }
+
+    @Test
+    void trimsSegmentsOlderThanTheRetention() {
+        SymbolRegistry registry = new SymbolRegistry();
+        TickHistoryStore store = new TickHistoryStore(registry, SEGMENT_SIZE, 1 << 20, DAY);
+        int btc = registry.idOf("BTC-USD");
+        for (int i = 0; i < 6; i++) {
+            store.append(btc, 100 + i, 1_000L + i);
+        }
+
+        store.trimOlderThan(1_004L);
+        assertEquals(1_004L, store.coveredFrom("BTC-USD"));
+        assertEquals(2, store.range("BTC-USD", 0L, 10_000L).size());
+        assertEquals(1, store.evictedSegments());
+    }
+
+    @Test
+    void preloadsOnlyTheNewestHoursThatFitTheBudget() {
+        long hour = 3_600_000L;
+        long now = 100 * DAY;
+        // Room for 1000 ticks; 300 arrive per hour
+        TickHistoryStore store = new TickHistoryStore(new SymbolRegistry(), SEGMENT_SIZE, 1_000 * 16, DAY);
+        assertEquals(now - 3 * hour, store.preloadStart(now, (start, end) -> 300 * (end - start) / hour));
+
+        // Everything fits: the whole retention period
+        assertEquals(now - DAY, store.preloadStart(now, (start, end) -> 0));
+    }
+
+    @Test
+    void countsTicksOlderThanTheNewest() {
+        SymbolRegistry registry = new SymbolRegistry();
+        TickHistoryStore store = new TickHistoryStore(registry, SEGMENT_SIZE, 1 << 20, DAY);
+        int btc = registry.idOf("BTC-USD");
+        store.append(btc, 100, 1_000L);
+        store.append(btc, 101, 999L);
+        store.append(btc, 102, 1_000L);
+
+        assertEquals(1, store.outOfOrderTicks());
+        assertEquals(2, store.range("BTC-USD", 0L, 2_000L).size());
+    }
+}
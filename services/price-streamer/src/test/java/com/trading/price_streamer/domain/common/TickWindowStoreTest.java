@@ -0,0 +1,64 @@
+package com.trading.price_streamer.domain.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TickWindowStoreTest {
+
+    @Test
+    void returnsLatestTicksOldestFirstAcrossWrapAround() {
+        TickWindowStore store = new TickWindowStore(new SymbolRegistry(), 8);
+        TickWindow window = new TickWindow(5);
+
+        assertEquals(0, store.fill("BTC-USD", window));
+
+        for (int i = 0; i < 3; i++) {
+            store.append("BTC-USD", 100 + i, 1_000L + i);
+        }
+        assertEquals(3, store.fill("BTC-USD", window));
+        assertEquals(100.0, window.price(0));
+        assertEquals(1_002L, window.timestamp(2));
+
+        // 20 ticks into a ring of 8 wraps it more than twice
+        for (int i = 3; i < 20; i++) {
+            store.append("BTC-USD", 100 + i, 1_000L + i);
+        }
+        assertEquals(5, store.fill("BTC-USD", window));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(115.0 + i, window.price(i));
+            assertEquals(1_015L + i, window.timestamp(i));
+        }
+    }
+
+    @Test
+    void keepsSymbolsApart() {
+        TickWindowStore store = new TickWindowStore(new SymbolRegistry(), 8);
+        store.append("BTC-USD", 60_000, 1L);
+        store.append("ETH-USD", 3_000, 2L);
+        store.append("BTC-USD", 60_100, 3L);
+
+        TickWindow window = new TickWindow(8);
+        assertEquals(2, store.fill("BTC-USD", window));
+        assertEquals(60_100.0, window.price(1));
+        assertEquals(1, store.fill("ETH-USD", window));
+        assertEquals(3_000.0, window.price(0));
+    }
+
+    @Test
+    void releaseEmptiesOnlyThatSymbol() {
+        SymbolRegistry registry = new SymbolRegistry();
+        TickWindowStore store = new TickWindowStore(registry, 8);
+        store.append("BTC-USD", 60_000, 1L);
+        store.append("ETH-USD", 3_000, 2L);
+
+        store.release(registry.idOf("BTC-USD"));
+        assertEquals(0, store.size(registry.idOf("BTC-USD")));
+        assertEquals(1, store.size(registry.idOf("ETH-USD")));
+
+        store.append("BTC-USD", 61_000, 3L);
+        TickWindow window = new TickWindow(5);
+        assertEquals(1, store.fill("BTC-USD", window));
+        assertEquals(61_000.0, window.price(0));
+    }
+}
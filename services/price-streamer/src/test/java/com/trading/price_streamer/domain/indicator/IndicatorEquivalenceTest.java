@@ -0,0 +1,174 @@
+package com.trading.price_streamer.domain.indicator;
+
+import com.trading.price_streamer.domain.backtest.BacktestingService;
+import com.trading.price_streamer.domain.common.PriceTickEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Each streaming indicator against a straightforward batch computation over the whole array.
+ */
+class IndicatorEquivalenceTest {
+
+    private static final int SIZE = 20_000;
+    private static final long START = 1_700_000_000_000L;
+
+    private final double[] prices = new double[SIZE];
+    private final long[] timestamps = new long[SIZE];
+
+    IndicatorEquivalenceTest() {
+        Random random = new Random(17);
+        double price = 60_000;
+        for (int i = 0; i < SIZE; i++) {
+            price += random.nextDouble() * 200 - 100;
+            prices[i] = price;
+            // Irregular spacing, about 26 hours in total, so VWAP crosses a session boundary
+            timestamps[i] = START + i * 4_000L + random.nextInt(1_000);
+        }
+    }
+
+    // Relative to BTC-scale prices; the streaming and batch forms differ only in rounding
+    private static void assertClose(double expected, double actual, String message) {
+        assertEquals(expected, actual, Math.max(1e-9, Math.abs(expected) * 1e-11), message);
+    }
+
+    @Test
+    void smaIsIdenticalToCalculateSma() {
+        List<PriceTickEntity> ticks = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            ticks.add(new PriceTickEntity("BTC-USD", prices[i], Instant.ofEpochMilli(timestamps[i])));
+        }
+        for (int period : new int[]{1, 10, 200}) {
+            double[] expected = new BacktestingService().calculateSMA(ticks, period);
+            Sma sma = new Sma(period);
+            for (int i = 0; i < SIZE; i++) {
+                sma.update(timestamps[i], prices[i]);
+                assertEquals(i >= period - 1, sma.isReady());
+                assertEquals(expected[i], sma.value(), "period " + period + ", tick " + i);
+            }
+        }
+    }
+
+    @Test
+    void emaMatchesBatchRecurrence() {
+        for (int period : new int[]{1, 12, 200}) {
+            double alpha = 2.0 / (period + 1);
+            double[] expected = new double[SIZE];
+            double seed = 0;
+            for (int i = 0; i < period; i++) {
+                seed += prices[i];
+            }
+            expected[period - 1] = seed / period;
+            for (int i = period; i < SIZE; i++) {
+                expected[i] = alpha * prices[i] + (1 - alpha) * expected[i - 1];
+            }
+
+            Ema ema = new Ema(period);
+            for (int i = 0; i < SIZE; i++) {
+                ema.update(timestamps[i], prices[i]);
+                assertClose(expected[i], ema.value(), "period " + period + ", tick " + i);
+            }
+        }
+    }
+
+    @Test
+    void rsiMatchesWildersBatchDefinition() {
+        for (int period : new int[]{2, 14, 100}) {
+            double[] expected = new double[SIZE];
+            double gain = 0;
+            double loss = 0;
+            for (int i = 1; i <= period; i++) {
+                double change = prices[i] - prices[i - 1];
+                gain += Math.max(change, 0);
+                loss += Math.max(-change, 0);
+            }
+            gain /= period;
+            loss /= period;
+            expected[period] = 100 - 100 / (1 + gain / loss);
+            for (int i = period + 1; i < SIZE; i++) {
+                double change = prices[i] - prices[i - 1];
+                gain = (gain * (period - 1) + Math.max(change, 0)) / period;
+                loss = (loss * (period - 1) + Math.max(-change, 0)) / period;
+                expected[i] = 100 - 100 / (1 + gain / loss);
+            }
+
+            Rsi rsi = new Rsi(period);
+            for (int i = 0; i < SIZE; i++) {
+                rsi.update(timestamps[i], prices[i]);
+                assertEquals(i >= period, rsi.isReady());
+                assertClose(expected[i], rsi.value(), "period " + period + ", tick " + i);
+            }
+        }
+    }
+
+    @Test
+    void bollingerBandsMatchTwoPassWindowStatistics() {
+        for (int period : new int[]{1, 20, 500}) {
+            BollingerBands bands = new BollingerBands(period, 2);
+            for (int i = 0; i < SIZE; i++) {
+                bands.update(timestamps[i], prices[i]);
+                if (i < period - 1) {
+                    assertEquals(0, bands.value());
+                    continue;
+                }
+                double mean = 0;
+                for (int j = i - period + 1; j <= i; j++) {
+                    mean += prices[j];
+                }
+                mean /= period;
+                double squares = 0;
+                for (int j = i - period + 1; j <= i; j++) {
+                    squares += (prices[j] - mean) * (prices[j] - mean);
+                }
+                double deviation = Math.sqrt(squares / period);
+
+                String message = "period " + period + ", tick " + i;
+                assertClose(mean, bands.value(), message);
+                // Deviations are small next to the prices they come from, so compare at price scale
+                assertEquals(deviation, bands.standardDeviation(), mean * 1e-11, message);
+                assertEquals(mean + 2 * deviation, bands.upper(), mean * 1e-11, message);
+                assertEquals(mean - 2 * deviation, bands.lower(), mean * 1e-11, message);
+            }
+        }
+    }
+
+    @Test
+    void vwapMatchesPerSessionAverage() {
+        Random random = new Random(3);
+        double[] volumes = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            volumes[i] = random.nextDouble() * 5;
+        }
+        long day = 86_400_000L;
+
+        Vwap weighted = new Vwap();
+        Vwap unweighted = new Vwap();
+        int sessionStart = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (Math.floorDiv(timestamps[i], day) != Math.floorDiv(timestamps[sessionStart], day)) {
+                sessionStart = i;
+            }
+            double priceVolume = 0;
+            double volume = 0;
+            double sum = 0;
+            for (int j = sessionStart; j <= i; j++) {
+                priceVolume += prices[j] * volumes[j];
+                volume += volumes[j];
+                sum += prices[j];
+            }
+
+            weighted.update(timestamps[i], prices[i], volumes[i]);
+            unweighted.update(timestamps[i], prices[i]);
+            assertClose(priceVolume / volume, weighted.value(), "tick " + i);
+            assertClose(sum / (i - sessionStart + 1), unweighted.value(), "tick " + i);
+        }
+        // The data spans two UTC days
+        assertEquals(true, sessionStart > 0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.trading.price_streamer.domain.strategy;
+
+import com.trading.price_streamer.domain.backtest.BacktestingService;
+import com.trading.price_streamer.domain.backtest.PriceSeries;
+import com.trading.price_streamer.domain.backtest.SmaCrossoverEngine;
+import com.trading.price_streamer.domain.common.PriceTickEntity;
+import com.trading.price_streamer.domain.common.Signal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossoverStrategyTest {
+
+    private final BacktestingService backtestingService = new BacktestingService();
+
+    private static List<PriceTickEntity> randomWalk(long seed, int size) {
+        Random random = new Random(seed);
+        List<PriceTickEntity> ticks = new ArrayList<>();
+        double price = 60_000;
+        for (int i = 0; i < size; i++) {
+            price += random.nextDouble() * 200 - 100;
+            ticks.add(new PriceTickEntity("BTC-USD", price, Instant.ofEpochMilli(i * 1000L)));
+        }
+        return ticks;
+    }
+
+    @Test
+    void matchesBatchSignalsOnceLongSmaIsEstablished() {
+        int[][] periods = {{10, 30}, {5, 20}, {3, 7}, {1, 2}};
+        for (long seed = 1; seed <= 3; seed++) {
+            List<PriceTickEntity> ticks = randomWalk(seed, 5_000);
+
+            for (int[] p : periods) {
+                List<Signal> expected = backtestingService.generateSmaCrossoverSignals(ticks, p[0], p[1]);
+                CrossoverStrategy strategy = CrossoverStrategy.sma(p[0], p[1]);
+                int crossings = 0;
+                for (int i = 0; i < ticks.size(); i++) {
+                    Signal actual = strategy.onTick(i * 1000L, ticks.get(i).getPrice());
+                    if (i < p[1]) {
+                        assertEquals(Signal.HOLD, actual);
+                        continue;
+                    }
+                    // The batch list starts at the second tick
+                    assertEquals(expected.get(i - 1), actual, "seed " + seed + ", tick " + i + ", periods " + p[0] + "/" + p[1]);
+                    if (actual != Signal.HOLD) {
+                        crossings++;
+                    }
+                }
+                assertTrue(crossings > 0);
+            }
+        }
+    }
+
+    @Test
+    void backtestsLikeTheSmaCrossoverEngine() {
+        // Includes a short period longer than the long one, which the engine also accepts
+        int[][] periods = {{10, 30}, {5, 20}, {3, 7}, {30, 10}, {1, 2}};
+        for (long seed = 1; seed <= 3; seed++) {
+            PriceSeries series = PriceSeries.fromEntities(randomWalk(seed, 5_000));
+            for (int[] p : periods) {
+                assertEquals(
+                        SmaCrossoverEngine.run(series, p[0], p[1], 10_000),
+                        backtestingService.runStrategyBacktest(series, CrossoverStrategy.sma(p[0], p[1]), 10_000),
+                        "seed " + seed + ", periods " + p[0] + "/" + p[1]);
+            }
+        }
+    }
+
+    @Test
+    void parsesSpecsIntoFreshInstances() {
+        PriceSeries series = PriceSeries.fromEntities(randomWalk(4, 2_000));
+        Supplier<Strategy> factory = Strategies.parse("sma-crossover:10/30");
+        assertEquals(backtestingService.runStrategyBacktest(series, factory.get(), 10_000),
+                backtestingService.runStrategyBacktest(series, factory.get(), 10_000));
+        assertEquals("EMA Crossover (12, 26)", Strategies.parse("ema-crossover:12/26").get().name());
+        assertEquals("RSI (14, 30.0, 70.0)", Strategies.parse("rsi:14/30/70").get().name());
+        assertEquals("Bollinger (20, 2.0)", Strategies.parse("bollinger:20/2").get().name());
+    }
+}
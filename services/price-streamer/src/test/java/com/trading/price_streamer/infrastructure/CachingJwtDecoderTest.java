@@ -0,0 +1,105 @@
+package com.trading.price_streamer.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJwtDecoderTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private final AtomicInteger validations = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // Accepts "valid-*" tokens, which expire 10 minutes after the start of the test
+    private final JwtDecoder delegate = token -> {
+        validations.incrementAndGet();
+        if (!token.startsWith("valid-")) {
+            throw new BadJwtException("bad signature");
+        }
+        if (!clock.instant().isBefore(Instant.parse("2025-01-01T00:10:00Z"))) {
+            throw new BadJwtException("expired");
+        }
+        return Jwt.withTokenValue(token).header("alg", "RS256").subject(token)
+                .issuedAt(Instant.parse("2025-01-01T00:00:00Z"))
+                .expiresAt(Instant.parse("2025-01-01T00:10:00Z"))
+                .build();
+    };
+
+    @Test
+    void validatesOnceUntilTheTokenExpires() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, registry, clock);
+
+        Jwt first = decoder.decode("valid-a");
+        assertSame(first, decoder.decode("valid-a"));
+        assertEquals(1, validations.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").counter().count());
+
+        clock.now = Instant.parse("2025-01-01T00:10:00Z");
+        assertThrows(BadJwtException.class, () -> decoder.decode("valid-a"));
+        assertEquals(2, validations.get());
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void neverCachesRejectedTokens() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, registry, clock);
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertEquals(2, validations.get());
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void staysWithinItsBoundAndPurgesExpiredEntries() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 2, registry, clock);
+        decoder.decode("valid-a");
+        decoder.decode("valid-b");
+        decoder.decode("valid-c"); // Validated but not stored
+        assertEquals(2, decoder.size());
+
+        decoder.decode("valid-c");
+        assertEquals(4, validations.get());
+
+        clock.now = Instant.parse("2025-01-01T00:10:00Z");
+        decoder.purgeExpired();
+        assertEquals(0, decoder.size());
+        assertEquals(2.0, registry.get("cache.evictions").counter().count());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
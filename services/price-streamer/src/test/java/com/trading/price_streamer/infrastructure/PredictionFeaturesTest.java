@@ -0,0 +1,85 @@
+package com.trading.price_streamer.infrastructure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.price_streamer.domain.common.SymbolRegistry;
+import com.trading.price_streamer.domain.common.TickWindow;
+import com.trading.price_streamer.domain.common.TickWindowStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Parity with ml-service/model.py: ml/feature-parity.csv holds a tick stream and, per tick, the
+ * row create_features keeps for it (blank where it drops the row). ml-service/test_features.py
+ * checks create_features against the same file.
+ */
+class PredictionFeaturesTest {
+
+    private static List<String[]> fixture() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(PredictionFeaturesTest.class.getResourceAsStream("/ml/feature-parity.csv")),
+                StandardCharsets.UTF_8))) {
+            String[] header = reader.readLine().split(",");
+            assertEquals(PredictionFeatures.NAMES, List.of(header).subList(2, header.length));
+            return reader.lines().map(line -> line.split(",", -1)).toList();
+        }
+    }
+
+    @Test
+    void matchesCreateFeaturesOnEveryTick() throws IOException {
+        SymbolRegistry registry = new SymbolRegistry();
+        // Smaller than the stream, so the ring wraps around
+        TickWindowStore store = new TickWindowStore(registry, 16);
+        TickWindow window = new TickWindow(PredictionFeatures.WINDOW);
+        int symbolId = registry.idOf("BTC-USD");
+
+        List<String[]> rows = fixture();
+        int compared = 0;
+        for (String[] row : rows) {
+            store.append(symbolId, Double.parseDouble(row[1]), Instant.parse(row[0]).toEpochMilli());
+            store.fill(symbolId, window);
+            double[] features = PredictionFeatures.of(window);
+            if (row[2].isEmpty()) {
+                assertNull(features);
+                continue;
+            }
+            for (int i = 0; i < features.length; i++) {
+                double expected = Double.parseDouble(row[2 + i]);
+                // Lags are copied exactly; pandas' running sums round the averages differently (~1e-14)
+                double tolerance = i < 5 ? 0 : Math.abs(expected) * 1e-12;
+                assertEquals(expected, features[i], tolerance, PredictionFeatures.NAMES.get(i) + " at " + row[0]);
+            }
+            compared++;
+        }
+        assertEquals(rows.size() - (PredictionFeatures.WINDOW - 1), compared);
+    }
+
+    @Test
+    void batchRequestRendersAsThePredictBatchContract() throws IOException {
+        double[] features = {1, 2, 3, 4, 5, 6.5, 7.25};
+        MLService.PredictionBatchRequest request = new MLService.PredictionBatchRequest(
+                List.of(new MLService.FeatureVector("BTC-USD", features)));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(request));
+        assertEquals("BTC-USD", json.at("/items/0/symbol").asText());
+        assertEquals(7, json.at("/items/0/features").size());
+        assertEquals(7.25, json.at("/items/0/features/6").asDouble());
+
+        MLService.PredictionBatchResponse response = objectMapper.readValue(
+                "{\"predictions\":[{\"symbol\":\"BTC-USD\",\"prediction\":\"UP\"}]}", MLService.PredictionBatchResponse.class);
+        assertEquals(List.of(new MLService.Prediction("BTC-USD", "UP")), response.predictions());
+        assertArrayEquals(features, request.items().get(0).features());
+    }
+}
@@ -0,0 +1,325 @@
+package com.trading.price_streamer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.trading.price_codec.PriceTick;
+import com.trading.price_streamer.domain.alert.AlertCondition;
+import com.trading.price_streamer.domain.alert.AlertService;
+import com.trading.price_streamer.infrastructure.PriceBroadcaster;
+import com.trading.price_streamer.model.CreateAlertRequest;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end latency harness: boots the whole streamer against embedded Kafka and an in-memory
+ * H2 database, drives ticks at a fixed rate and attaches STOMP clients to /ws.
+ * <p>
+ * Two latencies are recorded into HdrHistograms, both measured from the producer timestamp
+ * carried in each {@link PriceTick} (so millisecond resolution):
+ * <ul>
+ *   <li>prices: producer to delivery on /topic/prices/{symbol}, for every tick that survives conflation</li>
+ *   <li>alerts: producer of the crossing tick to delivery on /user/queue/notifications</li>
+ * </ul>
+ * The percentiles are printed, written to target/latency-report.json (plus one .hgrm per
+ * histogram), and the run fails when either p99 exceeds its limit. Run with
+ * {@code mvn -P latency verify}; every {@code harness.*} value below can be overridden with -D.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "spring.kafka.consumer.value-deserializer=org.springframework.kafka.support.serializer.JsonDeserializer",
+        "spring.kafka.consumer.properties.spring.json.trusted.packages=*",
+        // H2 has no TIMESTAMPTZ keyword, so it is declared as a domain before Hibernate creates the tables
+        "spring.datasource.url=jdbc:h2:mem:latency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=CREATE DOMAIN IF NOT EXISTS TIMESTAMPTZ AS TIMESTAMP WITH TIME ZONE",
+        "logging.level.root=WARN",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        // Nothing listens here: predictions fail fast and the circuit breaker opens
+        "ml.service.url=http://127.0.0.1:9",
+        "websocket.conflation.interval-ms=${harness.conflation-interval-ms:100}"
+})
+@EmbeddedKafka(partitions = 4, topics = "price-ticks")
+class IngestLatencyIT {
+
+    private static final String ALERT_SYMBOL = "ALERT-USD";
+    private static final double ALERT_TARGET = 1_000.0;
+    private static final long HIGHEST_TRACKABLE_MS = 60_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${harness.rate:2000}")
+    private int ticksPerSecond;
+
+    @Value("${harness.duration-s:20}")
+    private int durationSeconds;
+
+    @Value("${harness.symbols:20}")
+    private int symbolCount;
+
+    @Value("${harness.sessions:20}")
+    private int sessionCount;
+
+    @Value("${harness.alert-rounds:100}")
+    private int alertRounds;
+
+    @Value("${harness.conflation-interval-ms:100}")
+    private long conflationIntervalMs;
+
+    @Value("${harness.max-price-p99-ms:500}")
+    private long maxPriceP99Ms;
+
+    @Value("${harness.max-alert-p99-ms:1000}")
+    private long maxAlertP99Ms;
+
+    private final Recorder priceLatency = new Recorder(HIGHEST_TRACKABLE_MS, 3);
+    private final Recorder alertLatency = new Recorder(HIGHEST_TRACKABLE_MS, 3);
+
+    @TestConfiguration
+    static class TestAuthConfig {
+        // Accepts any bearer token and uses it as the user id
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return token -> Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject(token)
+                    .issuedAt(Instant.now())
+                    .expiresAt(Instant.now().plusSeconds(3600))
+                    .build();
+        }
+    }
+
+    @Test
+    void measureIngestToWebSocketLatency() throws Exception {
+        // Only the running tick listener consumes the 4-partition topic; the relay listeners have their own
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning() && Arrays.asList(container.getContainerProperties().getTopics()).contains("price-ticks")) {
+                ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+            }
+        }
+        KafkaTemplate<String, PriceTick> producer = createProducer();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new CompositeMessageConverter(
+                List.of(new StringMessageConverter(), new MappingJackson2MessageConverter())));
+
+        // Price subscribers: every session watches every symbol
+        List<StompSession> sessions = new ArrayList<>();
+        for (int s = 0; s < sessionCount; s++) {
+            StompSession session = connect(stompClient, "price-watcher-" + s);
+            for (int i = 0; i < symbolCount; i++) {
+                session.subscribe(PriceBroadcaster.DESTINATION_PREFIX + symbol(i), new PriceHandler());
+            }
+            sessions.add(session);
+        }
+
+        // One user whose alerts are triggered one at a time
+        String alertUser = "alert-user";
+        BlockingQueue<Long> notifications = new LinkedBlockingQueue<>();
+        StompSession alertSession = connect(stompClient, alertUser);
+        alertSession.subscribe("/user/queue/notifications", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                notifications.add(System.currentTimeMillis());
+            }
+        });
+        sessions.add(alertSession);
+        Thread.sleep(500); // Let the subscriptions reach the broker
+
+        Thread load = new Thread(() -> driveLoad(producer), "latency-load");
+        load.start();
+        priceLatency.reset(); // Discard anything from before the measured window
+
+        int missedAlerts = 0;
+        long roundSpacingMs = Math.max(1, durationSeconds * 1000L / Math.max(1, alertRounds));
+        for (int round = 0; round < alertRounds && load.isAlive(); round++) {
+            CreateAlertRequest request = new CreateAlertRequest();
+            request.setSymbol(ALERT_SYMBOL);
+            request.setCondition(AlertCondition.ABOVE);
+            request.setTargetPrice(BigDecimal.valueOf(ALERT_TARGET));
+            alertService.createAlert(request, alertUser);
+            notifications.clear(); // Drop a late notification from a round that already timed out
+
+            long sentAt = System.currentTimeMillis();
+            producer.send("price-ticks", ALERT_SYMBOL, new PriceTick(ALERT_SYMBOL, ALERT_TARGET + 1, sentAt));
+            Long receivedAt = notifications.poll(5, TimeUnit.SECONDS);
+            if (receivedAt == null) {
+                missedAlerts++;
+            } else {
+                alertLatency.recordValue(Math.max(0, Math.min(receivedAt - sentAt, HIGHEST_TRACKABLE_MS)));
+            }
+            Thread.sleep(roundSpacingMs);
+        }
+        load.join();
+        Thread.sleep(conflationIntervalMs * 2); // Let the last conflated prices arrive
+
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+        producer.destroy();
+
+        Histogram prices = priceLatency.getIntervalHistogram();
+        Histogram alerts = alertLatency.getIntervalHistogram();
+        writeReport(prices, alerts, missedAlerts);
+
+        assertTrue(prices.getTotalCount() > 0, "No price reached a WebSocket client");
+        assertTrue(missedAlerts == 0, missedAlerts + " alert notifications never arrived");
+        assertTrue(prices.getValueAtPercentile(99) <= maxPriceP99Ms,
+                "Price p99 " + prices.getValueAtPercentile(99) + " ms exceeds " + maxPriceP99Ms + " ms");
+        assertTrue(alerts.getValueAtPercentile(99) <= maxAlertP99Ms,
+                "Alert p99 " + alerts.getValueAtPercentile(99) + " ms exceeds " + maxAlertP99Ms + " ms");
+    }
+
+    private void driveLoad(KafkaTemplate<String, PriceTick> producer) {
+        double[] prices = new double[symbolCount];
+        Arrays.fill(prices, 60_000);
+        SplittableRandom random = new SplittableRandom(42);
+
+        long intervalNanos = 1_000_000_000L / ticksPerSecond;
+        long start = System.nanoTime();
+        long total = (long) ticksPerSecond * durationSeconds;
+        for (long n = 0; n < total; n++) {
+            long due = start + n * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int i = (int) (n % symbolCount);
+            prices[i] += random.nextDouble(-100, 100);
+            producer.send("price-ticks", symbol(i), new PriceTick(symbol(i), prices[i], System.currentTimeMillis()));
+        }
+        producer.flush();
+    }
+
+    private KafkaTemplate<String, PriceTick> createProducer() {
+        Map<String, Object> config = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.LINGER_MS_CONFIG, 1);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new JsonSerializer<>()));
+    }
+
+    private StompSession connect(WebSocketStompClient client, String user) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + user);
+        return client.connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(), connectHeaders,
+                new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+    }
+
+    private static String symbol(int i) {
+        return String.format("SYM%03d-USD", i);
+    }
+
+    private void writeReport(Histogram prices, Histogram alerts, int missedAlerts) throws IOException {
+        File dir = new File("target");
+        dir.mkdirs();
+
+        ObjectNode report = objectMapper.createObjectNode();
+        ObjectNode config = report.putObject("config");
+        config.put("ticksPerSecond", ticksPerSecond);
+        config.put("durationSeconds", durationSeconds);
+        config.put("symbols", symbolCount);
+        config.put("sessions", sessionCount);
+        config.put("alertRounds", alertRounds);
+        config.put("conflationIntervalMs", conflationIntervalMs);
+        summarize(report.putObject("priceToTopicMs"), prices);
+        summarize(report.putObject("alertToNotificationMs"), alerts).put("missed", missedAlerts);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(dir, "latency-report.json"), report);
+
+        try (PrintStream out = new PrintStream(new FileOutputStream(new File(dir, "latency-prices.hgrm")))) {
+            prices.outputPercentileDistribution(out, 1.0);
+        }
+        try (PrintStream out = new PrintStream(new FileOutputStream(new File(dir, "latency-alerts.hgrm")))) {
+            alerts.outputPercentileDistribution(out, 1.0);
+        }
+        System.out.println("Latency report: " + objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+
+    private static ObjectNode summarize(ObjectNode node, Histogram histogram) {
+        node.put("count", histogram.getTotalCount());
+        node.put("p50", histogram.getValueAtPercentile(50));
+        node.put("p90", histogram.getValueAtPercentile(90));
+        node.put("p99", histogram.getValueAtPercentile(99));
+        node.put("p999", histogram.getValueAtPercentile(99.9));
+        node.put("max", histogram.getMaxValue());
+        return node;
+    }
+
+    private class PriceHandler implements StompFrameHandler {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return PriceTick.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long latency = System.currentTimeMillis() - ((PriceTick) payload).timestamp();
+            priceLatency.recordValue(Math.max(0, Math.min(latency, HIGHEST_TRACKABLE_MS)));
+        }
+    }
+}